@@ -0,0 +1,242 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * The BasketOrder class places several order lines, e.g. 10 Standing desks, 10 Mesh chairs and 10 Desk lamps, as one
+ * order. The database is read once and every line is solved against that one in-memory snapshot: the rows used by a
+ * line are marked with @Database.updateTable before the next line is solved, so two lines never share a row. The
+ * consumption of every line is then written back with a single @Database.pushLocal and one combined order form is
+ * produced by @CreateOrder.generateBasketOrder.
+ *
+ * In joint mode, lines that want the same category and type are allocated together by @JointAllocator instead of in
+ * the order they were added, so an early line does not take rows a later one needed. Joint mode is on when the
+ * ensf409.joint system property is true, or when set with setJoint.
+ */
+public class BasketOrder {
+    /** System property that turns joint mode on */
+    public static final String JOINT_PROPERTY = "ensf409.joint";
+
+    private final ArrayList<Order> lines = new ArrayList<Order>(); // order lines, in the order they were added
+    private final Order session = new Order(); // holds the solver settings, quote cache and search state shared by every line
+    private LocalDateTime ldt;
+    private boolean joint = Boolean.getBoolean(JOINT_PROPERTY); // allocate lines of the same type together
+
+    /**
+     * Start of the basket program. The user enters order lines until they choose to stop, then the basket is placed.
+     * @param args database URL, username and password
+     */
+    public static void main(String[] args){
+        SolverSelector.checkConfiguredMode(); // report a mistyped ensf409.solver before any order is read
+        String DBURL, USERNAME, PASSWORD;
+        DBURL = args[0]; // jdbc:mysql://localhost/inventory
+        USERNAME = args[1]; // scm
+        PASSWORD = args[2]; // ensf409
+        Scanner input = new Scanner(System.in); //Reads the user input
+        BasketOrder basket = new BasketOrder();
+        Order prompts = new Order(); // reuses the prompts of a single order for each line
+
+        do {
+            prompts.setFurnitureCategory(prompts.userCategory(input));
+            prompts.setFurnitureType(prompts.userType(prompts, input));
+            prompts.setNumberItems(prompts.userNumber(prompts, input));
+            basket.addLine(prompts.getFurnitureCategory(), prompts.getFurnitureType(), prompts.getNumberItems());
+        }
+        while(basket.addAnotherLine(input));
+
+        Database db = new Database(DBURL, USERNAME, PASSWORD); //makes new database
+        db.initializeConnection(); // initialize the connection to the database
+        db.updateLocal(); // take one snapshot of the object arrays for the whole basket
+        basket.place(db);
+        input.close();
+        db.closeConnections();
+    }
+
+    /**
+     * Default constructor for class BasketOrder
+     */
+    public BasketOrder(){
+        this.ldt = LocalDateTime.now();
+    }
+
+    /**
+     * Adds an order line to the basket.
+     * @param category furniture category (desk, chair, filing or lamp)
+     * @param type furniture type
+     * @param number number of desired furniture items
+     */
+    public void addLine(String category, String type, int number){
+        Order line = new Order();
+        line.setFurnitureCategory(category);
+        line.setFurnitureType(type);
+        line.setNumberItems(number);
+        line.setSolverMode(session.getSolverMode());
+        line.setBudgetMillis(session.getBudgetMillis());
+        lines.add(line);
+    }
+
+    /**
+     * Solves every line against the local arrays of the database, marks the rows each line uses, writes the combined
+     * order form and pushes the consumption of the whole basket to the database once.
+     * @param db Database object whose local arrays were loaded with updateLocal
+     * @return lowest price search result of each line, price 0 for a line that cannot be made
+     * @throws IllegalArgumentException if no line was added
+     */
+    public ArrayList<SolverResult> place(Database db){
+        CreateOrder co = new CreateOrder(this, ldt, db);
+        ArrayList<SolverResult> results = new ArrayList<SolverResult>();
+        ArrayList<String[]> ids = new ArrayList<String[]>();
+        HashMap<Integer, SolverResult> planned = joint ? planJoint(lines, db, session.getBudgetMillis()) : new HashMap<Integer, SolverResult>();
+        for(int i = 0; i < lines.size(); i++){
+            Order line = lines.get(i);
+            System.out.println("Line: " + line.getNumberItems() + " " + line.getFurnitureType() + " " + line.getFurnitureCategory());
+            int indicator = ComponentTable.indicatorOf(line.getFurnitureCategory()); // 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+            SolverResult result = planned.get(i); // rows of the other types are untouched by the joint allocation
+            if(result == null){
+                result = session.search(line, co, db); // get lowest price against what the earlier lines left
+            }
+            results.add(result);
+            if(result.getPrice() != 0){ // if a combination was found
+                ids.add(co.makeIdArray(result.getIndexes(), indicator));
+                db.updateTable(result.getIndexes(), indicator); // later lines cannot use these rows
+                System.out.println("The price found to make this line is: $" + result.getPrice()+".00");
+            }
+            else{
+                ids.add(null);
+                System.out.println("Impossible to make this line due to lack of inventory");
+            }
+        }
+        co.generateBasketOrder(lines, results, ids);
+        System.out.println("The total price of the basket is: $" + co.getTotalPrice()+".00");
+        System.out.println("The file name is: " + co.getFileName().getName());
+        if(!db.pushLocal()){ //update all tables in the database once for the whole basket.
+            System.out.println("The items were not removed from the database inventory, they may be ordered again");
+        }
+        return results;
+    }
+
+    /**
+     * Allocates together every group of two or more lines that want the same category and type, and prints how the
+     * joint allocation compares with solving those lines in the order they were added. Also used by @BatchOrder for
+     * the orders between two pushes.
+     * @param lines order lines, null for a position with no order
+     * @param db Database object whose local arrays were loaded with updateLocal
+     * @param budgetMillis time the search for a better sequence of each group may take, 0 for no limit
+     * @return result of each jointly allocated line, keyed by its position in lines
+     */
+    static HashMap<Integer, SolverResult> planJoint(List<Order> lines, Database db, long budgetMillis){
+        LinkedHashMap<String, ArrayList<Integer>> groups = new LinkedHashMap<String, ArrayList<Integer>>();
+        for(int i = 0; i < lines.size(); i++){
+            Order line = lines.get(i);
+            if(line == null){
+                continue;
+            }
+            groups.computeIfAbsent(line.getFurnitureCategory() + "|" + line.getFurnitureType(), key -> new ArrayList<Integer>()).add(i);
+        }
+        HashMap<Integer, SolverResult> planned = new HashMap<Integer, SolverResult>();
+        JointAllocator allocator = new JointAllocator(budgetMillis);
+        for(ArrayList<Integer> group : groups.values()){
+            if(group.size() < 2){
+                continue; // a line alone can be solved as usual
+            }
+            Order first = lines.get(group.get(0));
+            int[] quantities = new int[group.size()];
+            for(int j = 0; j < quantities.length; j++){
+                quantities[j] = lines.get(group.get(j)).getNumberItems();
+            }
+            ComponentTable table = db.getView(ComponentTable.indicatorOf(first.getFurnitureCategory())).select(first.getFurnitureType());
+            JointAllocator.Allocation allocation = allocator.allocate(table, quantities);
+            for(int j = 0; j < quantities.length; j++){
+                planned.put(group.get(j), allocation.getResult(j));
+            }
+            JointAllocator.Allocation sequential = allocation.getBaseline();
+            System.out.println("Joint allocation of " + quantities.length + " " + first.getFurnitureType() + " "
+                    + first.getFurnitureCategory() + " lines: $" + allocation.getCost() + ".00 with "
+                    + allocation.getUnfilled() + " unfilled, in arrival order: $" + sequential.getCost() + ".00 with "
+                    + sequential.getUnfilled() + " unfilled");
+            if(allocation.getExtraFilled() > 0){
+                System.out.println("Joint allocation fills " + allocation.getExtraFilled() + " more line(s)");
+            }
+            else{
+                System.out.println("Joint allocation saves $" + allocation.getSavings() + ".00");
+            }
+            System.out.printf("%d sequences tried in %.1f ms, %s%n", allocation.getTried(), allocation.getElapsedMillis(),
+                    allocation.isOptimal() ? "proven lowest" : "best effort, lower bound $" + allocation.getLowerBound() + ".00");
+        }
+        return planned;
+    }
+
+    /**
+     * This method prompts the user to input if they want to add another line to the basket.
+     * @param input user input reader
+     * @return true - if the user inputs Y and false if the user inputs N.
+     */
+    public boolean addAnotherLine(Scanner input){
+        while(true){
+            System.out.println("Would you like to add another line to this basket? (Y/N)");
+            switch(input.nextLine().trim()){
+                case "Y":
+                case "y":
+                    return true;
+                case "N":
+                case "n":
+                    return false;
+                default:
+                    System.out.println("Must select either Y or N");
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Getter method for lines
+     * @return order lines of the basket
+     */
+    public ArrayList<Order> getLines() {
+        return lines;
+    }
+
+    /**
+     * Getter method for session
+     * @return Order holding the solver settings and search state used for every line
+     */
+    public Order getSession() {
+        return session;
+    }
+
+    /**
+     * Setter method for joint
+     * @param joint true to allocate lines of the same category and type together
+     */
+    public void setJoint(boolean joint) {
+        this.joint = joint;
+    }
+
+    /**
+     * Getter method for joint
+     * @return true if lines of the same category and type are allocated together
+     */
+    public boolean isJoint() {
+        return joint;
+    }
+
+    /**
+     * Getter method for ldt
+     * @return time the basket was started, used to name the order form
+     */
+    public LocalDateTime getLDT(){
+        return ldt;
+    }
+}
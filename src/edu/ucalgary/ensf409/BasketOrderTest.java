@@ -0,0 +1,121 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Tests placing a @BasketOrder and the combined order form made by @CreateOrder.generateBasketOrder. The database
+ * holds hardcoded copies of rows from the inventory database and its URL names no driver, so the push at the end of
+ * each basket fails and leaves every real table untouched.
+ */
+public class BasketOrderTest
+{
+    private Database db;
+    private BasketOrder basket;
+    private File form;
+
+    @Before
+    public void setUp()
+    {
+        db = new Database("jdbc:none:basket", "scm", "ensf409");
+        db.setLocal(new Desk[0],
+                new Chair[] {
+                        new Chair("C1320", "Kneeling", "Y", "N", "N", "N", 50, "002"),
+                        new Chair("C9890", "Mesh", "N", "Y", "N", "Y", 50, "003"),
+                        new Chair("C0942", "Mesh", "Y", "N", "Y", "Y", 100, "005"),
+                        new Chair("C6748", "Mesh", "Y", "N", "N", "N", 75, "003"),
+                        new Chair("C8138", "Mesh", "N", "N", "Y", "N", 75, "005")
+                },
+                new Filing[0],
+                new Lamp[] {
+                        new Lamp("L132", "Desk", "Y", "N", 18, "005"),
+                        new Lamp("L980", "Study", "N", "Y", 2, "004"),
+                        new Lamp("L013", "Desk", "N", "Y", 2, "004"),
+                        new Lamp("L112", "Desk", "Y", "N", 18, "005")
+                },
+                new Manufacturer[] {
+                        new Manufacturer("002", "Office Furnishings", "587-890-4387", "AB"),
+                        new Manufacturer("003", "Chairs R Us", "705-667-9481", "ON"),
+                        new Manufacturer("004", "Furniture Goods", "306-512-5508", "SK"),
+                        new Manufacturer("005", "Fine Office Supplies", "403-980-9876", "AB")
+                });
+        basket = new BasketOrder();
+        form = new File("Basket_Order_[" + basket.getLDT().format(DateTimeFormatter.ofPattern("dd-MM-yyyy_HH~mm~ss")) + "].txt");
+    }
+
+    @After
+    public void tearDown()
+    {
+        form.delete(); // the order form is only needed by the test that made it
+    }
+
+    /**
+     * testMultiLineTotal() places one Mesh chair and one Desk lamp. Each line should get its own lowest price, $150
+     * and $20, and the order form should list both lines and a total of $170.
+     */
+    @Test
+    public void testMultiLineTotal() throws IOException
+    {
+        basket.addLine("chair", "Mesh", 1);
+        basket.addLine("lamp", "Desk", 1);
+
+        ArrayList<SolverResult> results = basket.place(db);
+        List<String> lines = Files.readAllLines(form.toPath());
+
+        Assert.assertEquals("Lowest price for one Mesh chair should be 150", 150, results.get(0).getPrice());
+        Assert.assertEquals("Lowest price for one Desk lamp should be 20", 20, results.get(1).getPrice());
+        Assert.assertTrue("The form should give the price of the chair line", lines.contains("Line Price: $150.00"));
+        Assert.assertTrue("The form should give the price of the lamp line", lines.contains("Line Price: $20.00"));
+        Assert.assertEquals("The form should end with the total of both lines", "Total Price: $170.00", lines.get(lines.size() - 1));
+    }
+
+    /**
+     * testRecommendationLine() places two lines of one Desk lamp each. Only one bulb is in stock, so the first line
+     * takes it and the second cannot be made. The order form should list the suppliers of Desk lamps for the second
+     * line, and the total should only count the first.
+     */
+    @Test
+    public void testRecommendationLine() throws IOException
+    {
+        basket.addLine("lamp", "Desk", 1);
+        basket.addLine("lamp", "Desk", 1);
+
+        ArrayList<SolverResult> results = basket.place(db);
+        List<String> lines = Files.readAllLines(form.toPath());
+        int advice = lines.indexOf("Cannot be completed due to current inventory, please contact the following UofC approved suppliers: ");
+
+        Assert.assertEquals("The first line should take the only bulb", 20, results.get(0).getPrice());
+        Assert.assertEquals("The second line should not be made", 0, results.get(1).getPrice());
+        Assert.assertTrue("The form should recommend suppliers for the second line", advice > 0);
+        Assert.assertEquals("Suppliers of Desk lamps should follow in the order of the lamp rows",
+                Arrays.asList("Fine Office Supplies", "Furniture Goods"), lines.subList(advice + 1, advice + 3));
+        Assert.assertEquals("The form should only count the line that was made", "Total Price: $20.00", lines.get(lines.size() - 1));
+    }
+
+    /**
+     * testEmptyBasket() places a basket with no lines. It should be rejected with a message before any order form is
+     * made.
+     */
+    @Test
+    public void testEmptyBasket()
+    {
+        String message = null;
+        try {
+            basket.place(db);
+        } catch (IllegalArgumentException ex) {
+            message = ex.getMessage();
+        }
+
+        Assert.assertNotNull("An empty basket should be rejected", message);
+        Assert.assertFalse("No order form should be made for an empty basket", form.exists());
+    }
+}
@@ -0,0 +1,440 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The BatchOrder class places every order in a file instead of prompting for them one at a time. The file is read a
+ * line at a time, so it can hold any number of orders, in one of two formats chosen by its extension:
+ *  - .csv: one order per line as category,type,quantity, with an optional header line
+ *  - .ndjson, .jsonl or .json: one JSON object per line such as {"category": "chair", "type": "Mesh", "quantity": 2}.
+ *    A .json file is read the same way, so it must also hold one object per line rather than an array.
+ *
+ * The database is read once. Orders are solved in file order against the local arrays, and the rows each one uses are
+ * marked with @Database.updateTable before the next is solved. The local arrays are pushed to the database every
+ * commitEvery filled orders and once more at the end, rather than after every order, and the rows written per second
+ * by those pushes are reported. Each order gets its own order form in the output directory, and summary.csv there
+ * lists the outcome of every line of the file, with every text field quoted. The rows of the summary are held back
+ * until the filled orders before them are pushed. A failed push keeps its rows for the next one, and a filled order
+ * whose rows never reach the database is listed as NOT_COMMITTED rather than filled.
+ *
+ * An order read from the file only carries its category, type and quantity. Every order is solved by one session
+ * @Order, so the @QuoteCache and @IncrementalSearch are shared across the whole batch.
+ *
+ * In joint mode the file is read in windows of commitEvery lines. The orders of a window that want the same category
+ * and type are allocated together by @JointAllocator, as in @BasketOrder, and the window is then placed in file
+ * order. Joint mode is on when the ensf409.joint system property is true, or when set with setJoint.
+ *
+ * In quote mode every line is only priced with @Order.quote. No rows are used, no order forms are written and nothing
+ * is pushed, so repeated lines are answered from the @QuoteCache. Quote mode is on when the ensf409.quote system
+ * property is true, or when set with setQuoteOnly.
+ */
+public class BatchOrder {
+    /** Filled orders between pushes to the database when none is given */
+    public static final int DEFAULT_COMMIT_EVERY = 50;
+    /** System property that turns quote mode on */
+    public static final String QUOTE_PROPERTY = "ensf409.quote";
+
+    private static final Pattern CATEGORY = Pattern.compile("\"category\"\\s*:\\s*\"([^\"]*)\"");
+    private static final Pattern TYPE = Pattern.compile("\"type\"\\s*:\\s*\"([^\"]*)\"");
+    private static final Pattern QUANTITY = Pattern.compile("\"quantity\"\\s*:\\s*\"?(-?\\d+)\"?");
+
+    private final Database db; // database whose local arrays the orders are solved against
+    private final Order session = new Order(); // holds the solver settings, quote cache and search state shared by every order
+    private final int commitEvery; // filled orders between pushes to the database
+    private final File outputDir; // directory the order forms and the summary are written to
+    private int filled; // orders that could be made
+    private int quoted; // orders priced in quote mode
+    private int unfilled; // orders that could not be made from the inventory left
+    private int invalid; // lines that could not be read as an order
+    private int pending; // filled orders not yet pushed to the database
+    private int pushes; // number of pushes to the database that succeeded
+    private int failedPushes; // number of pushes to the database that failed
+    private int uncommitted; // filled orders whose rows never reached the database
+    private PrintWriter summary; // summary being written by run
+    private final ArrayList<String[]> unsent = new ArrayList<String[]>(); // summary rows held back until a push, as placed and as not committed
+    private long totalPrice; // price of every filled order
+    private boolean joint = Boolean.getBoolean(BasketOrder.JOINT_PROPERTY); // allocate orders of the same type together
+    private boolean quoteOnly = Boolean.getBoolean(QUOTE_PROPERTY); // only price the orders, leave the inventory alone
+    private final ArrayList<Integer> windowLines = new ArrayList<Integer>(); // line of each order read in joint mode and not yet placed
+    private final ArrayList<Order> window = new ArrayList<Order>(); // those orders, null for an invalid line
+
+    /**
+     * Start of the batch program
+     * @param args database URL, username, password, order file, and optionally the filled orders between pushes,
+     *             the output directory and the rows sent to the database in each batch. Exits with status 1 if filled
+     *             orders could not be written to the database.
+     * @throws IOException if the order file cannot be read or the output cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        SolverSelector.checkConfiguredMode(); // report a mistyped ensf409.solver before any order is read
+        String DBURL, USERNAME, PASSWORD;
+        DBURL = args[0]; // jdbc:mysql://localhost/inventory
+        USERNAME = args[1]; // scm
+        PASSWORD = args[2]; // ensf409
+        File input = new File(args[3]);
+        int commitEvery = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_COMMIT_EVERY;
+        File outputDir = new File(args.length > 5 ? args[5] : input.getName() + "_orders");
+
+        Database db = new Database(DBURL, USERNAME, PASSWORD); //makes new database
+        db.initializeConnection(); // initialize the connection to the database
+        if (args.length > 6) {
+            db.setBatchSize(Integer.parseInt(args[6]));
+        }
+        db.updateLocal(); // read the object arrays once for the whole batch
+        BatchOrder batch = new BatchOrder(db, commitEvery, outputDir);
+        try (BufferedReader reader = new BufferedReader(new FileReader(input))) {
+            batch.run(reader, isJson(input.getName()));
+        }
+        db.closeConnections();
+        if (batch.getUncommitted() > 0) { // the inventory was not updated for these orders
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Constructor for BatchOrder
+     * @param db Database object whose local arrays were loaded with updateLocal
+     * @param commitEvery filled orders between pushes to the database
+     * @param outputDir directory the order forms and the summary are written to, created if missing
+     */
+    public BatchOrder(Database db, int commitEvery, File outputDir) {
+        this.db = db;
+        this.commitEvery = Math.max(1, commitEvery);
+        this.outputDir = outputDir;
+    }
+
+    /**
+     * Places every order read from the reader and writes the summary.
+     * @param reader order file, read one line at a time
+     * @param json true for NDJSON lines, false for CSV lines
+     * @throws IOException if the output directory or the summary cannot be written
+     */
+    public void run(BufferedReader reader, boolean json) throws IOException {
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Cannot create output directory " + outputDir);
+        }
+        long start = System.nanoTime();
+        int lineNumber = 0;
+        try (PrintWriter summary = new PrintWriter(new File(outputDir, "summary.csv"))) {
+            this.summary = summary;
+            summary.println("line,category,type,quantity,status,price,items,file");
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (text.trim().isEmpty()) {
+                    continue;
+                }
+                Order order = json ? parseJson(text) : parseCsv(text);
+                if (order == null) {
+                    if (lineNumber == 1 && !json && text.toLowerCase().startsWith("category")) { // skip a CSV header
+                        continue;
+                    }
+                    invalid++;
+                }
+                if (joint && !quoteOnly) { // quotes use no rows, so there is nothing to allocate together
+                    windowLines.add(lineNumber);
+                    window.add(order);
+                    if (window.size() >= commitEvery) {
+                        placeWindow();
+                    }
+                } else {
+                    record(lineNumber, place(order, lineNumber, null));
+                }
+            }
+            placeWindow();
+            if (pending > 0 && !push()) { // the last push failed, so these orders were never committed
+                uncommitted = pending;
+                System.err.println("Push to the database failed: " + uncommitted + " filled order(s) were NOT written to the"
+                        + " database and are listed as NOT_COMMITTED in the summary");
+            }
+            flush(uncommitted == 0);
+        } finally {
+            this.summary = null;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int orders = filled + unfilled;
+        if (quoteOnly) {
+            System.out.println("Batch complete: " + quoted + " quoted, " + unfilled + " unfilled, " + invalid + " invalid lines");
+        } else {
+            System.out.println("Batch complete: " + (filled - uncommitted) + " filled, " + uncommitted + " not committed, "
+                    + unfilled + " unfilled, " + invalid + " invalid lines");
+            System.out.println("Total price of filled orders: $" + totalPrice + ".00");
+        }
+        System.out.printf("%d orders in %.2f s (%.1f orders/s), %d pushes to the database, %d failed%n",
+                orders, seconds, seconds > 0 ? orders / seconds : 0.0, pushes, failedPushes);
+        QuoteCache quotes = session.getQuoteCache();
+        System.out.printf("%d quote cache hits, %d misses (%.0f%% hit rate)%n",
+                quotes.getHits(), quotes.getMisses(), quotes.getHitRate() * 100);
+        System.out.printf("%d rows written in batches of %d (%.1f rows/s)%n",
+                db.getPushedRows(), db.getBatchSize(), db.getRowsPerSecond());
+        ConnectionPool pool = db.getPool();
+        System.out.printf("%d connection borrows, %.2f ms average and %.2f ms longest wait for the pool of %d%n",
+                pool.getBorrows(), pool.getAverageWaitMillis(), pool.getMaxWaitMillis(), pool.getSize());
+        System.out.println("Summary written to " + new File(outputDir, "summary.csv").getPath());
+    }
+
+    /**
+     * Places the orders of the window, allocating those of the same category and type together, and writes their rows
+     * of the summary in file order.
+     */
+    private void placeWindow() {
+        HashMap<Integer, SolverResult> planned = BasketOrder.planJoint(window, db, session.getBudgetMillis());
+        for (int i = 0; i < window.size(); i++) {
+            record(windowLines.get(i), place(window.get(i), windowLines.get(i), planned.get(i)));
+        }
+        windowLines.clear();
+        window.clear();
+    }
+
+    /**
+     * Solves one order, marks the rows it uses and writes its order form or recommendation. In quote mode the order is
+     * only priced and nothing is written.
+     * @param order order read from the file, null for a line that is not a valid order
+     * @param lineNumber line of the file the order was read from
+     * @param planned result of the joint allocation for the order, null to search for it
+     * @return summary columns of the order after the line number, as placed and as written if its rows never reach the
+     * database
+     */
+    private String[] place(Order order, int lineNumber, SolverResult planned) {
+        if (order == null) {
+            return both(",,," + quote("INVALID") + ",0,,");
+        }
+        order.setSolverMode(session.getSolverMode());
+        order.setBudgetMillis(session.getBudgetMillis());
+        File form = new File(outputDir, lineNumber + "_" + order.getFurnitureType() + "_" + order.getFurnitureCategory() + "_Order.txt");
+        CreateOrder co = quoteOnly ? new CreateOrder(order, db) : new CreateOrder(order, form, db); // a quote writes no order form
+        int indicator = ComponentTable.indicatorOf(order.getFurnitureCategory()); // 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+        SolverResult result = planned != null ? planned
+                : session.quote(order, co, db); // get lowest price against what the earlier orders left, cached per type
+        String columns = quote(order.getFurnitureCategory()) + "," + quote(order.getFurnitureType()) + ","
+                + order.getNumberItems() + ",";
+        if (quoteOnly) {
+            if (result.getPrice() == 0) {
+                unfilled++;
+                return both(columns + quote("UNFILLED") + ",0,,");
+            }
+            quoted++;
+            return both(columns + quote("QUOTED") + "," + result.getPrice() + ","
+                    + quote(String.join(" ", co.makeIdArray(result.getIndexes(), indicator))) + ",");
+        }
+        if (result.getPrice() == 0) {
+            unfilled++;
+            co.generateRecommendation(); // makes a output file containing the recommended manufacturers to make the item.
+            return both(columns + quote("UNFILLED") + ",0,," + quote(form.getName()));
+        }
+        String[] ids = co.makeIdArray(result.getIndexes(), indicator);
+        db.updateTable(result.getIndexes(), indicator); // later orders cannot use these rows
+        co.setTotalPrice(result.getPrice());
+        co.setPriceBound(result.getLowerBound(), result.isOptimal());
+        co.setGuarantee(result.isApproximate() ? result.getGuarantee() : 0);
+        co.setItemsOrdered(ids);
+        co.generateOrder();
+        filled++;
+        totalPrice += result.getPrice();
+        pending++;
+        String status = result.isOptimal() ? "FILLED" : result.isApproximate() ? "FILLED_APPROXIMATE" : "FILLED_WITHIN_BUDGET";
+        String rest = "," + result.getPrice() + "," + quote(String.join(" ", ids)) + "," + quote(form.getName());
+        return new String[] {columns + quote(status) + rest, columns + quote("NOT_COMMITTED") + rest};
+    }
+
+    /**
+     * @param columns summary columns of an order that is not filled
+     * @return the columns both as placed and as not committed, which are the same
+     */
+    private static String[] both(String columns) {
+        return new String[] {columns, columns};
+    }
+
+    /**
+     * Adds the row of one line to the summary. While filled orders wait for a push the row is held back, and every
+     * commitEvery filled orders a push is tried.
+     * @param lineNumber line of the file the row is for
+     * @param columns summary columns after the line number, as placed and as not committed
+     */
+    private void record(int lineNumber, String[] columns) {
+        unsent.add(new String[] {lineNumber + "," + columns[0], lineNumber + "," + columns[1]});
+        if (pending == 0) {
+            flush(true); // no filled order is waiting, so the row is final
+        } else if (pending % commitEvery == 0) { // after a failed push the next try comes commitEvery orders later
+            push();
+        }
+    }
+
+    /**
+     * Writes the rows held back to the summary.
+     * @param committed true if the filled orders among them reached the database
+     */
+    private void flush(boolean committed) {
+        for (String[] row : unsent) {
+            summary.println(committed ? row[0] : row[1]);
+        }
+        unsent.clear();
+    }
+
+    /**
+     * Quotes a text field of the summary, doubling any quote inside it, so a type or file name holding a comma or a
+     * quote stays one field.
+     * @param field text of the field
+     * @return the field in double quotes
+     */
+    static String quote(String field) {
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Pushes the local arrays to the database. If the push succeeds the rows held back are written as placed,
+     * otherwise the changed rows and the summary rows are kept for the next push.
+     * @return true if the push succeeded
+     */
+    private boolean push() {
+        if (!db.pushLocal()) {
+            failedPushes++;
+            return false;
+        }
+        pushes++;
+        pending = 0;
+        flush(true);
+        return true;
+    }
+
+    /**
+     * Reads an order from a CSV line of the form category,type,quantity.
+     * @param line line of the file
+     * @return the order, or null if the line is not a valid order
+     */
+    static Order parseCsv(String line) {
+        String[] fields = line.split(",");
+        if (fields.length != 3) {
+            return null;
+        }
+        return makeOrder(unquote(fields[0]), unquote(fields[1]), unquote(fields[2]));
+    }
+
+    /**
+     * Reads an order from an NDJSON line with category, type and quantity fields.
+     * @param line line of the file
+     * @return the order, or null if the line is not a valid order
+     */
+    static Order parseJson(String line) {
+        Matcher category = CATEGORY.matcher(line);
+        Matcher type = TYPE.matcher(line);
+        Matcher quantity = QUANTITY.matcher(line);
+        if (!category.find() || !type.find() || !quantity.find()) {
+            return null;
+        }
+        return makeOrder(category.group(1), type.group(1), quantity.group(1));
+    }
+
+    /**
+     * Builds an order, checking the category is known and the quantity is a positive whole number.
+     * @return the order, or null if a field is not valid
+     */
+    private static Order makeOrder(String category, String type, String quantity) {
+        category = category.toLowerCase();
+        if (!category.equals("desk") && !category.equals("chair") && !category.equals("filing") && !category.equals("lamp")) {
+            return null;
+        }
+        int number;
+        try {
+            number = Integer.parseInt(quantity);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (number <= 0 || type.isEmpty()) {
+            return null;
+        }
+        Order order = new Order();
+        order.setFurnitureCategory(category);
+        order.setFurnitureType(type);
+        order.setNumberItems(number);
+        return order;
+    }
+
+    private static String unquote(String field) {
+        String trimmed = field.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            trimmed = trimmed.substring(1, trimmed.length() - 1).trim();
+        }
+        return trimmed;
+    }
+
+    /**
+     * @param name file name
+     * @return true if the file name has an NDJSON extension, .ndjson, .jsonl or .json
+     */
+    static boolean isJson(String name) {
+        String lower = name.toLowerCase();
+        return lower.endsWith(".ndjson") || lower.endsWith(".jsonl") || lower.endsWith(".json");
+    }
+
+    /**
+     * @param joint true to allocate orders of the same category and type in each window together
+     */
+    public void setJoint(boolean joint) { this.joint = joint; }
+
+    /**
+     * @return true if orders of the same category and type in each window are allocated together
+     */
+    public boolean isJoint() { return this.joint; }
+
+    /**
+     * @return Order holding the solver settings and search state used for every order
+     */
+    public Order getSession() { return this.session; }
+
+    /**
+     * @return orders that could be made
+     */
+    public int getFilled() { return this.filled; }
+
+    /**
+     * @return orders that could not be made from the inventory left
+     */
+    public int getUnfilled() { return this.unfilled; }
+
+    /**
+     * @return lines that could not be read as an order
+     */
+    public int getInvalid() { return this.invalid; }
+
+    /**
+     * @return number of pushes to the database that succeeded
+     */
+    public int getPushes() { return this.pushes; }
+
+    /**
+     * @return number of pushes to the database that failed
+     */
+    public int getFailedPushes() { return this.failedPushes; }
+
+    /**
+     * @return filled orders whose rows never reached the database
+     */
+    public int getUncommitted() { return this.uncommitted; }
+
+    /**
+     * @return orders priced in quote mode
+     */
+    public int getQuoted() { return this.quoted; }
+
+    /**
+     * @param quoteOnly true to only price the orders, leaving the inventory and the database alone
+     */
+    public void setQuoteOnly(boolean quoteOnly) { this.quoteOnly = quoteOnly; }
+
+    /**
+     * @return true if the orders are only priced
+     */
+    public boolean isQuoteOnly() { return this.quoteOnly; }
+}
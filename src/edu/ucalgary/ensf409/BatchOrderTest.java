@@ -0,0 +1,213 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Tests how @BatchOrder reads order lines, places a batch and writes its summary. The batch is solved against
+ * hardcoded copies of rows from the inventory database, and the database URL names no driver, so no connection is
+ * needed and every push leaves the real tables untouched.
+ */
+public class BatchOrderTest
+{
+    private File outputDir;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        outputDir = Files.createTempDirectory("batch").toFile();
+    }
+
+    @After
+    public void tearDown()
+    {
+        for (File file : outputDir.listFiles()) {
+            file.delete();
+        }
+        outputDir.delete();
+    }
+
+    /**
+     * testParseCsv() reads a quoted CSV line and checks every field is set on the order.
+     */
+    @Test
+    public void testParseCsv()
+    {
+        Order order = BatchOrder.parseCsv("\"Chair\", \"Mesh\", 3");
+
+        Assert.assertNotNull("Line should be a valid order", order);
+        Assert.assertEquals("Category should be chair", "chair", order.getFurnitureCategory());
+        Assert.assertEquals("Type should be Mesh", "Mesh", order.getFurnitureType());
+        Assert.assertEquals("Quantity should be 3", 3, order.getNumberItems());
+    }
+
+    /**
+     * testParseJson() reads an NDJSON line whose fields are in a different order and whose quantity is a string.
+     */
+    @Test
+    public void testParseJson()
+    {
+        Order order = BatchOrder.parseJson("{\"type\": \"Swing Arm\", \"quantity\": \"2\", \"category\": \"lamp\"}");
+
+        Assert.assertNotNull("Line should be a valid order", order);
+        Assert.assertEquals("Category should be lamp", "lamp", order.getFurnitureCategory());
+        Assert.assertEquals("Type should be Swing Arm", "Swing Arm", order.getFurnitureType());
+        Assert.assertEquals("Quantity should be 2", 2, order.getNumberItems());
+    }
+
+    /**
+     * testRejectsInvalidLines() checks unknown categories, missing fields and quantities below one are not orders.
+     */
+    @Test
+    public void testRejectsInvalidLines()
+    {
+        Assert.assertNull("Unknown category", BatchOrder.parseCsv("sofa,Leather,1"));
+        Assert.assertNull("Missing quantity", BatchOrder.parseCsv("chair,Mesh"));
+        Assert.assertNull("Zero quantity", BatchOrder.parseCsv("chair,Mesh,0"));
+        Assert.assertNull("Quantity not a number", BatchOrder.parseJson("{\"category\": \"desk\", \"type\": \"Standing\", \"quantity\": \"two\"}"));
+    }
+
+    /**
+     * testRunBatch() places a CSV batch with a header, two orders that can be made, one that cannot because the
+     * first Desk lamp took the only bulb, and one invalid line. Every order should be counted and one push should be
+     * tried at the end. No driver accepts the URL, so it fails and both filled orders count as not committed.
+     */
+    @Test
+    public void testRunBatch() throws IOException
+    {
+        BatchOrder batch = new BatchOrder(inventory(), BatchOrder.DEFAULT_COMMIT_EVERY, outputDir);
+
+        batch.run(new BufferedReader(new StringReader(
+                "category,type,quantity\nchair,Mesh,1\nlamp,Desk,1\nlamp,Desk,1\nsofa,Leather,1\n")), false);
+
+        Assert.assertEquals("Two orders should be filled", 2, batch.getFilled());
+        Assert.assertEquals("The second Desk lamp should not be filled", 1, batch.getUnfilled());
+        Assert.assertEquals("Only the sofa line should be invalid, not the header", 1, batch.getInvalid());
+        Assert.assertEquals("The push at the end should be tried once and fail", 1, batch.getFailedPushes());
+        Assert.assertEquals("A failed push should not be counted as a push", 0, batch.getPushes());
+        Assert.assertEquals("Both filled orders should be counted as not committed", 2, batch.getUncommitted());
+        Assert.assertTrue("Each order should get its own order form", new File(outputDir, "2_Mesh_chair_Order.txt").exists());
+    }
+
+    /**
+     * testSummary() places an NDJSON batch and checks summary.csv has one row for every line of the file, with the
+     * price, the item IDs and the order form of each order and every text field quoted. The filled order is never
+     * written to the database, so it is listed as not committed.
+     */
+    @Test
+    public void testSummary() throws IOException
+    {
+        BatchOrder batch = new BatchOrder(inventory(), BatchOrder.DEFAULT_COMMIT_EVERY, outputDir);
+
+        batch.run(new BufferedReader(new StringReader("{\"category\": \"chair\", \"type\": \"Mesh\", \"quantity\": 1}\n"
+                + "{\"category\": \"lamp\", \"type\": \"Desk\", \"quantity\": 2}\n"
+                + "not an order\n")), true);
+        List<String> summary = Files.readAllLines(new File(outputDir, "summary.csv").toPath());
+
+        Assert.assertEquals("Header should name every column", "line,category,type,quantity,status,price,items,file", summary.get(0));
+        Assert.assertEquals("Uncommitted order row", "1,\"chair\",\"Mesh\",1,\"NOT_COMMITTED\",150,\"C9890 C0942\",\"1_Mesh_chair_Order.txt\"", summary.get(1));
+        Assert.assertEquals("Unfilled order row", "2,\"lamp\",\"Desk\",2,\"UNFILLED\",0,,\"2_Desk_lamp_Order.txt\"", summary.get(2));
+        Assert.assertEquals("Invalid line row", "3,,,,\"INVALID\",0,,", summary.get(3));
+        Assert.assertEquals("One row for every line of the file", 4, summary.size());
+    }
+
+    /**
+     * testJointBatch() orders one Standing desk and then two. In file order the first order takes rows the second
+     * needs, so it cannot be made. In joint mode both orders are in one window and allocated together, so both are
+     * filled.
+     */
+    @Test
+    public void testJointBatch() throws IOException
+    {
+        String orders = "desk,Standing,1\ndesk,Standing,2\n";
+        BatchOrder inOrder = new BatchOrder(inventory(), BatchOrder.DEFAULT_COMMIT_EVERY, outputDir);
+        inOrder.setJoint(false);
+        inOrder.run(new BufferedReader(new StringReader(orders)), false);
+        BatchOrder joint = new BatchOrder(inventory(), BatchOrder.DEFAULT_COMMIT_EVERY, outputDir);
+        joint.setJoint(true);
+        joint.run(new BufferedReader(new StringReader(orders)), false);
+
+        Assert.assertEquals("In file order the second desk order should not be filled", 1, inOrder.getUnfilled());
+        Assert.assertEquals("Joint allocation should fill both orders", 2, joint.getFilled());
+        Assert.assertEquals("Joint allocation should leave no order unfilled", 0, joint.getUnfilled());
+    }
+
+    /**
+     * testQuoteOnlyBatch() prices the same Mesh chair order six times in quote mode. No rows are used, so the first
+     * line runs the search and the other five are answered from the quote cache, and nothing is written or pushed.
+     */
+    @Test
+    public void testQuoteOnlyBatch() throws IOException
+    {
+        Database db = inventory();
+        long version = db.getInventoryVersion(1, "Mesh");
+        BatchOrder batch = new BatchOrder(db, BatchOrder.DEFAULT_COMMIT_EVERY, outputDir);
+        batch.setQuoteOnly(true);
+
+        batch.run(new BufferedReader(new StringReader("chair,Mesh,1\nchair,Mesh,1\nchair,Mesh,1\n"
+                + "chair,Mesh,1\nchair,Mesh,1\nchair,Mesh,1\n")), false);
+        List<String> summary = Files.readAllLines(new File(outputDir, "summary.csv").toPath());
+
+        Assert.assertEquals("Every line should be quoted", 6, batch.getQuoted());
+        Assert.assertEquals("Only the first line should run the search", 1, batch.getSession().getQuoteCache().getMisses());
+        Assert.assertEquals("The other lines should hit the cache", 5, batch.getSession().getQuoteCache().getHits());
+        Assert.assertEquals("Quotes should not change the Mesh chair rows", version, db.getInventoryVersion(1, "Mesh"));
+        Assert.assertEquals("Quotes should not be pushed", 0, batch.getPushes());
+        Assert.assertEquals("Quoted row", "6,\"chair\",\"Mesh\",1,\"QUOTED\",150,\"C9890 C0942\",", summary.get(6));
+        Assert.assertFalse("Quotes should not write order forms", new File(outputDir, "1_Mesh_chair_Order.txt").exists());
+    }
+
+    /**
+     * testQuote() checks a field holding a comma and quotes is quoted with its quotes doubled, so it stays one field.
+     */
+    @Test
+    public void testQuote()
+    {
+        Assert.assertEquals("\"Swing \"\"Arm\"\", 2\"", BatchOrder.quote("Swing \"Arm\", 2"));
+    }
+
+    /**
+     * @return database holding a few chair and lamp rows in memory, with a URL no driver accepts
+     */
+    private Database inventory()
+    {
+        Database db = new Database("jdbc:none:batch", "scm", "ensf409");
+        db.setLocal(new Desk[] {
+                        new Desk("D3820", "Standing", "Y", "N", "Y", 100, "001"),
+                        new Desk("D4475", "Standing", "Y", "N", "Y", 250, "002"),
+                        new Desk("D2341", "Standing", "N", "Y", "N", 200, "001"),
+                        new Desk("D9387", "Standing", "Y", "Y", "N", 100, "004"),
+                        new Desk("D1927", "Standing", "N", "Y", "Y", 200, "005")
+                },
+                new Chair[] {
+                        new Chair("C1320", "Kneeling", "Y", "N", "N", "N", 50, "002"),
+                        new Chair("C9890", "Mesh", "N", "Y", "N", "Y", 50, "003"),
+                        new Chair("C0942", "Mesh", "Y", "N", "Y", "Y", 100, "005"),
+                        new Chair("C6748", "Mesh", "Y", "N", "N", "N", 75, "003"),
+                        new Chair("C8138", "Mesh", "N", "N", "Y", "N", 75, "005")
+                },
+                new Filing[0],
+                new Lamp[] {
+                        new Lamp("L132", "Desk", "Y", "N", 18, "005"),
+                        new Lamp("L980", "Study", "N", "Y", 2, "004"),
+                        new Lamp("L013", "Desk", "N", "Y", 2, "004"),
+                        new Lamp("L112", "Desk", "Y", "N", 18, "005")
+                },
+                new Manufacturer[] {
+                        new Manufacturer("001", "Academic Desks", "236-145-2542", "BC"),
+                        new Manufacturer("002", "Office Furnishings", "587-890-4387", "AB"),
+                        new Manufacturer("003", "Chairs R Us", "705-667-9481", "ON"),
+                        new Manufacturer("004", "Furniture Goods", "306-512-5508", "SK"),
+                        new Manufacturer("005", "Fine Office Supplies", "403-980-9876", "AB")
+                });
+        return db;
+    }
+}
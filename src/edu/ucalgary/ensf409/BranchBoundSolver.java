@@ -0,0 +1,297 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * The BranchBoundSolver class searches the combinations like the recursive methods in @CreateOrder, but keeps the
+ * cheapest complete combination found so far (the incumbent) and cuts every branch that cannot beat it.
+ *
+ * Candidates are tried in order of price per component so a good incumbent is found on the first dive. At each node
+ * a lower bound on the cost of the components still missing is added to the running price and the branch is cut as
+ * soon as that sum reaches the incumbent. The bound is the larger of:
+ *  - for each component, the sum of the cheapest rows left that still have it, taken as many times as it is missing
+ *  - the number of missing pieces times the lowest price per component of the rows left
+ * Neither can overestimate, so the combination returned is still the cheapest one.
+ *
+ * The search is anytime: given a deadline it stops once the deadline has passed and at least one combination has
+ * been found, returning that incumbent with the root lower bound. The first dive never needs to backtrack, because
+ * a row is only taken while the rows left can still cover every missing component.
+ */
+public class BranchBoundSolver implements CombinationSolver {
+    private static final int NONE = Integer.MAX_VALUE; // marks a bound or price that cannot be reached
+    private static final int CHECK_EVERY = 256; // nodes expanded between looks at the clock
+
+    private ComponentTable table; // candidate rows of the requested type
+    private int[] order; // candidate positions sorted by price per component
+    private int[][] byComponent; // for each component, positions in order[] that have it, cheapest first
+    private int[] need; // pieces still missing of each component
+    private int[] chosen; // positions in order[] taken on the current path
+    private int depth; // number of rows taken on the current path
+    private int bestPrice; // price of the incumbent
+    private int[] bestChosen; // positions in order[] of the incumbent
+    private int bestDepth; // number of rows in the incumbent
+    private long expanded; // number of nodes expanded
+    private long pruned; // number of branches cut by the bound
+    private long deadline; // System.nanoTime() value to stop at
+    private boolean timedOut; // true once the deadline has passed
+
+    /**
+     * Finds the lowest price combination of rows that makes the requested number of items.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @return SolverResult with the lowest price, the row indexes and the node counts, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number) {
+        return solve(table, number, NO_DEADLINE);
+    }
+
+    /**
+     * Finds the lowest price combination, returning the best one found so far once the deadline has passed.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @param deadline System.nanoTime() value to stop at, or NO_DEADLINE
+     * @return SolverResult with the price, row indexes, lower bound and node counts, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number, long deadline) {
+        long start = System.nanoTime();
+        this.table = table;
+        this.order = sortByRatio(table);
+        this.byComponent = componentLists(table, order);
+        this.need = new int[table.getComponents()];
+        for (int c = 0; c < need.length; c++) {
+            need[c] = number;
+        }
+        this.chosen = new int[table.size()];
+        this.depth = 0;
+        this.bestPrice = NONE;
+        this.bestChosen = new int[0];
+        this.bestDepth = 0;
+        this.expanded = 0;
+        this.pruned = 0;
+        this.deadline = deadline;
+        this.timedOut = false;
+
+        int root = rootBound(table, number);
+        if (number > 0 && root != NONE) {
+            search(0, 0, table.fullMask());
+        }
+
+        ArrayList<Integer> indexes = new ArrayList<Integer>();
+        for (int i = 0; i < bestDepth; i++) {
+            indexes.add(table.getRow(order[bestChosen[i]]));
+        }
+        Collections.sort(indexes);
+        SolverResult result = new SolverResult(bestPrice == NONE ? 0 : bestPrice, indexes, System.nanoTime() - start);
+        result.setNodeCounts(expanded, pruned);
+        if (timedOut) {
+            result.setBound(root, bestPrice == root);
+        }
+        return result;
+    }
+
+    /**
+     * @return "bnb"
+     */
+    @Override
+    public String getName() { return "bnb"; }
+
+    /**
+     * Expands one node: tries every remaining row that still supplies a missing component as the next row taken.
+     * @param from first position in order[] that may still be taken
+     * @param cost price of the rows taken on the current path
+     * @param missing bitmask of the components that are still missing
+     */
+    private void search(int from, int cost, int missing) {
+        expanded++;
+        if (bestPrice != NONE && expanded % CHECK_EVERY == 0 && CombinationSolver.expired(deadline)) {
+            timedOut = true; // keep the incumbent, it is the best found within the budget
+        }
+        for (int p = from; p < order.length && !timedOut; p++) {
+            // the bound only grows as p moves right, so once it reaches the incumbent no later row can do better
+            int bound = lowerBound(p);
+            if (bound == NONE || cost + (long) bound >= bestPrice) {
+                pruned++;
+                return;
+            }
+            int i = order[p];
+            int mask = table.getMask(i);
+            if ((mask & missing) == 0) {
+                continue; // row has nothing the order still needs
+            }
+            int price = cost + table.getPrice(i);
+            int lowered = take(mask);
+            int nextMissing = missing();
+            chosen[depth++] = p;
+            if (nextMissing == 0) {
+                if (price < bestPrice) {
+                    bestPrice = price;
+                    bestChosen = chosen.clone();
+                    bestDepth = depth;
+                }
+            } else {
+                search(p + 1, price, nextMissing);
+            }
+            depth--;
+            give(lowered);
+        }
+    }
+
+    /**
+     * Lower bound on the lowest price of the whole order, the bound used at the root of the search.
+     * @param table candidate rows
+     * @param number number of desired furniture items
+     * @return lower bound, or NONE if the rows cannot make the order
+     */
+    static int rootBound(ComponentTable table, int number) {
+        if (number <= 0) {
+            return 0;
+        }
+        int[] order = sortByRatio(table);
+        int[][] lists = componentLists(table, order);
+        long bound = 0;
+        for (int[] list : lists) {
+            if (list.length < number) {
+                return NONE;
+            }
+            long sum = 0;
+            for (int k = 0; k < number; k++) {
+                sum += table.getPrice(order[list[k]]);
+            }
+            bound = Math.max(bound, sum);
+        }
+        int count = Integer.bitCount(table.getMask(order[0]));
+        long pieces = (long) number * table.getComponents();
+        bound = Math.max(bound, (pieces * table.getPrice(order[0]) + count - 1) / count);
+        return (int) Math.min(bound, NONE - 1);
+    }
+
+    /**
+     * Lower bound on the cost of the components still missing using only the rows from position from onward.
+     * @param from first position in order[] that may still be taken
+     * @return lower bound, or NONE if the rows left cannot cover what is missing
+     */
+    private int lowerBound(int from) {
+        long bound = 0;
+        long pieces = 0;
+        for (int c = 0; c < need.length; c++) {
+            if (need[c] == 0) {
+                continue;
+            }
+            pieces += need[c];
+            long sum = 0;
+            int found = 0;
+            for (int k = 0; k < byComponent[c].length && found < need[c]; k++) {
+                if (byComponent[c][k] >= from) {
+                    sum += table.getPrice(order[byComponent[c][k]]);
+                    found++;
+                }
+            }
+            if (found < need[c]) {
+                return NONE;
+            }
+            bound = Math.max(bound, sum);
+        }
+        if (pieces > 0 && from < order.length) {
+            // rows are sorted by price per component, so the row at from has the lowest ratio of those left
+            int i = order[from];
+            int count = Integer.bitCount(table.getMask(i));
+            bound = Math.max(bound, (pieces * table.getPrice(i) + count - 1) / count);
+        }
+        return (int) Math.min(bound, NONE - 1);
+    }
+
+    /**
+     * Takes a row: lowers the count of every missing component the row supplies.
+     * @param mask component bitmask of the row
+     * @return bitmask of the components whose count was lowered, to be passed back to give()
+     */
+    private int take(int mask) {
+        int lowered = 0;
+        for (int c = 0; c < need.length; c++) {
+            if ((mask >> c & 1) != 0 && need[c] > 0) {
+                need[c]--;
+                lowered |= 1 << c;
+            }
+        }
+        return lowered;
+    }
+
+    /**
+     * Undoes take().
+     * @param lowered bitmask returned by the matching take()
+     */
+    private void give(int lowered) {
+        for (int c = 0; c < need.length; c++) {
+            if ((lowered >> c & 1) != 0) {
+                need[c]++;
+            }
+        }
+    }
+
+    /**
+     * @return bitmask of the components that are still missing
+     */
+    private int missing() {
+        int missing = 0;
+        for (int c = 0; c < need.length; c++) {
+            if (need[c] > 0) {
+                missing |= 1 << c;
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Sorts the candidate positions by price per component, cheapest first, breaking ties by position.
+     * @param table candidate rows
+     * @return positions in sorted order
+     */
+    static int[] sortByRatio(ComponentTable table) {
+        Integer[] sorted = new Integer[table.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+        }
+        java.util.Arrays.sort(sorted, (a, b) -> {
+            // compare price(a) / count(a) with price(b) / count(b) without dividing
+            long left = (long) table.getPrice(a) * Integer.bitCount(table.getMask(b));
+            long right = (long) table.getPrice(b) * Integer.bitCount(table.getMask(a));
+            return left != right ? Long.compare(left, right) : Integer.compare(a, b);
+        });
+        int[] order = new int[sorted.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = sorted[i];
+        }
+        return order;
+    }
+
+    /**
+     * Builds, for each component, the list of positions in order[] whose row has it, sorted by price.
+     */
+    static int[][] componentLists(ComponentTable table, int[] order) {
+        int[][] lists = new int[table.getComponents()][];
+        for (int c = 0; c < lists.length; c++) {
+            ArrayList<Integer> positions = new ArrayList<Integer>();
+            for (int p = 0; p < order.length; p++) {
+                if ((table.getMask(order[p]) >> c & 1) != 0) {
+                    positions.add(p);
+                }
+            }
+            positions.sort((a, b) -> Integer.compare(table.getPrice(order[a]), table.getPrice(order[b])));
+            lists[c] = new int[positions.size()];
+            for (int k = 0; k < lists[c].length; k++) {
+                lists[c][k] = positions.get(k);
+            }
+        }
+        return lists;
+    }
+}
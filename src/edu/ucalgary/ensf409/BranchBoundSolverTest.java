@@ -0,0 +1,96 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.util.*;
+
+/**
+ * Tests the @BranchBoundSolver against the @DynamicSolver using hardcoded desk rows, so no connection is needed.
+ */
+public class BranchBoundSolverTest
+{
+    private Desk[] desks;
+
+    @Before
+    public void setUp()
+    {
+        desks = new Desk[] {
+                new Desk("D3820", "Standing", "Y", "N", "N", 150, "001"),
+                new Desk("D4475", "Adjustable", "N", "Y", "Y", 200, "002"),
+                new Desk("D0890", "Traditional", "N", "N", "Y", 25, "002"),
+                new Desk("D2341", "Standing", "N", "Y", "N", 100, "001"),
+                new Desk("D9387", "Standing", "Y", "Y", "N", 250, "004"),
+                new Desk("D7373", "Adjustable", "Y", "Y", "N", 350, "005"),
+                new Desk("D2746", "Adjustable", "Y", "N", "Y", 250, "004"),
+                new Desk("D9352", "Traditional", "Y", "N", "Y", 75, "002"),
+                new Desk("D4231", "Adjustable", "N", "Y", "Y", 50, "005"),
+                new Desk("D8675", "Traditional", "N", "Y", "Y", 75, "001"),
+                new Desk("D1030", "Adjustable", "Y", "N", "N", 150, "002"),
+                new Desk("D5437", "Adjustable", "Y", "N", "N", 200, "001"),
+                new Desk("D3682", "Adjustable", "N", "N", "Y", 50, "005")
+        };
+    }
+
+    /**
+     * testMatchesDynamicSolver() orders one and two Adjustable desks and checks the price is the same as the exact
+     * price from the @DynamicSolver.
+     */
+    @Test
+    public void testMatchesDynamicSolver()
+    {
+        ComponentTable table = ComponentTable.fromDesks(desks, "Adjustable");
+        for (int number = 1; number <= 2; number++) {
+            SolverResult expected = new DynamicSolver().solve(table, number);
+            SolverResult actual = new BranchBoundSolver().solve(table, number);
+            Assert.assertEquals("Branch and bound price differs for " + number + " desks", expected.getPrice(), actual.getPrice());
+        }
+    }
+
+    /**
+     * testPrunesBranches() checks the node counts are reported and that the bound cut at least one branch.
+     */
+    @Test
+    public void testPrunesBranches()
+    {
+        SolverResult result = new BranchBoundSolver().solve(ComponentTable.fromDesks(desks, "Adjustable"), 2);
+
+        Assert.assertTrue("At least the root node should be expanded", result.getNodesExpanded() > 0);
+        Assert.assertTrue("The bound should cut at least one branch", result.getNodesPruned() > 0);
+    }
+
+    /**
+     * testImpossibleOrder() orders three Standing desks, which the table cannot supply, so the price must be 0.
+     */
+    @Test
+    public void testImpossibleOrder()
+    {
+        SolverResult result = new BranchBoundSolver().solve(ComponentTable.fromDesks(desks, "Standing"), 3);
+
+        Assert.assertEquals("Price should be 0 when the order cannot be made", 0, result.getPrice());
+        Assert.assertFalse("No combination should be found", result.isFound());
+    }
+
+    /**
+     * testDeadlineReturnsIncumbent() gives a large generated chair table a deadline that has already passed. The search
+     * must still return a combination, flagged as not proven optimal, with a lower bound no higher than the exact
+     * lowest price.
+     */
+    @Test
+    public void testDeadlineReturnsIncumbent()
+    {
+        ComponentTable table = SolverBenchmark.randomTable(409, "chair", 4, 60);
+        SolverResult exact = new DynamicSolver().solve(table, 4);
+        SolverResult result = new BranchBoundSolver().solve(table, 4, System.nanoTime() - 1);
+
+        Assert.assertTrue("A combination should be found on the first dive", result.isFound());
+        Assert.assertFalse("Search should stop before proving the price", result.isOptimal());
+        Assert.assertTrue("Lower bound should not exceed the lowest price", result.getLowerBound() <= exact.getPrice());
+        Assert.assertTrue("Price should not be below the lowest price", result.getPrice() >= exact.getPrice());
+        Assert.assertEquals("Gap should be price minus bound", result.getPrice() - result.getLowerBound(), result.getGap());
+    }
+}
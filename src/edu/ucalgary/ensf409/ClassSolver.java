@@ -0,0 +1,222 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * The ClassSolver class finds the exact lowest price combination by choosing how many rows to take from each
+ * component mask class of a @ClassView, rather than deciding row by row. Taking k rows of a class always means taking
+ * its k cheapest, whose price is read from the prefix sums, and no class ever needs more than quantity rows since one
+ * fewer would still cover every component. The dynamic program has the same states as @DynamicSolver, the number of
+ * each component still needed, but one stage per class instead of one per row, so the running time is
+ * O((quantity + 1) ^ components * sum of min(class size, quantity) + 1) and the table holds (classes + 1) stages.
+ *
+ * When several count choices share the lowest price the one taking the fewest rows from the earlier classes is
+ * returned, and within a class the cheapest rows with ties going to the lower row, so results are repeatable. The row
+ * indexes are returned in ascending order, ready for @CreateOrder.makeIdArray.
+ *
+ * If the deadline passes while the table is being filled the order is handed to the anytime @BranchBoundSolver with
+ * the same deadline.
+ */
+public class ClassSolver implements CombinationSolver {
+    /** Most passes over the states, summed over the classes, automatic selection lets the solver make */
+    public static final long MAX_WORK = 1L << 26;
+    private static final long NONE = Long.MAX_VALUE; // marks a state that cannot be finished
+
+    /**
+     * Finds the lowest price combination of rows that makes the requested number of items.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @return SolverResult with the lowest price and the row indexes, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number) {
+        return solve(table, number, NO_DEADLINE);
+    }
+
+    /**
+     * Finds the lowest price combination, falling back to branch and bound if the deadline passes first.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @param deadline System.nanoTime() value to stop at, or NO_DEADLINE
+     * @return SolverResult with the price and the row indexes, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number, long deadline) {
+        long start = System.nanoTime();
+        ClassView view = new ClassView(table);
+        int components = view.getComponents();
+        int classes = view.getClassCount();
+        int radix = number + 1; // each component needs 0..number more pieces
+        long stateTotal = DynamicSolver.stateCount(components, number);
+        if (!fits(stateTotal, classes)) {
+            throw new IllegalArgumentException("Order of " + number + " " + table.getType() + " "
+                    + table.getCategory() + " needs " + stateTotal + " states per class, limit is "
+                    + maxStates(classes));
+        }
+        int states = (int) stateTotal;
+        int[] step = new int[components]; // place value of each component in the state number
+        step[0] = 1;
+        for (int c = 1; c < components; c++) {
+            step[c] = step[c - 1] * radix;
+        }
+        int goal = states - 1; // every component still needs number pieces
+
+        // best[i][s] is the lowest price to cover state s using only classes i..classes-1
+        long[][] best = new long[classes + 1][states];
+        for (int s = 1; s < states; s++) {
+            best[classes][s] = NONE;
+        }
+        int[] need = new int[components];
+        for (int i = classes - 1; i >= 0; i--) {
+            if (CombinationSolver.expired(deadline)) {
+                return fallBack(table, number, deadline, start);
+            }
+            int mask = view.getMask(i);
+            int most = Math.min(view.size(i), number); // more than number rows of one class is never cheaper
+            long[] next = best[i + 1];
+            long[] current = best[i];
+            for (int s = 0; s < states; s++) {
+                int deepest = digits(s, step, radix, mask, need); // largest need the class can still reduce
+                long lowest = next[s];
+                for (int k = 1; k <= Math.min(most, deepest); k++) {
+                    long after = next[take(s, k, step, mask, need)];
+                    if (after != NONE && view.cost(i, k) + after < lowest) {
+                        lowest = view.cost(i, k) + after;
+                    }
+                }
+                current[s] = lowest;
+            }
+        }
+
+        ArrayList<Integer> indexes = new ArrayList<Integer>();
+        long lowest = 0;
+        if (best[0][goal] != NONE) {
+            lowest = best[0][goal];
+            int s = goal;
+            for (int i = 0; i < classes && s != 0; i++) {
+                int mask = view.getMask(i);
+                int deepest = digits(s, step, radix, mask, need);
+                for (int k = 0; k <= Math.min(view.size(i), deepest); k++) {
+                    int after = take(s, k, step, mask, need);
+                    if (best[i + 1][after] != NONE && view.cost(i, k) + best[i + 1][after] == best[i][s]) {
+                        for (int rank = 0; rank < k; rank++) {
+                            indexes.add(view.getRow(i, rank));
+                        }
+                        s = after;
+                        break;
+                    }
+                }
+            }
+            Collections.sort(indexes);
+        }
+        return new SolverResult((int) lowest, indexes, System.nanoTime() - start);
+    }
+
+    /**
+     * @return "classes"
+     */
+    @Override
+    public String getName() { return "classes"; }
+
+    /**
+     * @param states number of states for the order
+     * @param classes number of non-empty classes
+     * @return true if the (classes + 1) stage table fits in the memory of @DynamicSolver.MAX_CELLS int cells
+     */
+    public static boolean fits(long states, int classes) {
+        return states <= maxStates(classes);
+    }
+
+    /**
+     * The stage table holds long prices, and a long cell takes the memory of two of the int cells MAX_CELLS counts.
+     * @param classes number of non-empty classes
+     * @return most states per class the stage table may have
+     */
+    private static long maxStates(int classes) {
+        return DynamicSolver.MAX_CELLS / 2 / (classes + 1);
+    }
+
+    /**
+     * Estimates the running time of the solver on a table without building the classes.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @return states times the row counts tried over all classes, or Long.MAX_VALUE if the table does not fit
+     */
+    public static long work(ComponentTable table, int number) {
+        long states = DynamicSolver.stateCount(table.getComponents(), number);
+        int classes = 0;
+        long passes = 0; // row counts tried, from 0 to min(class size, number) in each class
+        int[] sizes = ClassView.countByMask(table);
+        for (int m = 1; m < sizes.length; m++) {
+            if (sizes[m] > 0) {
+                classes++;
+                passes += Math.min(sizes[m], number) + 1;
+            }
+        }
+        return fits(states, classes) ? states * passes : Long.MAX_VALUE;
+    }
+
+    /**
+     * Runs the anytime branch and bound for an order whose table could not be filled in time.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @param deadline deadline that has already passed
+     * @param start System.nanoTime() value the class program started at
+     * @return the branch and bound result, timed from the start of the class program
+     */
+    static SolverResult fallBack(ComponentTable table, int number, long deadline, long start) {
+        SolverResult partial = new BranchBoundSolver().solve(table, number, deadline);
+        SolverResult result = new SolverResult(partial.getPrice(), partial.getIndexes(), System.nanoTime() - start);
+        result.setNodeCounts(partial.getNodesExpanded(), partial.getNodesPruned());
+        result.setBound(partial.getLowerBound(), partial.isOptimal());
+        return result;
+    }
+
+    /**
+     * Splits a state into the number of each component still needed.
+     * @param state state number
+     * @param step place value of each component in the state number
+     * @param radix order quantity + 1
+     * @param mask component mask of the class
+     * @param need filled with the number of each component still needed
+     * @return largest number still needed of a component in the mask
+     */
+    private static int digits(int state, int[] step, int radix, int mask, int[] need) {
+        int deepest = 0;
+        for (int c = 0; c < need.length; c++) {
+            need[c] = (state / step[c]) % radix;
+            if ((mask >> c & 1) != 0) {
+                deepest = Math.max(deepest, need[c]);
+            }
+        }
+        return deepest;
+    }
+
+    /**
+     * Returns the state reached after taking k rows of a class: every component in the mask goes down by k, to no
+     * less than 0.
+     * @param state current state
+     * @param k number of rows taken
+     * @param step place value of each component in the state number
+     * @param mask component mask of the class
+     * @param need number of each component still needed in the current state
+     * @return next state
+     */
+    private static int take(int state, int k, int[] step, int mask, int[] need) {
+        int next = state;
+        for (int c = 0; c < need.length; c++) {
+            if ((mask >> c & 1) != 0) {
+                next -= Math.min(k, need[c]) * step[c];
+            }
+        }
+        return next;
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.util.*;
+
+/**
+ * Tests the @ClassView grouping and the @ClassSolver against hardcoded copies of rows from the inventory database.
+ */
+public class ClassSolverTest
+{
+    private Chair[] chairs;
+    private Lamp[] lamps;
+
+    @Before
+    public void setUp()
+    {
+        chairs = new Chair[] {
+                new Chair("C1320", "Kneeling", "Y", "N", "N", "N", 50, "002"),
+                new Chair("C9890", "Mesh", "N", "Y", "N", "Y", 50, "003"),
+                new Chair("C0942", "Mesh", "Y", "N", "Y", "Y", 100, "005"),
+                new Chair("C6748", "Mesh", "Y", "N", "N", "N", 75, "003"),
+                new Chair("C8138", "Mesh", "N", "N", "Y", "N", 75, "005")
+        };
+        lamps = new Lamp[] {
+                new Lamp("L132", "Desk", "Y", "N", 18, "005"),
+                new Lamp("L980", "Study", "N", "Y", 2, "004"),
+                new Lamp("L013", "Desk", "N", "Y", 2, "004"),
+                new Lamp("L112", "Desk", "Y", "N", 15, "005"),
+                new Lamp("L342", "Desk", "N", "Y", 3, "002")
+        };
+    }
+
+    /**
+     * testClassesSortedByPrice() checks the two Desk lamp bases form one class with the cheaper row first.
+     */
+    @Test
+    public void testClassesSortedByPrice()
+    {
+        ClassView view = new ClassView(ComponentTable.fromLamps(lamps, "Desk"));
+
+        Assert.assertEquals("Desk lamps should have a base class and a bulb class", 2, view.getClassCount());
+        Assert.assertEquals("First class should be the bases", 1, view.getMask(0));
+        Assert.assertEquals("Cheapest base should be row 3", 3, view.getRow(0, 0));
+        Assert.assertEquals("Both bases should cost $33", 33, view.cost(0, 2));
+    }
+
+    /**
+     * testMeshChair() orders one Mesh chair. The result must match the @DynamicSolver, C9890 and C0942 for $150.
+     */
+    @Test
+    public void testMeshChair()
+    {
+        SolverResult result = new ClassSolver().solve(ComponentTable.fromChairs(chairs, "Mesh"), 1);
+
+        Assert.assertEquals("Lowest price for one Mesh chair should be 150", 150, result.getPrice());
+        Assert.assertEquals("Combination should be rows 1 and 2", Arrays.asList(1, 2), result.getIndexes());
+    }
+
+    /**
+     * testTwoLamps() orders two Desk lamps, which needs both bases and the two cheapest bulbs, returned in row order.
+     */
+    @Test
+    public void testTwoLamps()
+    {
+        SolverResult result = new ClassSolver().solve(ComponentTable.fromLamps(lamps, "Desk"), 2);
+
+        Assert.assertEquals("Lowest price for two Desk lamps should be 38", 38, result.getPrice());
+        Assert.assertEquals("Combination should be rows 0, 2, 3 and 4", Arrays.asList(0, 2, 3, 4), result.getIndexes());
+        Assert.assertEquals("Three Desk lamps cannot be made", 0, new ClassSolver().solve(ComponentTable.fromLamps(lamps, "Desk"), 3).getPrice());
+    }
+}
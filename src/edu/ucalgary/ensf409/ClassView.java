@@ -0,0 +1,208 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.Arrays;
+
+/**
+ * The ClassView class groups the candidate rows of one furniture type into equivalence classes by component mask. Two
+ * rows with the same mask can stand in for each other, so when a combination takes k rows of a class the cheapest k
+ * are always as good as any other k. Each class is therefore kept as its rows sorted by price, ties by lower row, with
+ * prefix sums of the prices, and a search only has to choose how many rows to take from each class. A chair has at
+ * most 15 classes, a desk or filing 7 and a lamp 3, however many rows the table holds.
+ */
+public class ClassView {
+    private final String category; // furniture category the rows were taken from
+    private final String type; // furniture type the rows were filtered on
+    private final int components; // number of components that make up one complete item
+    private final int[] masks; // component mask of each non-empty class
+    private final int[][] rows; // rows of each class, cheapest first
+    private final long[][] prefix; // prefix[m][k] is the price of the k cheapest rows of class m
+    private final int[] classOf; // class number of each mask, -1 for a mask no row has
+
+    /**
+     * Builds the classes of a candidate table.
+     * @param table candidate rows of one furniture type
+     */
+    public ClassView(ComponentTable table) {
+        this(table, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Builds the classes of a candidate table, keeping only the cheapest rows of each class. An order of quantity
+     * items never takes more than quantity rows of one class, so a solver that knows this can pass its quantity and
+     * the view is built in O(n log keep) through a bounded heap per class, rather than sorting every row.
+     * @param table candidate rows of one furniture type
+     * @param keep most rows kept in each class
+     */
+    public ClassView(ComponentTable table, int keep) {
+        this.category = table.getCategory();
+        this.type = table.getType();
+        this.components = table.getComponents();
+        int all = 1 << components;
+        int[] sizes = countByMask(table);
+        int classes = 0;
+        for (int m = 1; m < all; m++) {
+            if (sizes[m] > 0) {
+                classes++;
+            }
+        }
+        this.masks = new int[classes];
+        this.rows = new int[classes][];
+        this.prefix = new long[classes][];
+        this.classOf = new int[all];
+        Arrays.fill(classOf, -1);
+        for (int m = 1, c = 0; m < all; m++) {
+            if (sizes[m] > 0) {
+                classOf[m] = c;
+                masks[c] = m;
+                rows[c] = new int[Math.min(sizes[m], keep)];
+                c++;
+            }
+        }
+        // sort each class by price, then by row, through a key packing both into one long
+        long[][] keys = new long[classes][];
+        int[] filled = new int[classes];
+        for (int c = 0; c < classes; c++) {
+            keys[c] = new long[rows[c].length];
+        }
+        for (int i = 0; i < table.size(); i++) {
+            if (table.getMask(i) != 0) {
+                int c = classOf[table.getMask(i)];
+                long key = (long) table.getPrice(i) << 32 | table.getRow(i);
+                if (filled[c] < keys[c].length) {
+                    keys[c][filled[c]++] = key;
+                    if (filled[c] == keys[c].length && sizes[masks[c]] > keys[c].length) {
+                        for (int k = keys[c].length / 2 - 1; k >= 0; k--) { // more rows to come, heap by largest key
+                            siftDown(keys[c], k);
+                        }
+                    }
+                }
+                else if (keys[c].length > 0 && key < keys[c][0]) { // cheaper than the dearest row kept so far
+                    keys[c][0] = key;
+                    siftDown(keys[c], 0);
+                }
+            }
+        }
+        for (int c = 0; c < classes; c++) {
+            Arrays.sort(keys[c]);
+            prefix[c] = new long[keys[c].length + 1];
+            for (int k = 0; k < keys[c].length; k++) {
+                rows[c][k] = (int) keys[c][k];
+                prefix[c][k + 1] = prefix[c][k] + (keys[c][k] >>> 32);
+            }
+        }
+    }
+
+    /**
+     * Moves a key down a heap with the largest key at the root until both its children are smaller.
+     * @param heap keys of one class
+     * @param k position of the key
+     */
+    private static void siftDown(long[] heap, int k) {
+        long key = heap[k];
+        while (2 * k + 1 < heap.length) {
+            int child = 2 * k + 1;
+            if (child + 1 < heap.length && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= key) {
+                break;
+            }
+            heap[k] = heap[child];
+            k = child;
+        }
+        heap[k] = key;
+    }
+
+    /**
+     * Builds the classes of a type from the local arrays of the database, the same arrays
+     * @CreateOrder.makeIdArray reads the IDs from.
+     * @param db Database object holding the local furniture arrays
+     * @param category furniture category (desk, chair, filing or lamp)
+     * @param type furniture type to filter on
+     * @return ClassView of the matching rows
+     */
+    public static ClassView forCategory(Database db, String category, String type) {
+        switch (ComponentTable.indicatorOf(category)) {
+            case 0:
+                return new ClassView(ComponentTable.fromDesks(db.getDesk(), type));
+            case 1:
+                return new ClassView(ComponentTable.fromChairs(db.getChairs(), type));
+            case 2:
+                return new ClassView(ComponentTable.fromFilings(db.getFilings(), type));
+            default:
+                return new ClassView(ComponentTable.fromLamps(db.getLamps(), type));
+        }
+    }
+
+    /**
+     * Counts the rows of each component mask without sorting them, enough to size a search before building the view.
+     * @param table candidate rows of one furniture type
+     * @return number of rows with each mask, indexed by mask
+     */
+    public static int[] countByMask(ComponentTable table) {
+        int[] sizes = new int[1 << table.getComponents()];
+        for (int i = 0; i < table.size(); i++) {
+            sizes[table.getMask(i)]++;
+        }
+        return sizes;
+    }
+
+    /**
+     * @return number of non-empty classes
+     */
+    public int getClassCount() { return this.masks.length; }
+
+    /**
+     * @param c class number, below getClassCount()
+     * @return component mask shared by the rows of the class
+     */
+    public int getMask(int c) { return this.masks[c]; }
+
+    /**
+     * @param mask component mask
+     * @return number of the class of rows with the mask, -1 if no row has it
+     */
+    public int classOf(int mask) { return this.classOf[mask]; }
+
+    /**
+     * @param c class number
+     * @return number of rows kept in the class
+     */
+    public int size(int c) { return this.rows[c].length; }
+
+    /**
+     * @param c class number
+     * @param rank position in the class, 0 for the cheapest row
+     * @return index of that row in the database furniture array
+     */
+    public int getRow(int c, int rank) { return this.rows[c][rank]; }
+
+    /**
+     * @param c class number
+     * @param k number of rows taken, at most size(c)
+     * @return total price of the k cheapest rows of the class
+     */
+    public long cost(int c, int k) { return this.prefix[c][k]; }
+
+    /**
+     * @return number of components that make up one complete item
+     */
+    public int getComponents() { return this.components; }
+
+    /**
+     * @return furniture category of the rows
+     */
+    public String getCategory() { return this.category; }
+
+    /**
+     * @return furniture type of the rows
+     */
+    public String getType() { return this.type; }
+}
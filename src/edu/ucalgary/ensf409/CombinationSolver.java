@@ -0,0 +1,62 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+/**
+ * The CombinationSolver interface is implemented by every lowest price search. A solver is given the candidate rows
+ * of one furniture type and the quantity ordered, and returns the cheapest set of rows that makes the order. The
+ * @SolverSelector class decides which implementation @Order.operation uses.
+ *
+ * A search can be given a deadline, a System.nanoTime() value. A solver that supports it returns the cheapest
+ * combination found when the deadline passes, together with a proven lower bound on the lowest price (see
+ * @SolverResult.isOptimal). Solvers that do not support it ignore the deadline and always finish.
+ */
+public interface CombinationSolver {
+    /** Deadline that never passes */
+    long NO_DEADLINE = Long.MAX_VALUE;
+
+    /**
+     * Finds the lowest price combination of rows that makes the requested number of items.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @return SolverResult with the lowest price and the row indexes, price 0 if the order cannot be made
+     */
+    SolverResult solve(ComponentTable table, int number);
+
+    /**
+     * Finds the lowest price combination, stopping early once the deadline has passed.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @param deadline System.nanoTime() value to stop at, or NO_DEADLINE
+     * @return SolverResult with the best price found and the row indexes, price 0 if the order cannot be made
+     */
+    default SolverResult solve(ComponentTable table, int number, long deadline) {
+        return solve(table, number);
+    }
+
+    /**
+     * @param millis time budget in milliseconds, 0 or less for none
+     * @return deadline that passes once the budget is spent
+     */
+    static long deadlineAfter(long millis) {
+        return millis <= 0 ? NO_DEADLINE : System.nanoTime() + millis * 1_000_000L;
+    }
+
+    /**
+     * @param deadline System.nanoTime() value, or NO_DEADLINE
+     * @return true if the deadline has passed
+     */
+    static boolean expired(long deadline) {
+        return deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * @return short name of the solver, as accepted by @SolverSelector
+     */
+    String getName();
+}
@@ -0,0 +1,162 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+/**
+ * The ComponentTable class is a compact, solver friendly view of the rows of one furniture category that match the
+ * requested type. Each candidate row is reduced to its index in the @Database array, a bitmask of the components it
+ * still has ("Y" columns) and its price. Bits are assigned in table column order, so for a chair legs is bit 0, arms
+ * bit 1, seat bit 2 and cushion bit 3. Rows with no components left are never useful and are not included.
+ */
+public class ComponentTable {
+    private final String category; // furniture category the rows were taken from
+    private final String type; // furniture type the rows were filtered on
+    private final int components; // number of components that make up one complete item
+    private final int[] rows; // index of each candidate in the database furniture array
+    private final int[] masks; // component bitmask of each candidate
+    private final int[] prices; // price of each candidate
+
+    /**
+     * Constructor for ComponentTable. The three arrays must be the same length and are used as is.
+     * @param category furniture category of the rows (desk, chair, filing or lamp)
+     * @param type furniture type of the rows
+     * @param components number of components needed to make one item
+     * @param rows indexes of the candidates in the database furniture array
+     * @param masks component bitmask of each candidate
+     * @param prices price of each candidate
+     */
+    public ComponentTable(String category, String type, int components, int[] rows, int[] masks, int[] prices) {
+        this.category = category;
+        this.type = type;
+        this.components = components;
+        this.rows = rows;
+        this.masks = masks;
+        this.prices = prices;
+    }
+
+    /**
+     * Builds the candidate table for the requested category and type from the compact views the database builds
+     * when it loads each table.
+     * @param db Database object holding the local furniture arrays
+     * @param category furniture category (desk, chair, filing or lamp)
+     * @param type furniture type to filter on
+     * @return ComponentTable of the matching rows
+     */
+    public static ComponentTable forCategory(Database db, String category, String type) {
+        return db.getView(indicatorOf(category)).select(type);
+    }
+
+    /**
+     * Builds the candidate table for chairs of the given type.
+     * @param table array of chair objects, replicating the chair table in the database
+     * @param type chair type to filter on
+     * @return ComponentTable of the matching chairs
+     */
+    public static ComponentTable fromChairs(Chair[] table, String type) {
+        return InventoryView.ofChairs(table).select(type);
+    }
+
+    /**
+     * Builds the candidate table for desks of the given type.
+     * @param table array of desk objects, replicating the desk table in the database
+     * @param type desk type to filter on
+     * @return ComponentTable of the matching desks
+     */
+    public static ComponentTable fromDesks(Desk[] table, String type) {
+        return InventoryView.ofDesks(table).select(type);
+    }
+
+    /**
+     * Builds the candidate table for filings of the given type.
+     * @param table array of filing objects, replicating the filing table in the database
+     * @param type filing type to filter on
+     * @return ComponentTable of the matching filings
+     */
+    public static ComponentTable fromFilings(Filing[] table, String type) {
+        return InventoryView.ofFilings(table).select(type);
+    }
+
+    /**
+     * Builds the candidate table for lamps of the given type.
+     * @param table array of lamp objects, replicating the lamp table in the database
+     * @param type lamp type to filter on
+     * @return ComponentTable of the matching lamps
+     */
+    public static ComponentTable fromLamps(Lamp[] table, String type) {
+        return InventoryView.ofLamps(table).select(type);
+    }
+
+    /**
+     * Returns the indicator used by @Database.updateTable and @CreateOrder.makeIdArray for this category.
+     * @return 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     */
+    public int getIndicator() {
+        return indicatorOf(this.category);
+    }
+
+    /**
+     * Returns the indicator used by @Database.updateTable and @CreateOrder.makeIdArray for a category.
+     * @param category furniture category (desk, chair, filing or lamp)
+     * @return 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     */
+    public static int indicatorOf(String category) {
+        switch (category) {
+            case "desk":
+                return 0;
+            case "chair":
+                return 1;
+            case "filing":
+                return 2;
+            default:
+                return 3;
+        }
+    }
+
+    /**
+     * @return number of candidate rows
+     */
+    public int size() { return this.rows.length; }
+
+    /**
+     * @return bitmask with one bit set for every component of a complete item
+     */
+    public int fullMask() { return (1 << this.components) - 1; }
+
+    /**
+     * @param i candidate position
+     * @return index of the candidate in the database furniture array
+     */
+    public int getRow(int i) { return this.rows[i]; }
+
+    /**
+     * @param i candidate position
+     * @return component bitmask of the candidate
+     */
+    public int getMask(int i) { return this.masks[i]; }
+
+    /**
+     * @param i candidate position
+     * @return price of the candidate
+     */
+    public int getPrice(int i) { return this.prices[i]; }
+
+    /**
+     * @return number of components needed to make one item
+     */
+    public int getComponents() { return this.components; }
+
+    /**
+     * @return furniture category of the rows
+     */
+    public String getCategory() { return this.category; }
+
+    /**
+     * @return furniture type of the rows
+     */
+    public String getType() { return this.type; }
+}
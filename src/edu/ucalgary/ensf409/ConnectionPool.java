@@ -0,0 +1,403 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The ConnectionPool class keeps a small number of open connections to the database so each query or push borrows one
+ * instead of opening its own, which costs a TCP and authentication handshake and, when the old connection is never
+ * closed, leaks a socket. At most @size connections are open at once. A borrow takes the most recently returned idle
+ * connection, opens a new one if fewer than size are open, or waits up to the wait timeout for one to be returned.
+ *
+ * Every connection is checked with Connection.isValid when it is borrowed, and one that fails is closed and replaced.
+ * Idle connections unused for longer than the idle timeout are closed on the next borrow or return, so no thread is
+ * needed. A connection borrowed for longer than the leak threshold is reported once, with the stack of its borrow, and
+ * one closed by its borrower instead of returned frees its place in the pool. The time every borrow waited is
+ * recorded, so the wait metrics show when the pool is too small. Connections are only checked and closed outside the
+ * lock of the pool, so a slow driver call never holds up the other borrows and returns.
+ */
+public class ConnectionPool implements AutoCloseable {
+    /** Connections open at most when no size is given */
+    public static final int DEFAULT_SIZE = 2;
+    /** Milliseconds a borrow waits for a returned connection before failing */
+    public static final long DEFAULT_WAIT_MILLIS = 30000;
+    /** Milliseconds an idle connection is kept open */
+    public static final long DEFAULT_IDLE_MILLIS = 300000;
+    /** Milliseconds a connection may be borrowed before it is reported as leaked */
+    public static final long DEFAULT_LEAK_MILLIS = 60000;
+    private static final int VALID_SECONDS = 2; // time Connection.isValid may take on a borrow
+
+    /**
+     * Opens a new connection to the database.
+     */
+    interface Opener {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * A borrowed connection, the time it was borrowed and where from.
+     */
+    private static class Loan {
+        private final long since = System.nanoTime();
+        private final Throwable where = new Throwable("Connection borrowed here");
+        private boolean reported; // true once the loan was reported as a leak
+    }
+
+    private final Opener opener; // opens the connections
+    private final int size; // connections open at most
+    private final ArrayDeque<Connection> idle = new ArrayDeque<Connection>(); // returned connections, last returned first
+    private final ArrayDeque<Long> idleSince = new ArrayDeque<Long>(); // System.nanoTime() each idle connection was returned
+    private final Map<Connection, Loan> borrowed = new IdentityHashMap<Connection, Loan>(); // connections in use
+    private int opening; // places held by borrows opening a new connection
+    private long waitMillis = DEFAULT_WAIT_MILLIS;
+    private long idleMillis = DEFAULT_IDLE_MILLIS;
+    private long leakMillis = DEFAULT_LEAK_MILLIS;
+    private boolean closed; // true once close was called
+    private long borrows; // borrows that got a connection
+    private long waitNanos; // time every borrow waited
+    private long maxWaitNanos; // longest time a borrow waited
+    private int opened; // connections opened
+    private int evicted; // connections closed for being idle too long or failing validation
+    private int leaks; // loans reported as leaks
+
+    /**
+     * Constructor for ConnectionPool
+     * @param DBURL Url of database
+     * @param USERNAME Access username
+     * @param PASSWORD Access password
+     * @param size connections open at most
+     */
+    public ConnectionPool(String DBURL, String USERNAME, String PASSWORD, int size) {
+        this(() -> DriverManager.getConnection(DBURL, USERNAME, PASSWORD), size);
+    }
+
+    /**
+     * Constructor for ConnectionPool with any way of opening connections.
+     * @param opener opens a new connection to the database
+     * @param size connections open at most
+     * @throws IllegalArgumentException if size is below 1
+     */
+    ConnectionPool(Opener opener, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1, was " + size);
+        }
+        this.opener = opener;
+        this.size = size;
+    }
+
+    /**
+     * Borrows a valid connection, to be given back with release.
+     * @return open connection to the database
+     * @throws SQLException if no connection can be opened, none was returned within the wait timeout or the pool is
+     *                      closed
+     */
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        while (true) {
+            checkLoans();
+            Connection connection = null;
+            ArrayList<Connection> stale = new ArrayList<Connection>(); // idle connections to close once the lock is released
+            try {
+                synchronized (this) {
+                    evictIdle(stale);
+                    if (!closed && idle.isEmpty() && borrowed.size() + opening >= size) {
+                        long left = waitMillis - (System.nanoTime() - start) / 1000000;
+                        if (left <= 0) {
+                            throw new SQLException("No connection returned to the pool of " + size + " within "
+                                    + waitMillis + " ms");
+                        }
+                        try {
+                            wait(left);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            throw new SQLException("Interrupted while waiting for a connection", ex);
+                        }
+                        continue; // check the loans again, a borrower may have closed its connection
+                    }
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed");
+                    }
+                    if (idle.isEmpty()) {
+                        opening++; // hold the place while the connection opens outside the lock
+                    }
+                    else {
+                        connection = idle.pop();
+                        idleSince.pop();
+                        borrowed.put(connection, new Loan());
+                    }
+                }
+            } finally {
+                closeAll(stale);
+            }
+            if (connection == null) {
+                try {
+                    connection = opener.open();
+                } catch (SQLException | RuntimeException ex) {
+                    synchronized (this) {
+                        opening--; // free the place for a waiting borrow
+                        notifyAll();
+                    }
+                    throw ex;
+                }
+                synchronized (this) {
+                    opening--;
+                    borrowed.put(connection, new Loan());
+                    opened++;
+                    record(start);
+                }
+                return connection;
+            }
+            if (valid(connection)) {
+                synchronized (this) {
+                    record(start);
+                }
+                return connection;
+            }
+            closeQuietly(connection); // failed validation, try the next one
+            synchronized (this) {
+                evicted++;
+            }
+            forget(connection);
+        }
+    }
+
+    /**
+     * Gives a borrowed connection back to the pool. A connection that was closed or not borrowed from this pool is
+     * only closed.
+     * @param connection connection from borrow, or null
+     */
+    public void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        boolean open = !isClosed(connection); // asked before taking the lock, the driver may be slow to answer
+        boolean keep;
+        ArrayList<Connection> stale = new ArrayList<Connection>();
+        synchronized (this) {
+            keep = borrowed.remove(connection) != null && !closed && open;
+            if (keep) {
+                idle.push(connection);
+                idleSince.push(System.nanoTime());
+            }
+            evictIdle(stale);
+            notifyAll();
+        }
+        if (!keep) {
+            closeQuietly(connection);
+        }
+        closeAll(stale);
+    }
+
+    /**
+     * Closes every idle connection and fails every later borrow. Connections still borrowed are closed when returned.
+     */
+    @Override
+    public void close() {
+        ArrayList<Connection> stale;
+        synchronized (this) {
+            closed = true;
+            stale = new ArrayList<Connection>(idle);
+            idle.clear();
+            idleSince.clear();
+            notifyAll();
+        }
+        closeAll(stale);
+    }
+
+    /**
+     * @param waitMillis milliseconds a borrow waits for a returned connection before failing
+     */
+    public synchronized void setWaitMillis(long waitMillis) { this.waitMillis = waitMillis; }
+
+    /**
+     * @param idleMillis milliseconds an idle connection is kept open
+     */
+    public synchronized void setIdleMillis(long idleMillis) { this.idleMillis = idleMillis; }
+
+    /**
+     * @param leakMillis milliseconds a connection may be borrowed before it is reported as leaked
+     */
+    public synchronized void setLeakMillis(long leakMillis) { this.leakMillis = leakMillis; }
+
+    /**
+     * @return connections open at most
+     */
+    public int getSize() { return size; }
+
+    /**
+     * @return connections open now, idle or borrowed
+     */
+    public int getOpen() {
+        checkLoans();
+        synchronized (this) {
+            return idle.size() + borrowed.size();
+        }
+    }
+
+    /**
+     * @return idle connections waiting to be borrowed
+     */
+    public synchronized int getIdle() { return idle.size(); }
+
+    /**
+     * @return connections opened since the pool was made
+     */
+    public synchronized int getOpened() { return opened; }
+
+    /**
+     * @return connections closed for being idle too long or failing validation
+     */
+    public synchronized int getEvicted() { return evicted; }
+
+    /**
+     * @return borrowed connections reported as leaks
+     */
+    public int getLeaks() {
+        checkLoans();
+        synchronized (this) {
+            return leaks;
+        }
+    }
+
+    /**
+     * @return borrows that got a connection
+     */
+    public synchronized long getBorrows() { return borrows; }
+
+    /**
+     * @return average milliseconds a borrow waited for its connection, 0 before the first
+     */
+    public synchronized double getAverageWaitMillis() { return borrows > 0 ? waitNanos / 1e6 / borrows : 0; }
+
+    /**
+     * @return longest milliseconds a borrow waited for its connection
+     */
+    public synchronized double getMaxWaitMillis() { return maxWaitNanos / 1e6; }
+
+    /**
+     * Adds a finished borrow to the wait metrics.
+     * @param start System.nanoTime() the borrow started
+     */
+    private void record(long start) {
+        long waited = System.nanoTime() - start;
+        borrows++;
+        waitNanos += waited;
+        maxWaitNanos = Math.max(maxWaitNanos, waited);
+    }
+
+    /**
+     * Drops a loan whose connection will not be returned, freeing its place for a waiting borrow.
+     * @param connection borrowed connection
+     */
+    private synchronized void forget(Connection connection) {
+        borrowed.remove(connection);
+        notifyAll();
+    }
+
+    /**
+     * Frees the place of every borrowed connection its borrower closed, and reports loans held past the leak
+     * threshold once each. The borrowed connections are asked if they are closed, and the leaks printed, outside the
+     * lock.
+     */
+    private void checkLoans() {
+        ArrayList<Connection> loaned;
+        synchronized (this) {
+            loaned = new ArrayList<Connection>(borrowed.keySet());
+        }
+        ArrayList<Connection> gone = new ArrayList<Connection>(); // closed by their borrowers
+        for (Connection connection : loaned) {
+            if (isClosed(connection)) {
+                gone.add(connection);
+            }
+        }
+        long now = System.nanoTime();
+        ArrayList<Loan> late = new ArrayList<Loan>(); // loans to report as leaks
+        synchronized (this) {
+            for (Connection connection : gone) {
+                borrowed.remove(connection);
+            }
+            if (!gone.isEmpty()) {
+                notifyAll(); // their places are free for a waiting borrow
+            }
+            for (Loan held : borrowed.values()) {
+                if (!held.reported && (now - held.since) / 1000000 > leakMillis) {
+                    held.reported = true;
+                    leaks++;
+                    late.add(held);
+                }
+            }
+        }
+        for (Loan held : late) {
+            System.err.println("Connection borrowed " + (now - held.since) / 1000000 + " ms ago was not returned");
+            held.where.printStackTrace();
+        }
+    }
+
+    /**
+     * Takes the idle connections returned longer ago than the idle timeout out of the pool. The oldest are at the end
+     * of the deque. They are closed by the caller once it has released the lock.
+     * @param stale list the connections taken out are added to
+     */
+    private void evictIdle(ArrayList<Connection> stale) {
+        long now = System.nanoTime();
+        while (!idleSince.isEmpty() && (now - idleSince.peekLast()) / 1000000 > idleMillis) {
+            idleSince.removeLast();
+            stale.add(idle.removeLast());
+            evicted++;
+        }
+    }
+
+    /**
+     * @return true if the connection answers within VALID_SECONDS
+     */
+    private static boolean valid(Connection connection) {
+        try {
+            return connection.isValid(VALID_SECONDS);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the connection was closed or cannot tell
+     */
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException ex) {
+            return true;
+        }
+    }
+
+    /**
+     * Closes every connection of a list, see closeQuietly.
+     */
+    private static void closeAll(ArrayList<Connection> connections) {
+        for (Connection connection : connections) {
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Closes a connection, ignoring a failure since it is being dropped anyway.
+     */
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            // the connection is dropped either way
+        }
+    }
+}
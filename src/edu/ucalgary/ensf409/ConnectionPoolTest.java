@@ -0,0 +1,144 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Tests how @ConnectionPool lends, checks and drops connections. The connections are stand ins made with a
+ * java.lang.reflect.Proxy, so no database is needed.
+ */
+public class ConnectionPoolTest
+{
+    private int opened; // connections made by the opener
+    private boolean valid; // what isValid answers for every connection made
+    private ConnectionPool pool;
+
+    @Before
+    public void setUp()
+    {
+        opened = 0;
+        valid = true;
+        pool = new ConnectionPool(this::open, 2);
+    }
+
+    /**
+     * testReuse() returns a connection and borrows again. The same connection should be lent without opening another.
+     */
+    @Test
+    public void testReuse() throws SQLException
+    {
+        Connection first = pool.borrow();
+        pool.release(first);
+        Connection second = pool.borrow();
+
+        Assert.assertSame("The returned connection should be lent again", first, second);
+        Assert.assertEquals("Only one connection should be opened", 1, opened);
+        Assert.assertEquals("Two borrows should be counted", 2, pool.getBorrows());
+    }
+
+    /**
+     * testValidation() returns a connection that then stops answering. The next borrow should drop it and open a new one.
+     */
+    @Test
+    public void testValidation() throws SQLException
+    {
+        Connection first = pool.borrow();
+        pool.release(first);
+        valid = false; // the idle connection fails its check, a newly opened one is not checked
+        Connection second = pool.borrow();
+
+        Assert.assertNotSame("A connection failing its check should not be lent", first, second);
+        Assert.assertEquals("The failed connection should be counted as evicted", 1, pool.getEvicted());
+        Assert.assertTrue("The failed connection should be closed", first.isClosed());
+    }
+
+    /**
+     * testWaitTimeout() borrows every connection of the pool. The next borrow should wait and then fail.
+     */
+    @Test
+    public void testWaitTimeout() throws SQLException
+    {
+        pool.setWaitMillis(20);
+        pool.borrow();
+        pool.borrow();
+        boolean failed = false;
+        try {
+            pool.borrow();
+        } catch (SQLException ex) {
+            failed = true;
+        }
+
+        Assert.assertTrue("A borrow from a full pool should time out", failed);
+        Assert.assertEquals("No more than the pool size should be opened", 2, opened);
+    }
+
+    /**
+     * testIdleEviction() returns a connection and lets it sit past the idle timeout. It should be closed, and the next
+     * borrow should open a new one.
+     */
+    @Test
+    public void testIdleEviction() throws SQLException, InterruptedException
+    {
+        pool.setIdleMillis(1);
+        Connection first = pool.borrow();
+        pool.release(first);
+        Thread.sleep(5);
+        Connection second = pool.borrow();
+
+        Assert.assertNotSame("An idle connection past the timeout should not be lent", first, second);
+        Assert.assertTrue("The idle connection should be closed", first.isClosed());
+        Assert.assertEquals("The idle connection should be counted as evicted", 1, pool.getEvicted());
+    }
+
+    /**
+     * testLeakDetection() keeps a connection past the leak threshold, then closes it instead of returning it. It should
+     * be reported once, and closing it should free its place in the pool.
+     */
+    @Test
+    public void testLeakDetection() throws SQLException, InterruptedException
+    {
+        pool.setLeakMillis(1);
+        Connection kept = pool.borrow();
+        Thread.sleep(5);
+
+        Assert.assertEquals("The kept connection should be reported", 1, pool.getLeaks());
+        Assert.assertEquals("It should only be reported once", 1, pool.getLeaks());
+        kept.close();
+        Assert.assertEquals("A closed connection should not be counted as open", 0, pool.getOpen());
+    }
+
+    /**
+     * @return a stand in connection that answers isValid with the current value of valid and remembers being closed
+     */
+    private Connection open()
+    {
+        opened++;
+        boolean[] closed = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "isValid":
+                            return valid;
+                        case "isClosed":
+                            return closed[0];
+                        case "close":
+                            closed[0] = true;
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
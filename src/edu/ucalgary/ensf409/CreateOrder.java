@@ -11,6 +11,9 @@ package edu.ucalgary.ensf409;
 import java.io.*;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.PriorityQueue;
 import java.time.LocalDateTime;
 
 /**
@@ -25,9 +28,16 @@ public class CreateOrder {
     private File fileName;
     private String[] itemsOrdered;
     private int totalPrice;
+    private int lowerBound; // proven lower bound on the lowest price when totalPrice is not proven optimal
+    private boolean optimal = true; // false if totalPrice is only the best found within the time budget
+    private double guarantee; // ratio to the lowest price an approximate solver guarantees, 0 for an exact price
     public Database db;
-    private ArrayList<ArrayList<Integer>> combinations = new ArrayList<ArrayList<Integer>>();
-    private ArrayList<Integer> prices = new ArrayList<Integer>();
+    private int lowestPrice; // price of the cheapest combination found so far, 0 if none was found
+    private ArrayList<Integer> lowestCombination; // indexes of the cheapest combination found so far
+    private int topK; // number of cheapest distinct combinations to keep, 0 to keep only the lowest
+    private long found; // number of complete combinations found since the last clearLists
+    private PriorityQueue<RankedCombination> runnersUp = new PriorityQueue<RankedCombination>(); // most expensive kept combination at the head
+    private HashSet<ArrayList<Integer>> runnerSets = new HashSet<ArrayList<Integer>>(); // sorted indexes of the kept combinations
 
     /**
      * 3 argument constructor for the Create order class
@@ -48,9 +58,69 @@ public class CreateOrder {
         DateTimeFormatter format = DateTimeFormatter.ofPattern("dd-MM-yyyy_HH~mm~ss");
         String formatDateTime = ldt.format(format);
         //Create output Filepath
+        openOutput(new File(request.getFurnitureType()+"_"+request.getFurnitureCategory()+"_Order_["+ formatDateTime + "].txt"));
+        this.db = db;
+    }
+
+    /**
+     * Constructor writing the order form to a given file instead of one named after the time, for callers such as
+     * @BatchOrder that place many orders within the same second.
+     *
+     * @param request the order to make
+     * @param file output file of the order form
+     * @param db the database object passed in by the Database class
+     */
+    CreateOrder(Order request, File file, Database db)
+    {
+        this.originalRequest = request;
+        openOutput(file);
+        this.db = db;
+    }
+
+    /**
+     * Constructor for pricing an order with @Order.quote only. No file is opened, so none of the generate methods may
+     * be called.
+     *
+     * @param request the order to price
+     * @param db the database object passed in by the Database class
+     */
+    CreateOrder(Order request, Database db)
+    {
+        this.originalRequest = request;
+        this.db = db;
+    }
+
+    /**
+     * Constructor for the combined order form of a @BasketOrder. The file is named after the basket instead of a
+     * single furniture type, and the first line of the basket is kept as the original request.
+     *
+     * @param basket the basket of order lines
+     * @param ldt pass in a LocalDateTime object to generate a custom order ID
+     * @param db the database object passed in by the Database class
+     * @throws IllegalArgumentException if the basket has no order lines
+     */
+    CreateOrder(BasketOrder basket, LocalDateTime ldt, Database db)
+    {
+        if (basket.getLines().isEmpty()) { // checked before the file is made, so an empty basket leaves no order form
+            throw new IllegalArgumentException("A basket needs at least one order line to be placed");
+        }
+        this.originalRequest = basket.getLines().get(0);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("dd-MM-yyyy_HH~mm~ss");
+        String formatDateTime = ldt.format(format);
+        openOutput(new File("Basket_Order_["+ formatDateTime + "].txt"));
+        this.db = db;
+    }
+
+    /**
+     * Opens the output file every constructor writes its order form to. The program cannot go on without it, so it
+     * exits if the file cannot be made.
+     * @param file output file of the order form
+     */
+    private void openOutput(File file)
+    {
         try
         {
-            this.fileName = new File(request.getFurnitureType()+"_"+request.getFurnitureCategory()+"_Order_["+ formatDateTime + "].txt");
+            this.fileName = file;
             this.outStream = new PrintWriter(fileName);
         }
         catch (IOException e)
@@ -58,7 +128,6 @@ public class CreateOrder {
             System.out.println("Error opening output file");
             System.exit(1);
         }
-        this.db = db;
     }
 
     /**
@@ -125,6 +194,32 @@ public class CreateOrder {
         return this.totalPrice;
     }
 
+    /**
+     * setter method for the optimality of the total price
+     * @param lowerBound proven lower bound on the lowest price
+     * @param optimal true if the total price is proven to be the lowest, false if it is the best within the time budget
+     */
+    public void setPriceBound(int lowerBound, boolean optimal){
+        this.lowerBound = lowerBound;
+        this.optimal = optimal;
+    }
+
+    /**
+     * setter method for an approximate total price
+     * @param guarantee ratio to the lowest price the approximate solver guarantees, 0 for an exact price
+     */
+    public void setGuarantee(double guarantee){
+        this.guarantee = guarantee;
+    }
+
+    /**
+     * getter method for the optimality of the total price
+     * @return true if the total price is proven to be the lowest
+     */
+    public boolean isOptimal() {
+        return this.optimal;
+    }
+
     /**
      * Creates an output file with all the relevant data
      * including price, and items ordered referenced by
@@ -149,9 +244,76 @@ public class CreateOrder {
         outStream.println();
         // generate receipt
         outStream.println("Total Price: $" + this.totalPrice+".00");
+        if(!this.optimal){ // the price is not proven to be the lowest
+            outStream.println(priceStatus(this.totalPrice, this.lowerBound, this.guarantee));
+        }
         //close file
         outStream.close();
     }
+    /**
+     * Describes a price that is not proven to be the lowest, for the order form.
+     * @param price price of the order
+     * @param lowerBound proven lower bound on the lowest price
+     * @param guarantee ratio to the lowest price an approximate solver guarantees, 0 if the price is only the best
+     *                  found within the time budget
+     * @return Price Status line of the order form
+     */
+    static String priceStatus(int price, int lowerBound, double guarantee) {
+        if (guarantee > 0) {
+            return "Price Status: approximate, at most " + String.format("%.3f", (double) price / Math.max(1, lowerBound))
+                    + " times the lowest price (lower bound $" + lowerBound + ".00, guaranteed within "
+                    + String.format("%.3f", guarantee) + " times)";
+        }
+        return "Price Status: best within budget, not proven optimal (lower bound $" + lowerBound + ".00)";
+    }
+
+    /**
+     * Writes one combined order form for the whole basket. The form has a section for every line listing the items
+     * ordered and its price, or the suppliers to contact if it cannot be made from the current inventory, followed by
+     * the total price of the lines that could be made.
+     * @param lines order lines of the basket
+     * @param results lowest price search result of each line
+     * @param ids item IDs of each line, null for a line that cannot be made
+     */
+    public void generateBasketOrder(ArrayList<Order> lines, ArrayList<SolverResult> results, ArrayList<String[]> ids) {
+        //Order form header
+        outStream.println("Furniture Order Form");
+        outStream.println();
+        outStream.println("Faculty Name:");
+        outStream.println("Contact:");
+        outStream.println("Date:");
+        outStream.println();
+        int total = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            Order line = lines.get(i);
+            SolverResult result = results.get(i);
+            //State client's request for this line
+            outStream.println("Original Request: " + line.getFurnitureType() +" "+ line.getFurnitureCategory()+ ", " + line.getNumberItems());
+            if (ids.get(i) != null) {
+                //State line solution
+                outStream.println("Items Ordered");
+                for (String s : ids.get(i)) {
+                    outStream.println("ID: " + s);
+                }
+                outStream.println("Line Price: $" + result.getPrice()+".00");
+                if (!result.isOptimal()) { // the price is not proven to be the lowest
+                    outStream.println(priceStatus(result.getPrice(), result.getLowerBound(), result.getGuarantee()));
+                }
+                total += result.getPrice();
+            } else {
+                //Recommend suppliers for the line that cannot be made
+                outStream.println("Cannot be completed due to current inventory, please contact the following UofC approved suppliers: ");
+                outStream.println(suppliersOf(line.getFurnitureCategory(), line.getFurnitureType()));
+            }
+            outStream.println();
+        }
+        // generate receipt
+        outStream.println("Total Price: $" + total+".00");
+        this.totalPrice = total;
+        //close file
+        outStream.close();
+    }
+
     /**
      * Called from main in the case that an order cannot be created using the current inventory
      * uses privately held data members to use the Method: suppliersOf to find which manufacturers can produce
@@ -171,6 +333,20 @@ public class CreateOrder {
         outStream.close();
     }
 
+    /**
+     * Called from main in the case that the inventory of the order could not be read, so it was not searched. The
+     * output file states the request and why nothing was ordered.
+     * @param reason why the order could not be searched
+     */
+    public void generateUnavailable(String reason) {
+        outStream.println("Original request cannot be completed right now");
+        outStream.println();
+        outStream.println("Original Request: " + originalRequest.getFurnitureType() +" "+ originalRequest.getFurnitureCategory()+ "," + originalRequest.getNumberItems());
+        outStream.println();
+        outStream.println(reason);
+        outStream.close();
+    }
+
     /**
      * Called from the generateRecommendation method to fill in the data of which manufacturers can
      * produce the requested order.
@@ -248,36 +424,122 @@ public class CreateOrder {
     }
 
     /**
-     * This method searches through the prices ArrayList for the lowest value.
-     * @return lowest price in the ArrayList prices.
+     * This method returns the price of the cheapest combination found since the last clearLists.
+     * @return lowest price found, 0 if no combination was found.
      */
     public int getLowestPrice(){
-        int lowest = 0;
-        if(prices.size() >= 1){
-            lowest = prices.get(0);
-        }
-        for (Integer price : prices) {
-            if (price <= lowest) {
-                lowest = price;
-            }
-        }
-        return lowest;
+        return this.lowestPrice;
     }
 
     /**
-     * This method returns the combination inside the ArrayList combinations the corresponds with the lowest price.
+     * This method returns the combination that corresponds with the lowest price. When several combinations share the
+     * lowest price the first one found is kept.
      * @return ArrayList of the the indexes in the database furniture table that make up the combination.
      */
     public ArrayList<Integer> getLowestCombination(){
-        return combinations.get(prices.indexOf(this.totalPrice));
+        return this.lowestCombination;
     }
 
     /**
-     * this method clears the ArrayLists prices and combinations
+     * this method forgets the lowest combination and the runner up combinations
      */
     public void clearLists(){
-        prices.clear();
-        combinations.clear();
+        lowestPrice = 0;
+        lowestCombination = null;
+        found = 0;
+        runnersUp.clear();
+        runnerSets.clear();
+    }
+
+    /**
+     * Called by the price searches for every complete combination. Only the cheapest combination is kept, plus the
+     * topK cheapest distinct combinations if setTopK was called, so memory use does not grow with the number of
+     * combinations the search finds.
+     * @param price price sum of the combination
+     * @param combination indexes of the items in the combination
+     */
+    private void recordCombination(int price, ArrayList<Integer> combination){
+        found++;
+        if(lowestCombination == null || price < lowestPrice){ // strictly lower, so the first combination found wins ties
+            lowestPrice = price;
+            lowestCombination = combination;
+        }
+        if(topK == 0){
+            return;
+        }
+        if(runnersUp.size() == topK && price >= runnersUp.peek().price){
+            return; // not cheaper than the most expensive kept combination
+        }
+        ArrayList<Integer> set = new ArrayList<Integer>(combination);
+        Collections.sort(set); // the search can reach the same items in a different order
+        if(!runnerSets.add(set)){
+            return;
+        }
+        runnersUp.add(new RankedCombination(price, found, combination, set));
+        if(runnersUp.size() > topK){
+            runnerSets.remove(runnersUp.poll().set);
+        }
+    }
+
+    /**
+     * Hands a combination held on the stack of stackPrice to recordCombination. It is copied into an ArrayList only if
+     * it is cheaper than the lowest combination or would be kept as a runner up, otherwise it is just counted.
+     * @param price price sum of the combination
+     * @param path indexes of the items in the order the search took them
+     * @param length number of items in the combination
+     */
+    private void recordCombination(int price, int[] path, int length){
+        boolean lowest = lowestCombination == null || price < lowestPrice;
+        boolean runnerUp = topK > 0 && (runnersUp.size() < topK || price < runnersUp.peek().price);
+        if(!lowest && !runnerUp){
+            found++;
+            return;
+        }
+        ArrayList<Integer> combination = new ArrayList<Integer>(length);
+        for(int k = 0; k < length; k++){
+            combination.add(path[k]);
+        }
+        recordCombination(price, combination);
+    }
+
+    /**
+     * setter method for topK
+     * @param topK number of cheapest distinct combinations the next searches should keep, 0 to keep only the lowest
+     */
+    public void setTopK(int topK){
+        this.topK = topK;
+        clearLists();
+    }
+
+    /**
+     * getter method for topK
+     * @return number of cheapest distinct combinations the searches keep
+     */
+    public int getTopK() {
+        return this.topK;
+    }
+
+    /**
+     * This method returns the cheapest distinct combinations found since the last clearLists, at most topK of them.
+     * Combinations with the same price are listed in the order they were found.
+     * @return SolverResult for each combination, cheapest first
+     */
+    public ArrayList<SolverResult> getTopCombinations(){
+        ArrayList<RankedCombination> ranked = new ArrayList<RankedCombination>(runnersUp);
+        Collections.sort(ranked, Collections.reverseOrder());
+        ArrayList<SolverResult> top = new ArrayList<SolverResult>();
+        for(RankedCombination combination : ranked){
+            top.add(new SolverResult(combination.price, new ArrayList<Integer>(combination.indexes), 0));
+        }
+        return top;
+    }
+
+    /**
+     * getter method for the number of complete combinations found since the last clearLists
+     * @return number of combinations found
+     */
+    public long getCombinationsFound() {
+        return this.found;
     }
 
     /**
@@ -334,9 +596,8 @@ public class CreateOrder {
 
     /**
      * chairPrice recursively searches through the chair array to find the lowest price of all combinations to make the desired order for the
-     * user. When a combination is found, it inserts and ArrayList of the combination indexes into a 2D ArrayList called
-     * combinations. It also puts the price sum of that found combination into an ArrayList called prices and checks for the lowest
-     * price within that list of prices.
+     * user. When a combination is found, its indexes and price sum are passed to recordCombination, which keeps it only if
+     * it is cheaper than the lowest combination found so far.
      * @param table // array of chair objects, replicating the chair table in the database
      * @param priceTotal // price of combined items
      * @param alreadyHit // stores the indexes of the chairs already checked
@@ -383,8 +644,7 @@ public class CreateOrder {
                     totalPrice2 = priceTotal + db.getChairs()[i].getPrice();
                     // if the amount legs + arms + seats + cushions found is equal to max amount pieces needed to make order
                     if(lCount+aCount+sCount+cCount == number*4){
-                        prices.add(totalPrice2); // add total price of combination to prices ArrayList
-                        combinations.add(alreadyHit2); // add the indexes of the combined chairs to the combinations ArrayList
+                        recordCombination(totalPrice2, alreadyHit2); // keep the combination if it is the cheapest so far
                         lowest = getLowestPrice(); // Update lowest chair price
                         return lowest;  // return updated lowest price
                     }
@@ -397,9 +657,8 @@ public class CreateOrder {
 
     /**
      * deskPrice recursively searches through the desks array to find the lowest price of all combinations to make the desired order for the
-     * user. When a combination is found, it inserts and ArrayList of the combination indexes into a 2D ArrayList called
-     * combinations. It also puts the price sum of that found combination into an ArrayList called prices and checks for the lowest
-     * price within that list of prices.
+     * user. When a combination is found, its indexes and price sum are passed to recordCombination, which keeps it only if
+     * it is cheaper than the lowest combination found so far.
      * @param table // array of desk objects, replicating the desk table in the database
      * @param priceTotal // price of combined items
      * @param alreadyHit // stores the indexes of the desks already checked
@@ -442,8 +701,7 @@ public class CreateOrder {
                     totalPrice2 = priceTotal + table[i].getPrice();
                     // if the amount legs + tops + drawers found is equal to max amount pieces needed to make order
                     if(lCount+tCount+dCount == number*3){
-                        prices.add(totalPrice2); // add total price of combination to prices ArrayList
-                        combinations.add(alreadyHit2); // add the indexes of the combined desks to the combinations ArrayList
+                        recordCombination(totalPrice2, alreadyHit2); // keep the combination if it is the cheapest so far
                         lowest = getLowestPrice(); // Update lowest desk price
                         return lowest; // return updated lowest price
                     }
@@ -456,9 +714,8 @@ public class CreateOrder {
 
     /**
      * filingPrice recursively searches through the filing array to find the lowest price of all combinations to make the desired order for the
-     * user. When a combination is found, it inserts and ArrayList of the combination indexes into a 2D ArrayList called
-     * combinations. It also puts the price sum of that found combination into an ArrayList called prices and checks for the lowest
-     * price within that list of prices.
+     * user. When a combination is found, its indexes and price sum are passed to recordCombination, which keeps it only if
+     * it is cheaper than the lowest combination found so far.
      * @param table // array of filing objects, replicating the filing table in the database
      * @param priceTotal // price of combined items
      * @param alreadyHit // stores the indexes of the filings already checked
@@ -501,8 +758,7 @@ public class CreateOrder {
                     totalPrice2 = priceTotal + table[i].getPrice();
                     // if the amount rails + drawers + cabinets found is equal to max amount pieces needed to make order
                     if(rCount+dCount+cCount == number*3){
-                        prices.add(totalPrice2); // add total price of combination to prices ArrayList
-                        combinations.add(alreadyHit2); // add the indexes of the combined filings to the combinations ArrayList
+                        recordCombination(totalPrice2, alreadyHit2); // keep the combination if it is the cheapest so far
                         lowest = getLowestPrice(); // Update lowest filing price
                         return lowest; // return updated lowest price
                     }
@@ -515,9 +771,8 @@ public class CreateOrder {
 
     /**
      * lampPrice recursively searches through the lamps array to find the lowest price of all combinations to make the desired order for the
-     * user. When a combination is found, it inserts and ArrayList of the combination indexes into a 2D ArrayList called
-     * combinations. It also puts the price sum of that found combination into an ArrayList called prices and checks for the lowest
-     * price within that list of prices.
+     * user. When a combination is found, its indexes and price sum are passed to recordCombination, which keeps it only if
+     * it is cheaper than the lowest combination found so far.
      * @param table // array of lamp objects, replicating the lamp table in the database
      * @param priceTotal // price of combined items
      * @param alreadyHit // stores the indexes of the lamps already checked
@@ -553,8 +808,7 @@ public class CreateOrder {
                     totalPrice2 = priceTotal + table[i].getPrice();
                     // if the amount bases + bulbs found is equal to max amount pieces needed to make order
                     if(bCount+lCount == number*2){
-                        prices.add(totalPrice2); // add total price of combination to prices ArrayList
-                        combinations.add(alreadyHit2); // add the indexes of the combined lamps to the combinations ArrayList
+                        recordCombination(totalPrice2, alreadyHit2); // keep the combination if it is the cheapest so far
                         lowest = getLowestPrice(); // Update lowest lamp price
                         return lowest; // return updated lowest price
                     }
@@ -564,4 +818,98 @@ public class CreateOrder {
         }
         return lowest; // return updated lowest price.
     }
+
+    /**
+     * stackPrice runs the same search as chairPrice, deskPrice, filingPrice and lampPrice: it tries the rows of the type
+     * in the same order, counts the same pieces, stops a level as soon as one of its rows completes the order and hands
+     * the same combinations to recordCombination, so it keeps the same lowest combination. The recursion is replaced by
+     * an int stack of the row taken, the next row to try, the price sum and the pieces found at each depth, and the rows
+     * on the current path are a bitset instead of a copied ArrayList scanned by newEvent, so no object is created per
+     * search node. A combination is only copied into an ArrayList when recordCombination would keep it.
+     * @param view compact view of the category, its rows in the same order as the database furniture array
+     * @param type // furniture type
+     * @param number // number of desired furniture items
+     * @return lowest price found, 0 if no combination was found
+     */
+    public int stackPrice(InventoryView view, String type, int number){
+        int n = view.size();
+        int components = view.getComponents();
+        long[] matching = new long[(n + 63) / 64]; // rows of the desired type
+        for(int i = 0; i < n; i++){
+            if(view.getType(i).equals(type)){
+                matching[i >> 6] |= 1L << i;
+            }
+        }
+        long[] visited = new long[matching.length]; // rows on the current path, alreadyHit in the recursive searches
+        int[] path = new int[n + 1]; // row taken at each depth
+        int[] next = new int[n + 1]; // next row to try at each depth, the loop index of the recursive searches
+        int[] prices = new int[n + 1]; // price sum at each depth
+        int[] counts = new int[(n + 2) * components]; // pieces of each component found at each depth
+        int depth = 0;
+        while(depth >= 0){
+            int i = next[depth];
+            while(i < n && ((matching[i >> 6] >>> i & 1) == 0 || (visited[i >> 6] >>> i & 1) != 0)){
+                i++;
+            }
+            if(i == n){ // every row tried at this depth, return to the level above
+                depth--;
+                if(depth >= 0){
+                    visited[path[depth] >> 6] &= ~(1L << path[depth]);
+                }
+                continue;
+            }
+            next[depth] = i + 1;
+            path[depth] = i;
+            int here = depth * components;
+            int pieces = 0; // pieces found over every component with the row taken
+            for(int c = 0; c < components; c++){
+                int count = counts[here + c];
+                if((view.getMask(i) >> c & 1) != 0 && count < number){ // only count pieces that are still needed
+                    count++;
+                }
+                counts[here + components + c] = count;
+                pieces += count;
+            }
+            int price = prices[depth] + view.getPrice(i);
+            if(pieces == number * components){
+                recordCombination(price, path, depth + 1); // keep the combination if it is the cheapest so far
+                depth--; // the recursive searches return as soon as a combination is complete
+                if(depth >= 0){
+                    visited[path[depth] >> 6] &= ~(1L << path[depth]);
+                }
+                continue;
+            }
+            visited[i >> 6] |= 1L << i;
+            depth++;
+            prices[depth] = price;
+            next[depth] = 0;
+        }
+        return getLowestPrice();
+    }
+
+    /**
+     * One combination kept by recordCombination. Ordered so the most expensive, and among equal prices the most
+     * recently found, combination is at the head of the runnersUp queue and is the first one dropped.
+     */
+    private static class RankedCombination implements Comparable<RankedCombination> {
+        private final int price; // price sum of the combination
+        private final long order; // position of the combination in the order the search found them
+        private final ArrayList<Integer> indexes; // indexes in the order the search took them
+        private final ArrayList<Integer> set; // the same indexes sorted
+
+        RankedCombination(int price, long order, ArrayList<Integer> indexes, ArrayList<Integer> set) {
+            this.price = price;
+            this.order = order;
+            this.indexes = indexes;
+            this.set = set;
+        }
+
+        @Override
+        public int compareTo(RankedCombination other) {
+            if (this.price != other.price) {
+                return Integer.compare(other.price, this.price);
+            }
+            return Long.compare(other.order, this.order);
+        }
+    }
 }
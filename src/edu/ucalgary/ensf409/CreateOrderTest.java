@@ -48,6 +48,69 @@ public class CreateOrderTest
         Assert.assertEquals("Not the lowest price possible which is 0 since 0 items were ordered",expected, actual);
     }
 
+    /**
+     * testTopCombinations() searches a small Standing desk table keeping the two cheapest combinations. The lowest
+     * combination must be the first one listed, and the same desks reached in another order must only be kept once.
+     */
+    @Test
+    public void testTopCombinations()
+    {
+        Desk[] desks = {
+                new Desk("D0001", "Standing", "Y", "Y", "N", 100, "001"),
+                new Desk("D0002", "Standing", "N", "N", "Y", 50, "001"),
+                new Desk("D0003", "Standing", "Y", "Y", "Y", 300, "001"),
+                new Desk("D0004", "Standing", "N", "Y", "Y", 120, "001")
+        };
+        testCreateOrder.setTopK(2);
+
+        int lowest = testCreateOrder.deskPrice(desks, 0, new ArrayList<Integer>(), "Standing", 1, 0, 0, 0);
+        ArrayList<SolverResult> top = testCreateOrder.getTopCombinations();
+
+        Assert.assertEquals("Lowest price should be 150", 150, lowest);
+        Assert.assertEquals("Two combinations should be kept", 2, top.size());
+        Assert.assertEquals("Cheapest kept combination should be the lowest", 150, top.get(0).getPrice());
+        Assert.assertEquals("Lowest combination should be desks 0 and 1", Arrays.asList(0, 1), testCreateOrder.getLowestCombination());
+        Assert.assertEquals("Runner up should be desk 2 alone", Arrays.asList(2), top.get(1).getIndexes());
+    }
+
+    /**
+     * testStackPriceMatchesRecursion() runs deskPrice and stackPrice on the same Adjustable desks, keeping the three
+     * cheapest combinations. Both must count the same combinations and keep the same lowest and runner up
+     * combinations, in the same order.
+     */
+    @Test
+    public void testStackPriceMatchesRecursion()
+    {
+        Desk[] desks = {
+                new Desk("D4475", "Adjustable", "N", "Y", "Y", 200, "002"),
+                new Desk("D0890", "Traditional", "N", "N", "Y", 25, "002"),
+                new Desk("D7373", "Adjustable", "Y", "Y", "N", 350, "005"),
+                new Desk("D2746", "Adjustable", "Y", "N", "Y", 250, "004"),
+                new Desk("D4231", "Adjustable", "N", "Y", "Y", 50, "005"),
+                new Desk("D1030", "Adjustable", "Y", "N", "N", 150, "002"),
+                new Desk("D5437", "Adjustable", "Y", "N", "N", 200, "001"),
+                new Desk("D3682", "Adjustable", "N", "N", "Y", 50, "005")
+        };
+        for (int number = 1; number <= 2; number++) {
+            testCreateOrder.setTopK(3);
+            int recursive = testCreateOrder.deskPrice(desks, 0, new ArrayList<Integer>(), "Adjustable", number, 0, 0, 0);
+            ArrayList<Integer> recursiveLowest = testCreateOrder.getLowestCombination();
+            long recursiveFound = testCreateOrder.getCombinationsFound();
+            ArrayList<SolverResult> recursiveTop = testCreateOrder.getTopCombinations();
+            testCreateOrder.setTopK(3);
+            int stack = testCreateOrder.stackPrice(InventoryView.ofDesks(desks), "Adjustable", number);
+
+            Assert.assertEquals("Stack search price differs for " + number + " desks", recursive, stack);
+            Assert.assertEquals("Stack search should keep the same combination", recursiveLowest, testCreateOrder.getLowestCombination());
+            Assert.assertEquals("Stack search should count the same combinations", recursiveFound, testCreateOrder.getCombinationsFound());
+            ArrayList<SolverResult> stackTop = testCreateOrder.getTopCombinations();
+            Assert.assertEquals("Stack search should keep as many runners up", recursiveTop.size(), stackTop.size());
+            for (int k = 0; k < stackTop.size(); k++) {
+                Assert.assertEquals("Runner up " + k + " differs", recursiveTop.get(k).getIndexes(), stackTop.get(k).getIndexes());
+            }
+        }
+    }
+
     @Test
     //Check to make sure file paths are created as intended
     public void testCreatePath() {
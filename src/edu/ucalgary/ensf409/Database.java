@@ -10,6 +10,9 @@ package edu.ucalgary.ensf409;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.TreeSet;
 
 /**
  * This class contains data for Database object. It stores the attributes used for accessing the SQL database, as well as local copies of the data in arrays.
@@ -25,8 +28,38 @@ public class Database {
     private Filing[] filings; //create array that stores filings
     private Lamp[] lamps; //create array that stores lamps
     private Manufacturer[] manufacturers; //create array that stores manufacturers
-    private Connection dbConnect; //create new connection object
+    private InventoryView chairView; //compact copy of the chairs array used by the solvers
+    private InventoryView deskView; //compact copy of the desks array used by the solvers
+    private InventoryView filingView; //compact copy of the filings array used by the solvers
+    private InventoryView lampView; //compact copy of the lamps array used by the solvers
+    private ConnectionPool pool; //connections to the database, made on first use
+    private int poolSize = ConnectionPool.DEFAULT_SIZE; //connections the pool keeps open at most
+    private final boolean[] loaded = new boolean[4]; //true once a category was loaded, until invalidate
+    private final String[] loadedTypes = new String[4]; //type each category array holds, null for every row
+    private boolean mansLoaded; //true once the manufacturers were loaded, until invalidate
+    /** Rows the driver is asked to fetch at a time while loading a table when none is set */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+    private int fetchSize = DEFAULT_FETCH_SIZE; //rows the driver is asked to fetch at a time while loading a table
     private ResultSet results; //create new ResultSet object
+    private long inventoryVersion; //changes whenever the local arrays are changed or pushed to the database
+    private boolean unpushedChanges; //true when the local arrays were changed since the last push
+    private final long[] loadVersions = new long[4]; //changes whenever a category array is loaded or reloaded
+    private final HashMap<String, Long> typeChanges = new HashMap<String, Long>(); //local changes to the rows of each category and type
+    private static final String[] TABLES = {"DESK", "CHAIR", "FILING", "LAMP"}; //table of each category indicator
+    private static final String[][] COLUMNS = { //columns of each table after ID, in the order bindRow sets them
+            {"Type", "Legs", "Top", "Drawer", "Price", "ManuID"},
+            {"Type", "Legs", "Arms", "Seat", "Cushion", "Price", "ManuID"},
+            {"Type", "Rails", "Drawers", "Cabinet", "Price", "ManuID"},
+            {"Type", "Base", "Bulb", "Price", "ManuID"}};
+    private final String[][] storedIds = new String[4][]; //ID each row has in the database table, from the last load or push
+    private final ArrayList<TreeSet<Integer>> dirtyRows = new ArrayList<TreeSet<Integer>>(); //rows of each table changed since then
+    /** Rows sent to the database in each batch of a push when none is set */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    private int batchSize = DEFAULT_BATCH_SIZE; //rows sent to the database in each batch of a push
+    private int lastPushRows; //rows written by the last push
+    private long lastPushNanos; //time the last push took
+    private long pushedRows; //rows written by every push
+    private long pushNanos; //time every push took
 
     /**
      Constructor for Database object
@@ -39,131 +72,411 @@ public class Database {
         this.DBURL = DBURL;
         this.USERNAME = USERNAME;
         this.PASSWORD = PASSWORD;
+        for(int i = 0; i < TABLES.length; i++){
+            dirtyRows.add(new TreeSet<Integer>());
+        }
     }
 
     /**
      *  method tries to make a connection with the database URL and if the connection is not made,
-     *  then the SQL exception is caught.
+     *  then the SQL exception is caught. The connection is kept in the pool, so calling it again reuses the pool's
+     *  connections instead of opening a new one each time.
      */
     public void initializeConnection() {
+        Connection connection = null;
         try {
-            dbConnect = DriverManager.getConnection(this.getDburl(), this.getUserName(),this.getPassword()); //initialize connections
+            connection = borrowConnection(); //opens the first connection of the pool, or checks an idle one
         }
         catch (SQLException ex) {
             ex.printStackTrace();
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     This method borrows a connection from the pool, making the pool on first use. Every borrow must be given back with
+     releaseConnection.
+     @return open connection to the database
+     @throws SQLException if no connection can be opened or none is returned in time
+     */
+    private Connection borrowConnection() throws SQLException {
+        return getPool().borrow();
+    }
+
+    /**
+     This method gives a borrowed connection back to the pool.
+     @param connection connection from borrowConnection or getdbConnect, or null if the borrow failed
+     */
+    public void releaseConnection(Connection connection){
+        if(connection != null){
+            getPool().release(connection);
         }
     }
     /**
      This method populates the chairs array using the updated data contained within the database.
      */
     public void updateChairs(){
-        ResultSet result; //create new ResultSet object
-        this.chairs = new Chair[this.countRows("CHAIR")]; //initialize chairs array
-        int counter = 0; //set row counter to 0;
-        try {
-            Statement myStmt = dbConnect.createStatement(); //create new statement
-            result = myStmt.executeQuery("SELECT * FROM CHAIR"); //execute statement select all from Chair table
-            while(result.next()) { //run while next row exists
-                Chair temp = new Chair(result.getString("ID"), result.getString("Type"),
-                        result.getString ("Legs"), result.getString ("Arms"),
-                        result.getString ("Seat"),result.getString ("Cushion"),
-                        result.getInt ("Price"), result.getString ("ManuID")); //populate the temporary chair
-                chairs[counter] = temp; //load temp into array
-                counter++; //increment the counter
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-        }
+        loadChairs(null);
     }
 
     /**
      This method populates the desks array using the updated data contained within the database.
      */
     public void updateDesks(){
-        ResultSet result; //create new ResultSet object
-        this.desks = new Desk[this.countRows("DESK")]; //initialize desks array
-        int counter = 0; //set row counter to 0
-        try {
-            Statement myStmt = dbConnect.createStatement(); //create and initialize statement
-            result = myStmt.executeQuery("SELECT * FROM DESK"); //execute statement select all from DDesk
-            while(result.next()) {
-                Desk temp = new Desk(result.getString("ID"), result.getString("Type"),
-                        result.getString ("Legs"), result.getString ("Top"),
-                        result.getString ("Drawer"), result.getInt ("Price"),
-                        result.getString ("ManuID")); //populate temp desk object
-                desks[counter] = temp; //update desks array with new object
-                counter++; //increment the counter
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-        }
+        loadDesks(null);
     }
 
     /**
      This method populates the filings array using the updated data contained within the database.
      */
     public void updateFilings(){
-        ResultSet result; //create new ResultSet object
-        this.filings = new Filing[this.countRows("FILING")]; //initialize filings array
-        int counter = 0; //set row counter to 0
-        try {
-            Statement myStmt = dbConnect.createStatement(); //create and initialize statement
-            result = myStmt.executeQuery("SELECT * FROM FILING"); //execute statement select all from Filing table
-            while(result.next()) {
-                Filing temp = new Filing(result.getString("ID"), result.getString("Type"),
-                        result.getString ("Rails"), result.getString ("Drawers"),
-                        result.getString ("Cabinet"), result.getInt ("Price"),
-                        result.getString ("ManuID")); //create temp Filing object
-                filings[counter] = temp; //update the filings array with temp Filing
-                counter++; //increment counter
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-        }
+        loadFilings(null);
     }
 
     /**
      This method populates the lamps array using the updated data contained within the database.
      */
     public void updateLamps(){
-        ResultSet result; //create new ResultSet obejct
-        this.lamps = new Lamp[this.countRows("LAMP")]; //initialize lamps array
-        int counter = 0; //set row counter to 0
-        try {
-            Statement myStmt = dbConnect.createStatement(); //create and initialize statement
-            result = myStmt.executeQuery("SELECT * FROM LAMP"); //execute statement SELECT * FROM Lamp
-            while(result.next()) {
-                Lamp temp = new Lamp(result.getString("ID"), result.getString("Type"),
-                        result.getString ("Base"), result.getString ("Bulb"),
-                        result.getInt ("Price"), result.getString ("ManuID")); //create Temp lamp object
-                lamps[counter] = temp; //update lamps array with Lamp temp
-                counter++;
+        loadLamps(null);
+    }
+
+    /**
+     This method loads the chairs of one type, or every chair. The Type column is only read when every chair is loaded.
+     @param type furniture type to load, null for every row
+     @return true if the chairs were read, false if the read failed and the array was kept
+     */
+    private boolean loadChairs(String type){
+        ArrayList<Chair> rows = loadRows("SELECT ID,Legs,Arms,Seat,Cushion,Price,ManuID" + typeColumn(type) + " FROM CHAIR", type,
+                result -> new Chair(result.getString(1), typeOf(result, 8, type), result.getString(2), result.getString(3),
+                        result.getString(4), result.getString(5), result.getInt(6), result.getString(7))); //read the chairs
+        if(rows == null){ //the read failed, keep the rows read before and write none of them back
+            keepRows(1);
+            return false;
+        }
+        this.chairs = rows.toArray(new Chair[0]); //the array holds exactly the rows read
+        InventoryView previous = sameScope(1, type) ? this.chairView : null; //view of the same rows from the last load
+        int logged = previous == null ? 0 : previous.getChangeCount();
+        this.chairView = InventoryView.ofChairs(chairs, previous); //encode the rows for the solvers, logging what changed since the last load of the same rows
+        loaded(1, type, previous, logged);
+        return true;
+    }
+
+    /**
+     This method loads the desks of one type, or every desk. The Type column is only read when every desk is loaded.
+     @param type furniture type to load, null for every row
+     @return true if the desks were read, false if the read failed and the array was kept
+     */
+    private boolean loadDesks(String type){
+        ArrayList<Desk> rows = loadRows("SELECT ID,Legs,Top,Drawer,Price,ManuID" + typeColumn(type) + " FROM DESK", type,
+                result -> new Desk(result.getString(1), typeOf(result, 7, type), result.getString(2), result.getString(3),
+                        result.getString(4), result.getInt(5), result.getString(6))); //read the desks
+        if(rows == null){ //the read failed, keep the rows read before and write none of them back
+            keepRows(0);
+            return false;
+        }
+        this.desks = rows.toArray(new Desk[0]); //the array holds exactly the rows read
+        InventoryView previous = sameScope(0, type) ? this.deskView : null; //view of the same rows from the last load
+        int logged = previous == null ? 0 : previous.getChangeCount();
+        this.deskView = InventoryView.ofDesks(desks, previous); //encode the rows for the solvers, logging what changed since the last load of the same rows
+        loaded(0, type, previous, logged);
+        return true;
+    }
+
+    /**
+     This method loads the filings of one type, or every filing. The Type column is only read when every filing is
+     loaded.
+     @param type furniture type to load, null for every row
+     @return true if the filings were read, false if the read failed and the array was kept
+     */
+    private boolean loadFilings(String type){
+        ArrayList<Filing> rows = loadRows("SELECT ID,Rails,Drawers,Cabinet,Price,ManuID" + typeColumn(type) + " FROM FILING", type,
+                result -> new Filing(result.getString(1), typeOf(result, 7, type), result.getString(2), result.getString(3),
+                        result.getString(4), result.getInt(5), result.getString(6))); //read the filings
+        if(rows == null){ //the read failed, keep the rows read before and write none of them back
+            keepRows(2);
+            return false;
+        }
+        this.filings = rows.toArray(new Filing[0]); //the array holds exactly the rows read
+        InventoryView previous = sameScope(2, type) ? this.filingView : null; //view of the same rows from the last load
+        int logged = previous == null ? 0 : previous.getChangeCount();
+        this.filingView = InventoryView.ofFilings(filings, previous); //encode the rows for the solvers, logging what changed since the last load of the same rows
+        loaded(2, type, previous, logged);
+        return true;
+    }
+
+    /**
+     This method loads the lamps of one type, or every lamp. The Type column is only read when every lamp is loaded.
+     @param type furniture type to load, null for every row
+     @return true if the lamps were read, false if the read failed and the array was kept
+     */
+    private boolean loadLamps(String type){
+        ArrayList<Lamp> rows = loadRows("SELECT ID,Base,Bulb,Price,ManuID" + typeColumn(type) + " FROM LAMP", type,
+                result -> new Lamp(result.getString(1), typeOf(result, 6, type), result.getString(2), result.getString(3),
+                        result.getInt(4), result.getString(5))); //read the lamps
+        if(rows == null){ //the read failed, keep the rows read before and write none of them back
+            keepRows(3);
+            return false;
+        }
+        this.lamps = rows.toArray(new Lamp[0]); //the array holds exactly the rows read
+        InventoryView previous = sameScope(3, type) ? this.lampView : null; //view of the same rows from the last load
+        int logged = previous == null ? 0 : previous.getChangeCount();
+        this.lampView = InventoryView.ofLamps(lamps, previous); //encode the rows for the solvers, logging what changed since the last load of the same rows
+        loaded(3, type, previous, logged);
+        return true;
+    }
+
+    /**
+     This method makes sure the local array of a category holds every row of a type, loading only that type from the
+     database when it does not. Rows loaded since the last invalidate are reused, whether they are every row of the
+     category or the rows of this type. Changed rows of the category are pushed first, so a reload cannot lose them.
+     If that push fails the array is kept, and if it holds the rows of another type the failure is reported rather than
+     letting an order search the wrong rows. If the read fails the rows read before are kept, and are only used if
+     they are of this type.
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @param type furniture type the next order asks for
+     @return true if the array holds the rows of the type, false if it still holds another type
+     */
+    public boolean loadCategory(int indicator, String type){
+        if(loaded[indicator] && holds(indicator, type)){
+            return true; //the array already holds every row of the type
+        }
+        if(!dirtyRows.get(indicator).isEmpty()){
+            pushLocal();
+            if(!dirtyRows.get(indicator).isEmpty()){ //the push failed, keep the changed rows
+                if(!holds(indicator, type)){
+                    System.err.println("The " + type + " rows of " + TABLES[indicator] + " cannot be read until "
+                            + dirtyRows.get(indicator).size() + " changed row(s) of " + loadedTypes[indicator] + " are pushed");
+                    return false;
+                }
+                return true; //the array holds every row of the type, with the changed rows
             }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
         }
+        return load(indicator, type) || holds(indicator, type);
+    }
+
+    /**
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @param type furniture type an order asks for
+     @return true if the array holds every row of the category or the rows of the type, possibly out of date
+     */
+    private boolean holds(int indicator, String type){
+        return loadedTypes[indicator] == null || loadedTypes[indicator].equals(type);
+    }
+
+    /**
+     Marks every category and the manufacturers as out of date, so each is read again from the database the next time
+     it is used rather than all at once. Changed rows not yet pushed are kept and still written by the next push.
+     */
+    public void invalidate(){
+        for(int indicator = 0; indicator < TABLES.length; indicator++){
+            loaded[indicator] = false;
+        }
+        mansLoaded = false;
+    }
+
+    /**
+     Replaces every local array with rows already in memory, as if every category and the manufacturers had just been
+     loaded from the database, so an order can be solved without a connection, e.g. by a test. A later push still
+     writes to the database.
+     @param desks every desk row
+     @param chairs every chair row
+     @param filings every filing row
+     @param lamps every lamp row
+     @param manufacturers every manufacturer row
+     */
+    void setLocal(Desk[] desks, Chair[] chairs, Filing[] filings, Lamp[] lamps, Manufacturer[] manufacturers){
+        this.desks = desks;
+        this.deskView = InventoryView.ofDesks(desks);
+        this.chairs = chairs;
+        this.chairView = InventoryView.ofChairs(chairs);
+        this.filings = filings;
+        this.filingView = InventoryView.ofFilings(filings);
+        this.lamps = lamps;
+        this.lampView = InventoryView.ofLamps(lamps);
+        for(int indicator = 0; indicator < TABLES.length; indicator++){
+            loaded(indicator, null, null, 0);
+        }
+        this.manufacturers = manufacturers;
+        mansLoaded = true;
+    }
+
+    /**
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @return type the local array of the category holds, null if it holds every row or was never loaded
+     */
+    public String getLoadedType(int indicator){
+        return loadedTypes[indicator];
+    }
+
+    /**
+     Loads a category into its local array.
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @param type furniture type to load, null for every row
+     @return true if the rows were read, false if the read failed and the array was kept
+     */
+    private boolean load(int indicator, String type){
+        switch(indicator){
+            case 0:
+                return loadDesks(type);
+            case 1:
+                return loadChairs(type);
+            case 2:
+                return loadFilings(type);
+            default:
+                return loadLamps(type);
+        }
+    }
+
+    /**
+     Keeps the local array of a category after a failed read. The category is not marked loaded, so the next use reads
+     it again. A category that was never read gets an empty array so orders can still be answered, but with no stored
+     IDs, so no push writes it back over rows it never saw.
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     */
+    private void keepRows(int indicator){
+        if(viewOf(indicator) != null){
+            return; //the rows read before are still the best copy of the table
+        }
+        switch(indicator){
+            case 0:
+                this.desks = new Desk[0];
+                this.deskView = InventoryView.ofDesks(desks);
+                break;
+            case 1:
+                this.chairs = new Chair[0];
+                this.chairView = InventoryView.ofChairs(chairs);
+                break;
+            case 2:
+                this.filings = new Filing[0];
+                this.filingView = InventoryView.ofFilings(filings);
+                break;
+            default:
+                this.lamps = new Lamp[0];
+                this.lampView = InventoryView.ofLamps(lamps);
+        }
+    }
+
+    /**
+     Loads every row of a category whose array was not loaded since the last invalidate. An array still holding
+     changed rows is kept, so they are not lost before the next push.
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     */
+    private void ensureLoaded(int indicator){
+        if(!loaded[indicator] && (dirtyRows.get(indicator).isEmpty() || viewOf(indicator) == null)){
+            load(indicator, null);
+        }
+    }
+
+    /**
+     Records that a category was loaded and that its table and array hold the same rows. The reloaded array may hold
+     other rows at the same indexes, so the inventory moves on to a new version, unless the reload refreshed the view
+     of the same rows in place, logged no change and read the same IDs in the same order. Then the array holds exactly
+     the rows it held before and everything computed from it, such as a cached quote, is still valid.
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @param type furniture type loaded, null for every row
+     @param previous view of the same rows before the load, null if there was none
+     @param logged changes that view had logged before the load
+     */
+    private void loaded(int indicator, String type, InventoryView previous, int logged){
+        loaded[indicator] = true;
+        loadedTypes[indicator] = type;
+        String[] before = storedIds[indicator];
+        stored(indicator); //the table and the array now hold the same rows
+        boolean same = previous != null && viewOf(indicator) == previous && previous.getChangeCount() == logged
+                && Arrays.equals(before, storedIds[indicator]);
+        if(!same){
+            inventoryVersion++; //indexes computed from the old array no longer name the same rows
+            loadVersions[indicator]++;
+        }
+    }
+
+    /**
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @param type furniture type about to be loaded, null for every row
+     @return true if the array holds the same rows as the load will, so its view can log the rows that changed
+     */
+    private boolean sameScope(int indicator, String type){
+        return type == null ? loadedTypes[indicator] == null : type.equals(loadedTypes[indicator]);
+    }
+
+    /**
+     @param type furniture type loaded, null for every row
+     @return the Type column to select after the others, none when the query is filtered by type
+     */
+    private static String typeColumn(String type){
+        return type == null ? ",Type" : "";
+    }
+
+    /**
+     @param result row being read
+     @param column position of the Type column when it is selected
+     @param type furniture type the query was filtered by, null if every row was selected
+     @return type of the row
+     @throws SQLException if the column cannot be read
+     */
+    private static String typeOf(ResultSet result, int column, String type) throws SQLException {
+        return type != null ? type : result.getString(column);
     }
 
     /**
      This method populates the manufacturers array using the updated data contained within the database.
      */
     public void updateMans(){
-        ResultSet result; //create new ResultSet
-        this.manufacturers = new Manufacturer[(this.countRows("MANUFACTURER"))]; //initialize manufacturers array
-        int counter = 0; //set row counter to 0
-        try {
-            Statement myStmt = dbConnect.createStatement(); //create and intiilize statement
-            result = myStmt.executeQuery("SELECT * FROM MANUFACTURER"); //execute statement select * from Manufacturer
-            while(result.next()) {
-                Manufacturer temp = new Manufacturer(result.getString("ManuID"),
-                        result.getString("Name"), result.getString ("Phone"),
-                        result.getString ("Province")); //create temp manufacturer object
-                manufacturers[counter] = temp; //update manufacturers array
-                counter++; //increment the counter
+        ArrayList<Manufacturer> rows = loadRows("SELECT ManuID,Name,Phone,Province FROM MANUFACTURER", null,
+                result -> new Manufacturer(result.getString(1), result.getString(2), result.getString(3),
+                        result.getString(4))); //read every manufacturer
+        if(rows == null){ //the read failed, keep the manufacturers read before
+            if(this.manufacturers == null){
+                this.manufacturers = new Manufacturer[0];
             }
+            return;
+        }
+        this.manufacturers = rows.toArray(new Manufacturer[0]); //the array holds exactly the rows read
+        mansLoaded = true;
+    }
+
+    /**
+     Makes one object from the current row of a query, reading its columns by position.
+     */
+    private interface RowReader<T> {
+        T read(ResultSet result) throws SQLException;
+    }
+
+    /**
+     This method reads every row of a query, or those of one type, in one pass. The rows go into a list that grows as they arrive, so no
+     count(*) query is needed first and a table that changes between the two cannot overflow an array sized by the
+     count. The query names its columns, so each row is read by column position rather than looking its names up. The
+     statement asks the driver for fetchSize rows at a time, so a large table can be streamed rather than held by the
+     driver all at once. If the query fails the error is printed and the rows read so far are dropped, so the caller
+     keeps the rows it read before rather than taking a partial table as the whole one.
+     @param query SELECT naming the columns in the order the reader takes them
+     @param type furniture type to keep with WHERE Type=?, null for every row
+     @param reader makes one object from a row
+     @return objects made from the rows, in the order the database returned them, null if the query failed
+     */
+    private <T> ArrayList<T> loadRows(String query, String type, RowReader<T> reader){
+        ArrayList<T> rows = new ArrayList<T>();
+        Connection connection = null; //borrowed from the pool for this query
+        try {
+            connection = borrowConnection();
+            try (PreparedStatement myStmt = connection.prepareStatement(type == null ? query : query + " WHERE Type=?")) {
+                if(type != null){
+                    myStmt.setString(1, type); //the database filters the rows, so only the type is sent
+                }
+                myStmt.setFetchSize(fetchSize);
+                ResultSet result = myStmt.executeQuery();
+                while(result.next()) { //run while next row exists
+                    rows.add(reader.read(result));
+                }
+            } //closing the statement closes its results before the connection is reused
         } catch (SQLException ex) {
             ex.printStackTrace();
+            return null;
+        } finally {
+            releaseConnection(connection);
         }
+        return rows;
     }
 
     /**
@@ -171,30 +484,9 @@ public class Database {
      */
     public void sendChair(){
         try {
-            Statement statement = dbConnect.createStatement(); //create and initialize statement
-            statement.executeUpdate("TRUNCATE CHAIR"); //remove old entries from Chair table
-            String query; //create new query
-
-            //create a loop to update each entry in the Table from the Chairs array
-            for(int i = 0; i < chairs.length; i++){
-                query = "INSERT INTO CHAIR (ID,Type,Legs,Arms,Seat,Cushion,Price,ManuID) VALUES (?,?,?,?,?,?,?,?)";
-                PreparedStatement myStmt = dbConnect.prepareStatement(query); //generate query for each loop iteration
-
-                //populate all required table fields
-                myStmt.setString(1, chairs[i].getId());
-                myStmt.setString(2, chairs[i].getType());
-                myStmt.setString(3, chairs[i].getLegs());
-                myStmt.setString(4, chairs[i].getArms());
-                myStmt.setString(5, chairs[i].getSeat());
-                myStmt.setString(6, chairs[i].getCushion());
-                myStmt.setInt(7, chairs[i].getPrice());
-                myStmt.setString(8, chairs[i].getManuId());
-
-                myStmt.execute(); //execute the statement
-                myStmt.close(); //close the statement
-            }
+            sendTables(1); //rewrite the table in one transaction
         } catch (SQLException e) {
-
+            e.printStackTrace();
         }
     }
 
@@ -203,29 +495,9 @@ public class Database {
      */
     public void sendDesk(){
         try {
-            Statement statement = dbConnect.createStatement(); //create and initialize statement
-            statement.executeUpdate("TRUNCATE DESK"); //remove old entries from Desk table
-            String query; //create new query
-
-            //create a loop to update each entry in the Table from the desks array
-            for(int i = 0; i < desks.length; i++){
-                query = "INSERT INTO DESK (ID,Type,Legs,Top,Drawer,Price,ManuID) VALUES (?,?,?,?,?,?,?)";
-                PreparedStatement myStmt = dbConnect.prepareStatement(query); //generate query for each loop iteration
-
-                //populate all required table fields
-                myStmt.setString(1, desks[i].getId());
-                myStmt.setString(2, desks[i].getType());
-                myStmt.setString(3, desks[i].getLegs());
-                myStmt.setString(4, desks[i].getTop());
-                myStmt.setString(5, desks[i].getDrawer());
-                myStmt.setInt(6, desks[i].getPrice());
-                myStmt.setString(7, desks[i].getManuId());
-
-                myStmt.execute(); //execute query
-                myStmt.close(); //close statement
-            }
+            sendTables(0); //rewrite the table in one transaction
         } catch (SQLException e) {
-
+            e.printStackTrace();
         }
     }
 
@@ -234,29 +506,9 @@ public class Database {
      */
     public void sendFiling(){
         try {
-            Statement statement = dbConnect.createStatement(); //create a loop to update each entry in the Table from the Chairs array
-            statement.executeUpdate("TRUNCATE FILING"); //remove all old entries from Filing table
-            String query; //create new query
-
-            //create a loop to update each entry in the Table from the Filings array
-            for(int i = 0; i < filings.length; i++){
-                query = "INSERT INTO FILING (ID,Type,Rails,Drawers,Cabinet,Price,ManuID) VALUES (?,?,?,?,?,?,?)";
-                PreparedStatement myStmt = dbConnect.prepareStatement(query); //generate query for each loop iteration
-
-                //populate all required table fields
-                myStmt.setString(1, filings[i].getId());
-                myStmt.setString(2, filings[i].getType());
-                myStmt.setString(3, filings[i].getRails());
-                myStmt.setString(4, filings[i].getDrawers());
-                myStmt.setString(5, filings[i].getCabinet());
-                myStmt.setInt(6, filings[i].getPrice());
-                myStmt.setString(7, filings[i].getManuId());
-
-                myStmt.execute(); //execute query
-                myStmt.close(); //close statement
-            }
+            sendTables(2); //rewrite the table in one transaction
         } catch (SQLException e) {
-
+            e.printStackTrace();
         }
     }
 
@@ -265,28 +517,9 @@ public class Database {
      */
     public void sendLamp(){
         try {
-            Statement statement = dbConnect.createStatement(); //create and initialize statement
-            statement.executeUpdate("TRUNCATE LAMP"); //remove old entries from Lamp table
-            String query; //create new query
-
-            //create a loop to update each entry in the Table from the Lamps array
-            for(int i = 0; i < lamps.length; i++){
-                query = "INSERT INTO LAMP (ID,Type,Base,Bulb,Price,ManuID) VALUES (?,?,?,?,?,?)";
-                PreparedStatement myStmt = dbConnect.prepareStatement(query); //generate query for each loop iteration
-
-                //populate all required table fields
-                myStmt.setString(1, lamps[i].getId());
-                myStmt.setString(2, lamps[i].getType());
-                myStmt.setString(3, lamps[i].getBase());
-                myStmt.setString(4, lamps[i].getBulb());
-                myStmt.setInt(5, lamps[i].getPrice());
-                myStmt.setString(6, lamps[i].getManuId());
-
-                myStmt.execute(); //execute the query
-                myStmt.close(); //close the statement
-            }
+            sendTables(3); //rewrite the table in one transaction
         } catch (SQLException e) {
-
+            e.printStackTrace();
         }
     }
     /**
@@ -301,13 +534,421 @@ public class Database {
     }
 
     /**
-     This pushes all the local data from the Java arrays to the database at once.
+     This pushes the local data from the Java arrays to the database at once. Only the rows changed by updateTable and
+     the set*Row methods since the tables were loaded or last pushed are written, see pushChanges. If the push fails it
+     is reported and the rows stay marked, so the next push writes them.
+     @return true if the database now holds every changed row, false if the push failed
      */
-    public void pushLocal(){
-        sendChair();
-        sendDesk();
-        sendFiling();
-        sendLamp();
+    public boolean pushLocal(){
+        try {
+            pushChanges();
+        } catch (SQLException ex) {
+            System.err.println("Push to the database failed, " + unpushedRows() + " changed row(s) kept for the next push");
+            ex.printStackTrace();
+            return false;
+        }
+        if(unpushedChanges){ // the database now holds the changed rows
+            inventoryVersion++;
+            unpushedChanges = false;
+        }
+        return true;
+    }
+
+    /**
+     This pushes every row of the four local arrays to the database, replacing what the tables held, in one
+     transaction. See sendTables.
+     @throws SQLException if a statement fails, after the transaction is rolled back
+     */
+    public void pushAll() throws SQLException {
+        sendTables(0, 1, 2, 3);
+        if(unpushedChanges){ // the database now holds the changed rows
+            inventoryVersion++;
+            unpushedChanges = false;
+        }
+    }
+
+    /**
+     This method replaces the rows of the given tables with every row of their local arrays, in one transaction. The
+     old rows are removed with DELETE rather than TRUNCATE, which would commit on its own, and the INSERT of each table
+     is prepared once and sent in batches of batchSize rows. A category loaded for one type only replaces the rows of
+     that type, so the rows it never read are kept, and a category never loaded is left alone. If a statement fails the
+     transaction is rolled back, so every table keeps its old rows.
+     @param indicators 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @throws SQLException if a statement fails, after the transaction is rolled back
+     */
+    private void sendTables(int... indicators) throws SQLException {
+        long start = System.nanoTime();
+        int written = 0;
+        Connection connection = borrowConnection(); //one connection holds the transaction
+        boolean autoCommit = true;
+        try {
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false); //every table is written or none is
+            for(int indicator : indicators){
+                if(storedIds[indicator] == null){
+                    continue; //nothing was read, so there is nothing to write back
+                }
+                String scope = loadedTypes[indicator] == null ? "" : " WHERE Type=?"; //only the rows the array was loaded from
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + TABLES[indicator] + scope);
+                     PreparedStatement insert = connection.prepareStatement(insertQuery(indicator))) {
+                    if(loadedTypes[indicator] != null){
+                        delete.setString(1, loadedTypes[indicator]);
+                    }
+                    delete.executeUpdate(); //remove old entries from the table
+                    ArrayList<Integer> rows = new ArrayList<Integer>();
+                    for(int row = 0; row < viewOf(indicator).size(); row++){
+                        rows.add(row);
+                    }
+                    executeBatches(insert, indicator, rows, false);
+                    written += rows.size();
+                }
+            }
+            connection.commit();
+        } catch (SQLException ex) {
+            rollback(connection);
+            throw ex;
+        } finally {
+            restore(connection, autoCommit);
+        }
+        for(int indicator : indicators){
+            if(storedIds[indicator] != null){
+                stored(indicator); //the table now holds every row of the array
+            }
+        }
+        recordPush(written, System.nanoTime() - start);
+    }
+
+    /**
+     This method writes the changed rows of every table to the database in one transaction, instead of replacing every
+     row as the send methods do. A changed row is updated in place by its ID. If its ID was changed too, the row stored
+     under the old ID is deleted and the new row inserted, and a row the update cannot find is inserted. The deletes run
+     before any insert so IDs that moved between rows do not collide. Each statement is prepared once per table and sent
+     in batches of batchSize rows. If a statement fails the transaction is rolled back and the rows stay marked, so the
+     next push tries them again.
+     @throws SQLException if a statement fails, after the transaction is rolled back
+     */
+    public void pushChanges() throws SQLException {
+        if(unpushedRows() == 0){
+            return;
+        }
+        long start = System.nanoTime();
+        int written = 0;
+        Connection connection = borrowConnection(); //one connection holds the transaction
+        boolean autoCommit = true;
+        try {
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false); //every table is written or none is
+            for(int indicator = 0; indicator < TABLES.length; indicator++){
+                written += writeRows(connection, indicator);
+            }
+            connection.commit();
+        } catch (SQLException ex) {
+            rollback(connection);
+            throw ex;
+        } finally {
+            restore(connection, autoCommit);
+        }
+        for(int indicator = 0; indicator < TABLES.length; indicator++){
+            for(int row : dirtyRows.get(indicator)){
+                if(storedIds[indicator] != null){
+                    storedIds[indicator][row] = idOf(indicator, row); //the row is now stored under its current ID
+                }
+            }
+            dirtyRows.get(indicator).clear();
+        }
+        recordPush(written, System.nanoTime() - start);
+    }
+
+    /**
+     This method writes the changed rows of one table, inside the transaction of pushChanges.
+     @param connection connection holding the transaction
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @return number of rows written
+     @throws SQLException if a statement fails
+     */
+    private int writeRows(Connection connection, int indicator) throws SQLException {
+        TreeSet<Integer> rows = dirtyRows.get(indicator);
+        if(rows.isEmpty()){
+            return 0;
+        }
+        String table = TABLES[indicator];
+        String set = String.join("=?,", COLUMNS[indicator]) + "=?"; //Type=?,Legs=?,...,ManuID=?
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + table + " WHERE ID=?");
+             PreparedStatement update = connection.prepareStatement("UPDATE " + table + " SET " + set + " WHERE ID=?");
+             PreparedStatement insert = connection.prepareStatement(insertQuery(indicator))) {
+            ArrayList<Integer> moved = new ArrayList<Integer>(); //rows whose ID changed, inserted after every delete
+            ArrayList<Integer> kept = new ArrayList<Integer>(); //rows still stored under their ID, updated in place
+            for(int row : rows){
+                String stored = storedIds[indicator] == null ? null : storedIds[indicator][row];
+                if(stored != null && !stored.equals(idOf(indicator, row))){
+                    moved.add(row);
+                }
+                else{
+                    kept.add(row);
+                }
+            }
+            executeBatches(delete, indicator, moved, true);
+            moved.addAll(executeBatches(update, indicator, kept, false)); //the table does not hold these, so add them
+            executeBatches(insert, indicator, moved, false);
+        }
+        return rows.size();
+    }
+
+    /**
+     This method runs a prepared statement once for each of the given rows, batchSize rows to a batch.
+     @param statement DELETE with the ID as its only parameter, or an UPDATE or INSERT set by bindRow then the ID
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @param rows row indexes in the local array
+     @param stored true to set the ID the row is stored under, for the DELETE, false to set the row and its current ID
+     @return rows whose statement changed no row of the table
+     @throws SQLException if a statement fails
+     */
+    private ArrayList<Integer> executeBatches(PreparedStatement statement, int indicator, ArrayList<Integer> rows,
+                                              boolean stored) throws SQLException {
+        ArrayList<Integer> missed = new ArrayList<Integer>();
+        for(int from = 0; from < rows.size(); from += batchSize){
+            int to = Math.min(rows.size(), from + batchSize);
+            for(int i = from; i < to; i++){
+                int row = rows.get(i);
+                if(stored){
+                    statement.setString(1, storedIds[indicator][row]);
+                }
+                else{
+                    statement.setString(bindRow(statement, indicator, row), idOf(indicator, row));
+                }
+                statement.addBatch();
+            }
+            int[] counts = statement.executeBatch();
+            for(int i = 0; i < counts.length; i++){
+                if(counts[i] == 0){ //SUCCESS_NO_INFO is negative, so only a statement known to miss is counted
+                    missed.add(rows.get(from + i));
+                }
+            }
+        }
+        return missed;
+    }
+
+    /**
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @return INSERT statement for one row of the table, the columns in the order bindRow sets them then the ID
+     */
+    private static String insertQuery(int indicator){
+        String[] columns = COLUMNS[indicator];
+        return "INSERT INTO " + TABLES[indicator] + " (" + String.join(",", columns) + ",ID) VALUES ("
+                + "?" + ",?".repeat(columns.length) + ")"; //one for each column and one for the ID
+    }
+
+    /**
+     Rolls back the open transaction after a failed statement. A failure to roll back is printed, so the statement's
+     own exception is the one thrown.
+     @param connection connection holding the transaction
+     */
+    private void rollback(Connection connection){
+        try {
+            connection.rollback();
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     Puts back the auto-commit mode of a connection after a transaction and returns it to the pool.
+     @param connection connection that held the transaction
+     @param autoCommit auto-commit mode it had before
+     */
+    private void restore(Connection connection, boolean autoCommit){
+        try {
+            connection.setAutoCommit(autoCommit);
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    /**
+     Adds a finished push to the totals behind getRowsPerSecond.
+     @param rows number of rows written
+     @param nanos time the push took, from the first statement to the commit
+     */
+    private void recordPush(int rows, long nanos){
+        lastPushRows = rows;
+        lastPushNanos = nanos;
+        pushedRows += rows;
+        pushNanos += nanos;
+    }
+
+    /**
+     @return number of changed rows of every table not yet pushed to the database
+     */
+    public int unpushedRows(){
+        int rows = 0;
+        for(TreeSet<Integer> changed : dirtyRows){
+            rows += changed.size();
+        }
+        return rows;
+    }
+
+    /**
+     @param batchSize rows sent to the database in each batch of a push
+     @throws IllegalArgumentException if batchSize is below 1
+     */
+    public void setBatchSize(int batchSize){
+        if(batchSize < 1){
+            throw new IllegalArgumentException("Batch size must be at least 1, was " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     Sets the rows the driver is asked to fetch at a time while loading a table. MySQL Connector/J only honours a
+     positive size when the URL sets useCursorFetch=true, and streams one row at a time for Integer.MIN_VALUE. Other
+     values leave the driver to read the whole table at once.
+     @param fetchSize rows to fetch at a time, 0 for the driver's default
+     @throws IllegalArgumentException if fetchSize is negative and not Integer.MIN_VALUE
+     */
+    public void setFetchSize(int fetchSize){
+        if(fetchSize < 0 && fetchSize != Integer.MIN_VALUE){
+            throw new IllegalArgumentException("Fetch size must be at least 0 or Integer.MIN_VALUE, was " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     @return rows the driver is asked to fetch at a time while loading a table
+     */
+    public int getFetchSize(){
+        return fetchSize;
+    }
+
+    /**
+     @return rows sent to the database in each batch of a push
+     */
+    public int getBatchSize(){
+        return batchSize;
+    }
+
+    /**
+     @return number of rows written by the last push, 0 before the first
+     */
+    public int getLastPushRows(){
+        return lastPushRows;
+    }
+
+    /**
+     @return rows written per second by the last push, 0 before the first
+     */
+    public double getLastRowsPerSecond(){
+        return lastPushNanos > 0 ? lastPushRows * 1e9 / lastPushNanos : 0;
+    }
+
+    /**
+     @return number of rows written by every push since the object was made
+     */
+    public long getPushedRows(){
+        return pushedRows;
+    }
+
+    /**
+     @return rows written per second over every push since the object was made, 0 before the first
+     */
+    public double getRowsPerSecond(){
+        return pushNanos > 0 ? pushedRows * 1e9 / pushNanos : 0;
+    }
+
+    /**
+     This method sets the columns of one row after its ID, in the order of COLUMNS, on a prepared statement.
+     @param statement statement whose first parameters are the columns of the row
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @param row row index in the local array
+     @return index of the parameter after the last column, where the ID goes
+     @throws SQLException if a parameter cannot be set
+     */
+    private int bindRow(PreparedStatement statement, int indicator, int row) throws SQLException {
+        switch(indicator){
+            case 0:
+                statement.setString(1, desks[row].getType());
+                statement.setString(2, desks[row].getLegs());
+                statement.setString(3, desks[row].getTop());
+                statement.setString(4, desks[row].getDrawer());
+                statement.setInt(5, desks[row].getPrice());
+                statement.setString(6, desks[row].getManuId());
+                return 7;
+            case 1:
+                statement.setString(1, chairs[row].getType());
+                statement.setString(2, chairs[row].getLegs());
+                statement.setString(3, chairs[row].getArms());
+                statement.setString(4, chairs[row].getSeat());
+                statement.setString(5, chairs[row].getCushion());
+                statement.setInt(6, chairs[row].getPrice());
+                statement.setString(7, chairs[row].getManuId());
+                return 8;
+            case 2:
+                statement.setString(1, filings[row].getType());
+                statement.setString(2, filings[row].getRails());
+                statement.setString(3, filings[row].getDrawers());
+                statement.setString(4, filings[row].getCabinet());
+                statement.setInt(5, filings[row].getPrice());
+                statement.setString(6, filings[row].getManuId());
+                return 7;
+            default:
+                statement.setString(1, lamps[row].getType());
+                statement.setString(2, lamps[row].getBase());
+                statement.setString(3, lamps[row].getBulb());
+                statement.setInt(4, lamps[row].getPrice());
+                statement.setString(5, lamps[row].getManuId());
+                return 6;
+        }
+    }
+
+    /**
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @param row row index in the local array
+     @return current ID of the row
+     */
+    private String idOf(int indicator, int row){
+        switch(indicator){
+            case 0:
+                return desks[row].getId();
+            case 1:
+                return chairs[row].getId();
+            case 2:
+                return filings[row].getId();
+            default:
+                return lamps[row].getId();
+        }
+    }
+
+    /**
+     Records that the database table and the local array of a category hold the same rows, after a load or a full
+     send, so no row of it needs to be written.
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     */
+    private void stored(int indicator){
+        int rows = viewOf(indicator) == null ? 0 : viewOf(indicator).size();
+        String[] ids = new String[rows];
+        for(int row = 0; row < rows; row++){
+            ids[row] = idOf(indicator, row);
+        }
+        storedIds[indicator] = ids;
+        dirtyRows.get(indicator).clear();
+    }
+
+    /**
+     Marks a row as changed, to be written by the next push.
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @param row row index in the local array
+     */
+    private void changedRow(int indicator, int row){
+        dirtyRows.get(indicator).add(row);
+    }
+
+    /**
+     @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     @return rows of the category changed since it was loaded or last pushed, in ascending order
+     */
+    public ArrayList<Integer> getDirtyRows(int indicator){
+        return new ArrayList<Integer>(dirtyRows.get(indicator));
     }
 
     /**
@@ -318,14 +959,18 @@ public class Database {
     public int countRows(String table){
         int rowCount = 0; //set row counter to 0
         ResultSet result;
+        Connection connection = null; //borrowed from the pool for this query
         try {
-            Statement myStmt = dbConnect.createStatement();  //create a loop to update each entry in the Table from the Chairs array
-            result = myStmt.executeQuery("SELECT count(*) FROM " + table); //execute count query
-            result.next(); //go to next ResultSet
-            rowCount = result.getInt(1); //get the total number of rows
-
+            connection = borrowConnection();
+            try (Statement myStmt = connection.createStatement()) {  //create a loop to update each entry in the Table from the Chairs array
+                result = myStmt.executeQuery("SELECT count(*) FROM " + table); //execute count query
+                result.next(); //go to next ResultSet
+                rowCount = result.getInt(1); //get the total number of rows
+            } //closing the statement closes its results before the connection is reused
         } catch (SQLException ex) {
             ex.printStackTrace();
+        } finally {
+            releaseConnection(connection);
         }
         return rowCount; //return number of rows
     }
@@ -358,11 +1003,15 @@ public class Database {
      * @param indicator indicates which table in the database needs to be updated.
      */
     public void updateTable(ArrayList<Integer> itemIndexes, int indicator){
+        localChanged();
         switch(indicator){
             case 0: // if desk table must be updated
                 for(int i = 0; i < desks.length; i++){ //scan through the desk table to find used items
                     if(indexWasUsed(itemIndexes, i)){ // if item was used to make order
                         desks[i].setAllpieces("N"); // set all pieces to "N"
+                        deskView.clearRow(i); // keep the solver view in step
+                        changedRow(0, i); // write the row on the next push
+                        typeChanged(0, desks[i].getType()); // quotes for this type are out of date
                     }
                 }
                 break;
@@ -370,6 +1019,9 @@ public class Database {
                 for(int i = 0; i < chairs.length; i++){ //scan through the chair table to find used items
                     if(indexWasUsed(itemIndexes, i)){ // if item was used to make order
                         chairs[i].setAllpieces("N"); // set all pieces to "N"
+                        chairView.clearRow(i); // keep the solver view in step
+                        changedRow(1, i); // write the row on the next push
+                        typeChanged(1, chairs[i].getType()); // quotes for this type are out of date
                     }
                 }
                 break;
@@ -377,6 +1029,9 @@ public class Database {
                 for(int i = 0; i < filings.length; i++){ //scan through the filing table to find used items
                     if(indexWasUsed(itemIndexes, i)){ // if item was used to make order
                         filings[i].setAllpieces("N"); // set all pieces to "N"
+                        filingView.clearRow(i); // keep the solver view in step
+                        changedRow(2, i); // write the row on the next push
+                        typeChanged(2, filings[i].getType()); // quotes for this type are out of date
                     }
                 }
                 break;
@@ -384,43 +1039,163 @@ public class Database {
                 for(int i = 0; i < lamps.length; i++){ //scan through the lamps table to find used items
                     if(indexWasUsed(itemIndexes, i)){ // if item was used to make order
                         lamps[i].setAllpieces("N"); // set all pieces to "N"
+                        lampView.clearRow(i); // keep the solver view in step
+                        changedRow(3, i); // write the row on the next push
+                        typeChanged(3, lamps[i].getType()); // quotes for this type are out of date
                     }
                 }
                 break;
         }
     }
     /**
+     * Marks the local arrays as changed, which moves the inventory on to a new version.
+     */
+    private void localChanged(){
+        inventoryVersion++;
+        unpushedChanges = true;
+    }
+
+    /**
+     * Moves one category and type on to a new version after one of its rows changed.
+     * @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     * @param type furniture type of the changed row
+     */
+    private void typeChanged(int indicator, String type){
+        typeChanges.merge(indicator + "|" + type, 1L, Long::sum);
+    }
+
+    /**
+     * The inventory version changes every time updateTable or a set*Row method changes the local arrays, every time
+     * pushLocal writes those changes to the database and every time loading an array from the database changes its
+     * rows, by updateLocal, an update method, loadCategory or a getter after invalidate. Reading the same rows again
+     * keeps the version. Anything computed from the arrays, such as a cached quote,
+     * is only valid while the version stays the same.
+     * @return current inventory version
+     */
+    public long getInventoryVersion(){
+        return this.inventoryVersion;
+    }
+
+    /**
+     * The version of one category and type changes every time updateTable or a set*Row method changes one of its
+     * rows and every time loading the category from the database changes its rows. Changes to other categories and types
+     * and pushes leave it alone, so a quote for a type no order used stays valid. See @QuoteCache.
+     * @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     * @param type furniture type
+     * @return current inventory version of the category and type
+     */
+    public long getInventoryVersion(int indicator, String type){
+        return loadVersions[indicator] + typeChanges.getOrDefault(indicator + "|" + type, 0L);
+    }
+
+    /**
+     Loads every chair row first if the category was not loaded since the last invalidate. After loadCategory loaded
+     one type, only the chairs of that type are held until the next invalidate, so a caller needing every row calls
+     updateChairs first.
      @return returns String array representation of stored chairs
      */
     public Chair[] getChairs(){
+        ensureLoaded(1);
         return this.chairs;
     }
 
     /**
+     Loads every desk row first if the category was not loaded since the last invalidate. After loadCategory loaded
+     one type, only the desks of that type are held until the next invalidate, so a caller needing every row calls
+     updateDesks first.
      @return returns String array representation of stored desks
      */
     public Desk[] getDesk(){
+        ensureLoaded(0);
         return this.desks;
     }
 
     /**
+     Loads every filing row first if the category was not loaded since the last invalidate. After loadCategory loaded
+     one type, only the filings of that type are held until the next invalidate, so a caller needing every row calls
+     updateFilings first.
      @return returns String array representation of stored filings
      */
     public Filing[] getFilings(){
+        ensureLoaded(2);
         return this.filings;
     }
 
     /**
+     Loads every lamp row first if the category was not loaded since the last invalidate. After loadCategory loaded
+     one type, only the lamps of that type are held until the next invalidate, so a caller needing every row calls
+     updateLamps first.
      @return returns String array representation of stored lamps
      */
     public Lamp[] getLamps(){
+        ensureLoaded(3);
         return this.lamps;
     }
 
+    /**
+     * The views are rebuilt every time a table is loaded and kept in step by updateTable and the set*Row methods. A
+     * category not loaded since the last invalidate is loaded first, every row of it. After loadCategory loaded one
+     * type, the view only holds the rows of that type until the next invalidate, see getLoadedType.
+     * @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     * @return compact solver view of the furniture category
+     */
+    public InventoryView getView(int indicator){
+        ensureLoaded(indicator);
+        return viewOf(indicator);
+    }
+
+    /**
+     * @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     * @return view of the category as it is, without loading it, null if it was never loaded
+     */
+    private InventoryView viewOf(int indicator){
+        switch(indicator){
+            case 0:
+                return this.deskView;
+            case 1:
+                return this.chairView;
+            case 2:
+                return this.filingView;
+            default:
+                return this.lampView;
+        }
+    }
+
+    /**
+     * The supply counters of each type are rebuilt when a table is loaded and updated by updateTable and the set*Row
+     * methods, one changed row at a time.
+     * @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     * @param type furniture type
+     * @return number of rows of the type that still have each component, in column order
+     */
+    public int[] getSupply(int indicator, String type){
+        InventoryView view = getView(indicator);
+        int[] supply = new int[view.getComponents()];
+        for(int c = 0; c < supply.length; c++){
+            supply[c] = view.getSupply(type, c);
+        }
+        return supply;
+    }
+
+    /**
+     * Checks an order quantity against the supply counters without searching. An order this fails cannot be made,
+     * while one it passes may still be impossible if the components are spread badly across the rows.
+     * @param indicator 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+     * @param type furniture type
+     * @param number number of desired furniture items
+     * @return true if every component of the type is in stock at least number times
+     */
+    public boolean canSupply(int indicator, String type, int number){
+        return getView(indicator).maxItems(type) >= number;
+    }
+
     /**
      @return returns String array representation of stored manufacturers
      */
     public Manufacturer[] getManufacturers(){
+        if(!mansLoaded){
+            updateMans(); //read on first use
+        }
         return this.manufacturers;
     }
 
@@ -449,11 +1224,53 @@ public class Database {
     }
 
     /**
-     * Does not use database
-     * @return returns Connection object, dbConnect.
+     * Borrows a connection from the pool for the caller. Give it back with releaseConnection, or close it, which frees
+     * its place in the pool.
+     * @return returns Connection object, null if no connection could be made.
      */
     public Connection getdbConnect() {
-        return this.dbConnect;
+        try {
+            return borrowConnection();
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Makes the pool on first use, with the size set by setPoolSize.
+     * @return pool of connections to the database, whose wait, eviction and leak metrics can be read
+     */
+    public synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool(this.getDburl(), this.getUserName(), this.getPassword(), poolSize);
+        }
+        return pool;
+    }
+
+    /**
+     * @param poolSize connections the pool keeps open at most, used when the pool is made
+     * @throws IllegalArgumentException if poolSize is below 1
+     * @throws IllegalStateException if the pool was already made
+     */
+    public synchronized void setPoolSize(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1, was " + poolSize);
+        }
+        if (pool != null) {
+            throw new IllegalStateException("Pool size must be set before the first connection is made");
+        }
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Closes the idle connections of the pool. A later query makes a new pool.
+     */
+    public synchronized void closeConnections() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
     }
 
 
@@ -471,7 +1288,12 @@ public class Database {
      */
     public void setChairRow(Chair chair, int row)
     {
+        typeChanged(1, this.chairs[row].getType()); // the row may change type, so both types move on
         this.chairs[row] = chair;
+        typeChanged(1, chair.getType());
+        this.chairView.setChair(row, chair); // keep the solver view in step
+        changedRow(1, row); // write the row on the next push
+        localChanged();
     }
 
     /**
@@ -480,7 +1302,12 @@ public class Database {
      */
     public void setDeskRow(Desk desk, int row)
     {
+        typeChanged(0, this.desks[row].getType()); // the row may change type, so both types move on
         this.desks[row] = desk;
+        typeChanged(0, desk.getType());
+        this.deskView.setDesk(row, desk); // keep the solver view in step
+        changedRow(0, row); // write the row on the next push
+        localChanged();
     }
 
     /**
@@ -489,7 +1316,12 @@ public class Database {
      */
     public void setFilingRow(Filing filing, int row)
     {
+        typeChanged(2, this.filings[row].getType()); // the row may change type, so both types move on
         this.filings[row] = filing;
+        typeChanged(2, filing.getType());
+        this.filingView.setFiling(row, filing); // keep the solver view in step
+        changedRow(2, row); // write the row on the next push
+        localChanged();
     }
 
     /**
@@ -499,6 +1331,11 @@ public class Database {
      */
     public void setLampRow(Lamp lamp, int row)
     {
+        typeChanged(3, this.lamps[row].getType()); // the row may change type, so both types move on
         this.lamps[row] = lamp;
+        typeChanged(3, lamp.getType());
+        this.lampView.setLamp(row, lamp); // keep the solver view in step
+        changedRow(3, row); // write the row on the next push
+        localChanged();
     }
 }
\ No newline at end of file
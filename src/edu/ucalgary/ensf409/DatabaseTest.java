@@ -7,6 +7,8 @@
 package edu.ucalgary.ensf409;
 import org.junit.*;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * This class tests the database read and write methods in regards to the Class arrays that represent
@@ -364,6 +366,138 @@ public class DatabaseTest
         databaseTest.sendLamp();
     }
 
+    /**
+     * testLoadCategory() loads only the Mesh chairs. The Chair[] array should hold exactly the Mesh rows of the
+     * hardcoded representation of the Chair table in SQL, in the same order.
+     */
+    @Test
+    public void testLoadCategory()
+    {
+        // setup
+        databaseTest.initializeConnection();
+        ArrayList<String[]> mesh = new ArrayList<String[]>();
+        for (String[] row : writeChairs()) { // keeps the Mesh rows of the hardcoded representation
+            if (row[1].equals("Mesh")) {
+                mesh.add(row);
+            }
+        }
+        String[][] actual = mesh.toArray(new String[0][]);
+
+        // run test
+        databaseTest.loadCategory(1, "Mesh"); // loads only the Mesh rows of the Chair table in SQL
+        Chair[] chairs = databaseTest.getChairs();
+        String[][] expected = new String[chairs.length][];
+        for (int i = 0; i < chairs.length; i++) {
+            expected[i] = new String[] {chairs[i].getId(), chairs[i].getType(), chairs[i].getLegs(), chairs[i].getArms(),
+                    chairs[i].getSeat(), chairs[i].getCushion(), String.valueOf(chairs[i].getPrice()), chairs[i].getManuId()};
+        }
+
+        // verify
+        Assert.assertEquals("Only the Mesh chairs should be loaded", "Mesh", databaseTest.getLoadedType(1));
+        Assert.assertArrayEquals(expected, actual); // checks if arrays are exactly the same
+    }
+
+    /**
+     * testReloadKeepsVersion() reloads the Chair table without changing it. The array holds the same rows, so the
+     * inventory version should stay the same and a quote cached from the Chair[] array can still be reused.
+     */
+    @Test
+    public void testReloadKeepsVersion()
+    {
+        // setup
+        databaseTest.initializeConnection();
+        databaseTest.updateChairs(); // initializes Chair[] array with data that is in SQL
+        long before = databaseTest.getInventoryVersion();
+        long chairsBefore = databaseTest.getInventoryVersion(1, "Mesh");
+
+        // run test
+        databaseTest.updateChairs(); // reads the same table again
+
+        // verify
+        Assert.assertEquals("Reloading the same rows should keep the inventory version", before, databaseTest.getInventoryVersion());
+        Assert.assertEquals("Reloading the same rows should keep the Mesh chair version", chairsBefore, databaseTest.getInventoryVersion(1, "Mesh"));
+    }
+
+    /**
+     * testSetFetchSize() checks a negative fetch size is rejected unless it is Integer.MIN_VALUE, which asks MySQL to
+     * stream the rows one at a time.
+     */
+    @Test
+    public void testSetFetchSize()
+    {
+        // run test
+        boolean rejected = false;
+        try
+        {
+            databaseTest.setFetchSize(-5);
+        }
+        catch (IllegalArgumentException e)
+        {
+            rejected = true;
+        }
+        databaseTest.setFetchSize(Integer.MIN_VALUE);
+
+        // verify
+        Assert.assertTrue("A negative fetch size should be rejected", rejected);
+        Assert.assertEquals("Integer.MIN_VALUE should be kept", Integer.MIN_VALUE, databaseTest.getFetchSize());
+    }
+
+    /**
+     * pushLocalTest() changes one Chair row and pushes it. Only the changed row should be marked before the push, none
+     * after it, and the Chair table in SQL should then hold the changed row.
+     */
+    @Test
+    public void pushLocalTest()
+    {
+        // setup
+        databaseTest.initializeConnection();
+        String[][] actual = writeChairs(); // calls a helper method to get hardcoded String[][] representation of Chair table in SQL
+        actual[0][6] = "10"; // changes the price of a row in the hardcoded String[][] representation
+
+        // run test
+        databaseTest.updateChairs(); // initializes Chair[] array with data that is in SQL
+        databaseTest.setChairRow(new Chair("C0914","Task","N","N","Y","Y",10,"002"), 0); // changes the price of one row
+        Assert.assertEquals("Only the changed row should be marked", Arrays.asList(0), databaseTest.getDirtyRows(1));
+        databaseTest.pushLocal(); // writes only the changed row into the Chair table in SQL
+        Assert.assertTrue("No row should be marked after the push", databaseTest.getDirtyRows(1).isEmpty());
+        String[][] expected = chairsToStringArray(); // reloads the Chair table in SQL as a String[][] array
+
+        // verify
+        Assert.assertArrayEquals(expected, actual); // checks if arrays are exactly the same
+
+        // after test, put original data back in the Chair table in SQL
+        databaseTest.setChairRow(new Chair("C0914", "Task", "N", "N", "Y", "Y", 50, "002"), 0);
+        databaseTest.pushLocal();
+    }
+
+    /**
+     * pushAllTest() changes one Chair row and rewrites every table in batches of 2 rows, so the Chair rows take several
+     * batches. The Chair table in SQL should then hold the changed row, and every Chair row should be counted as written.
+     */
+    @Test
+    public void pushAllTest() throws SQLException
+    {
+        // setup
+        databaseTest.initializeConnection();
+        databaseTest.setBatchSize(2);
+        String[][] actual = writeChairs(); // calls a helper method to get hardcoded String[][] representation of Chair table in SQL
+        actual[0][6] = "10"; // changes the price of a row in the hardcoded String[][] representation
+
+        // run test
+        databaseTest.updateLocal(); // initializes every array with data that is in SQL
+        databaseTest.setChairRow(new Chair("C0914","Task","N","N","Y","Y",10,"002"), 0); // changes the price of one row
+        databaseTest.pushAll(); // rewrites every table in SQL in one transaction
+        Assert.assertTrue("Every Chair row should be written", databaseTest.getLastPushRows() >= actual.length);
+        String[][] expected = chairsToStringArray(); // reloads the Chair table in SQL as a String[][] array
+
+        // verify
+        Assert.assertArrayEquals(expected, actual); // checks if arrays are exactly the same
+
+        // after test, put original data back in the Chair table in SQL
+        databaseTest.setChairRow(new Chair("C0914", "Task", "N", "N", "Y", "Y", 50, "002"), 0);
+        databaseTest.pushAll();
+    }
+
     /**
      *  This is where all of the helper methods for testing class Database will be placed for convenience
      *  ---------------------------------------------------------------------------------------------------------------
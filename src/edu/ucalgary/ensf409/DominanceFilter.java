@@ -0,0 +1,115 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+
+/**
+ * The DominanceFilter class removes candidate rows that no cheapest order needs, before a solver is run.
+ *
+ * Row d is better than row r when d has every component r has and costs no more; when the price and components are
+ * exactly the same the lower index is better. If at least k rows are better than r, where k is the order quantity,
+ * r can always be left out: either one of those rows is unused and can take its place for no more money, or all k
+ * are used and r adds nothing. This keeps the cheapest k rows of each component mask and drops any row beaten by k
+ * rows with more components, which is the Pareto frontier over (component mask, price) kept k deep.
+ */
+public class DominanceFilter {
+
+    /**
+     * Returns a table holding only the rows that are better than fewer than keep other rows. Rows stay in their
+     * original order.
+     * @param table candidate rows of the requested type
+     * @param keep order quantity
+     * @return filtered table, or the same table if nothing was removed
+     */
+    public static ComponentTable filter(ComponentTable table, int keep) {
+        int masks = 1 << table.getComponents();
+        int[][] byMask = groupByMask(table);
+        boolean[] kept = new boolean[table.size()];
+        int count = 0;
+        for (int m = 1; m < masks; m++) {
+            for (int rank = 0; rank < byMask[m].length; rank++) {
+                int i = byMask[m][rank];
+                int better = rank; // rows earlier in the same mask group are cheaper or tie with a lower index
+                for (int bigger = m + 1; bigger < masks && better < keep; bigger++) {
+                    if ((bigger & m) == m) { // bigger has every component of m and more
+                        better += countAtMost(table, byMask[bigger], table.getPrice(i));
+                    }
+                }
+                if (better < keep) {
+                    kept[i] = true;
+                    count++;
+                }
+            }
+        }
+        if (count == table.size()) {
+            return table;
+        }
+        int[] rows = new int[count];
+        int[] maskArray = new int[count];
+        int[] prices = new int[count];
+        int k = 0;
+        for (int i = 0; i < table.size(); i++) {
+            if (kept[i]) {
+                rows[k] = table.getRow(i);
+                maskArray[k] = table.getMask(i);
+                prices[k] = table.getPrice(i);
+                k++;
+            }
+        }
+        return new ComponentTable(table.getCategory(), table.getType(), table.getComponents(), rows, maskArray, prices);
+    }
+
+    /**
+     * Groups the candidate positions by component mask, each group sorted by price and then by position.
+     * @param table candidate rows
+     * @return array indexed by mask of the positions with that mask
+     */
+    static int[][] groupByMask(ComponentTable table) {
+        int masks = 1 << table.getComponents();
+        ArrayList<ArrayList<Integer>> groups = new ArrayList<ArrayList<Integer>>();
+        for (int m = 0; m < masks; m++) {
+            groups.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < table.size(); i++) {
+            groups.get(table.getMask(i)).add(i);
+        }
+        int[][] byMask = new int[masks][];
+        for (int m = 0; m < masks; m++) {
+            ArrayList<Integer> group = groups.get(m);
+            // positions were added in increasing order, so a stable sort on price keeps ties by position
+            group.sort((a, b) -> Integer.compare(table.getPrice(a), table.getPrice(b)));
+            byMask[m] = new int[group.size()];
+            for (int k = 0; k < byMask[m].length; k++) {
+                byMask[m][k] = group.get(k);
+            }
+        }
+        return byMask;
+    }
+
+    /**
+     * Counts the positions in a price sorted group whose price is at most the given price.
+     * @param table candidate rows
+     * @param group positions sorted by price
+     * @param price price to compare with
+     * @return number of positions costing no more than price
+     */
+    private static int countAtMost(ComponentTable table, int[] group, int price) {
+        int low = 0;
+        int high = group.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (table.getPrice(group[mid]) <= price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+
+/**
+ * Tests the @DominanceFilter using hardcoded lamp rows, so no connection is needed.
+ */
+public class DominanceFilterTest
+{
+    private Lamp[] lamps;
+
+    @Before
+    public void setUp()
+    {
+        lamps = new Lamp[] {
+                new Lamp("L132", "Desk", "Y", "N", 18, "005"),
+                new Lamp("L564", "Desk", "Y", "Y", 20, "004"),
+                new Lamp("L342", "Desk", "N", "Y", 2, "002"),
+                new Lamp("L208", "Desk", "N", "Y", 2, "005"),
+                new Lamp("L013", "Desk", "Y", "N", 18, "004"),
+                new Lamp("L112", "Desk", "Y", "N", 25, "005"),
+                new Lamp("L649", "Desk", "Y", "N", 18, "004")
+        };
+    }
+
+    /**
+     * testKeepsCheapestPerMask() filters for one lamp. Only the cheapest row of each mask can be needed, and L112 is
+     * also beaten by L564 which has a bulb as well and costs less.
+     */
+    @Test
+    public void testKeepsCheapestPerMask()
+    {
+        ComponentTable filtered = DominanceFilter.filter(ComponentTable.fromLamps(lamps, "Desk"), 1);
+
+        Assert.assertEquals("One row per mask should be kept", 3, filtered.size());
+        Assert.assertEquals("Cheapest base only lamp is row 0", 0, filtered.getRow(0));
+        Assert.assertEquals("Lamp with both components is row 1", 1, filtered.getRow(1));
+        Assert.assertEquals("Cheapest bulb only lamp is row 2", 2, filtered.getRow(2));
+    }
+
+    /**
+     * testSamePriceAsUnfiltered() checks the lowest price is unchanged by the filter for several quantities.
+     */
+    @Test
+    public void testSamePriceAsUnfiltered()
+    {
+        ComponentTable table = ComponentTable.fromLamps(lamps, "Desk");
+        for (int number = 1; number <= 4; number++) {
+            int expected = new DynamicSolver().solve(table, number).getPrice();
+            int actual = new DynamicSolver().solve(DominanceFilter.filter(table, number), number).getPrice();
+            Assert.assertEquals("Filter changed the price for " + number + " lamps", expected, actual);
+        }
+    }
+}
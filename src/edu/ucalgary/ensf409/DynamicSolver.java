@@ -0,0 +1,169 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+
+/**
+ * The DynamicSolver class finds the exact lowest price combination with a dynamic program instead of the recursive
+ * search in @CreateOrder. A state is the number of each component still needed, capped at the order quantity, so
+ * there are (quantity + 1) ^ components states. The rows are processed from last to first and for every state the
+ * cheapest way to finish using only the remaining rows is stored. The running time is
+ * O(rows * (quantity + 1) ^ components) rather than exponential in the number of rows.
+ *
+ * When several combinations share the lowest price the one with the lexicographically smallest set of row indexes
+ * is returned, so results are repeatable from run to run.
+ *
+ * The table has to be complete before any combination can be read from it, so if a deadline passes while it is being
+ * filled the order is handed to the anytime @BranchBoundSolver with the same deadline.
+ */
+public class DynamicSolver implements CombinationSolver {
+    /**
+     * Largest number of int table cells (rows + 1) * states the solver will allocate: 2^24 cells (64 MB), or fewer so
+     * the table takes at most a quarter of the heap. The other table solvers budget their tables against it too.
+     */
+    public static final long MAX_CELLS = Math.min(1L << 24, Runtime.getRuntime().maxMemory() / 4 / Integer.BYTES);
+    private static final int NONE = Integer.MAX_VALUE; // marks a state that cannot be finished
+
+    /**
+     * Finds the lowest price combination of rows that makes the requested number of items.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @return SolverResult with the lowest price and the row indexes, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number) {
+        return solve(table, number, NO_DEADLINE);
+    }
+
+    /**
+     * Finds the lowest price combination, falling back to branch and bound if the deadline passes first.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @param deadline System.nanoTime() value to stop at, or NO_DEADLINE
+     * @return SolverResult with the price and the row indexes, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number, long deadline) {
+        long start = System.nanoTime();
+        int components = table.getComponents();
+        int n = table.size();
+        int radix = number + 1; // each component needs 0..number more pieces
+        long stateTotal = stateCount(components, number);
+        long cells = stateTotal > MAX_CELLS ? stateTotal : (n + 1) * stateTotal;
+        if (cells > MAX_CELLS) {
+            throw new IllegalArgumentException("Order of " + number + " " + table.getType() + " "
+                    + table.getCategory() + " needs " + cells + " cells, limit is " + MAX_CELLS);
+        }
+        int states = (int) stateTotal;
+        int[] step = new int[components]; // place value of each component in the state number
+        step[0] = 1;
+        for (int c = 1; c < components; c++) {
+            step[c] = step[c - 1] * radix;
+        }
+        int goal = states - 1; // every component still needs number pieces
+
+        // best[i][s] is the lowest price to cover state s using only rows i..n-1
+        int[][] best = new int[n + 1][states];
+        for (int s = 1; s < states; s++) {
+            best[n][s] = NONE;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            if (CombinationSolver.expired(deadline)) {
+                return fallBack(table, number, deadline, start);
+            }
+            int mask = table.getMask(i);
+            int price = table.getPrice(i);
+            int[] next = best[i + 1];
+            int[] current = best[i];
+            for (int s = 0; s < states; s++) {
+                int skip = next[s];
+                int after = next[apply(s, mask, step, radix, components)];
+                if (after != NONE && price + after < skip) {
+                    current[s] = price + after;
+                } else {
+                    current[s] = skip;
+                }
+            }
+        }
+
+        ArrayList<Integer> indexes = new ArrayList<Integer>();
+        int lowest = 0;
+        if (best[0][goal] != NONE) {
+            lowest = best[0][goal];
+            int s = goal;
+            for (int i = 0; i < n && s != 0; i++) {
+                int after = best[i + 1][apply(s, table.getMask(i), step, radix, components)];
+                // taking the row whenever it ties keeps the lexicographically smallest set of indexes
+                if (after != NONE && table.getPrice(i) + after == best[i][s]) {
+                    indexes.add(table.getRow(i));
+                    s = apply(s, table.getMask(i), step, radix, components);
+                }
+            }
+        }
+        return new SolverResult(lowest, indexes, System.nanoTime() - start);
+    }
+
+    /**
+     * @return "dp"
+     */
+    @Override
+    public String getName() { return "dp"; }
+
+    /**
+     * Runs the anytime branch and bound for an order whose table could not be filled in time.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @param deadline deadline that has already passed
+     * @param start System.nanoTime() value the dynamic program started at
+     * @return the branch and bound result, timed from the start of the dynamic program
+     */
+    private static SolverResult fallBack(ComponentTable table, int number, long deadline, long start) {
+        SolverResult partial = new BranchBoundSolver().solve(table, number, deadline);
+        SolverResult result = new SolverResult(partial.getPrice(), partial.getIndexes(), System.nanoTime() - start);
+        result.setNodeCounts(partial.getNodesExpanded(), partial.getNodesPruned());
+        result.setBound(partial.getLowerBound(), partial.isOptimal());
+        return result;
+    }
+
+    /**
+     * Number of states for the given number of components and quantity.
+     * @param components number of components needed to make one item
+     * @param number number of desired furniture items
+     * @return (number + 1) ^ components
+     */
+    public static long stateCount(int components, int number) {
+        long states = 1;
+        for (int c = 0; c < components; c++) {
+            if (states > Long.MAX_VALUE / (number + 1) / 2) {
+                return Long.MAX_VALUE / 2; // too many to ever allocate, avoid overflowing
+            }
+            states *= number + 1;
+        }
+        return states;
+    }
+
+    /**
+     * Returns the state reached after taking a row: every component the row has that is still needed goes down by one.
+     * @param state current state
+     * @param mask component bitmask of the row
+     * @param step place value of each component in the state number
+     * @param radix order quantity + 1
+     * @param components number of components
+     * @return next state
+     */
+    private static int apply(int state, int mask, int[] step, int radix, int components) {
+        int next = state;
+        for (int c = 0; c < components; c++) {
+            if ((mask >> c & 1) != 0 && (state / step[c]) % radix != 0) {
+                next -= step[c];
+            }
+        }
+        return next;
+    }
+}
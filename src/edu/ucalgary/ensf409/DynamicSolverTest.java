@@ -0,0 +1,105 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.util.*;
+
+/**
+ * Tests the @DynamicSolver against hardcoded copies of rows from the inventory database, so no connection is needed.
+ */
+public class DynamicSolverTest
+{
+    private Chair[] chairs;
+    private Lamp[] lamps;
+
+    @Before
+    public void setUp()
+    {
+        chairs = new Chair[] {
+                new Chair("C1320", "Kneeling", "Y", "N", "N", "N", 50, "002"),
+                new Chair("C9890", "Mesh", "N", "Y", "N", "Y", 50, "003"),
+                new Chair("C0942", "Mesh", "Y", "N", "Y", "Y", 100, "005"),
+                new Chair("C6748", "Mesh", "Y", "N", "N", "N", 75, "003"),
+                new Chair("C8138", "Mesh", "N", "N", "Y", "N", 75, "005")
+        };
+        lamps = new Lamp[] {
+                new Lamp("L132", "Desk", "Y", "N", 18, "005"),
+                new Lamp("L980", "Study", "N", "Y", 2, "004"),
+                new Lamp("L013", "Desk", "N", "Y", 2, "004"),
+                new Lamp("L112", "Desk", "Y", "N", 18, "005")
+        };
+    }
+
+    /**
+     * testMeshChair() orders one Mesh chair. The cheapest combination is C9890 and C0942 for $150, the same as the
+     * sample order form in the project handout.
+     */
+    @Test
+    public void testMeshChair()
+    {
+        SolverResult result = new DynamicSolver().solve(ComponentTable.fromChairs(chairs, "Mesh"), 1);
+
+        Assert.assertEquals("Lowest price for one Mesh chair should be 150", 150, result.getPrice());
+        Assert.assertEquals("Combination should be rows 1 and 2", Arrays.asList(1, 2), result.getIndexes());
+    }
+
+    /**
+     * testImpossibleOrder() orders two Desk lamps when only one bulb is available. The price must be 0 and no
+     * indexes returned, which is how @Order.operation knows to generate a recommendation instead.
+     */
+    @Test
+    public void testImpossibleOrder()
+    {
+        SolverResult result = new DynamicSolver().solve(ComponentTable.fromLamps(lamps, "Desk"), 2);
+
+        Assert.assertEquals("Price should be 0 when the order cannot be made", 0, result.getPrice());
+        Assert.assertFalse("No combination should be found", result.isFound());
+    }
+
+    /**
+     * testTieUsesLowestIndexes() orders one Desk lamp where rows 0 and 3 are identical. The lower index must be chosen.
+     */
+    @Test
+    public void testTieUsesLowestIndexes()
+    {
+        SolverResult result = new DynamicSolver().solve(ComponentTable.fromLamps(lamps, "Desk"), 1);
+
+        Assert.assertEquals("Lowest price for one Desk lamp should be 20", 20, result.getPrice());
+        Assert.assertEquals("Combination should be rows 0 and 2", Arrays.asList(0, 2), result.getIndexes());
+    }
+
+    /**
+     * testSelectFallsBackWhenTooLarge() asks for the dp mode on an order of 100 four component items, whose table
+     * cannot fit under MAX_CELLS. The selector must use the automatic choice rather than a solver that would throw.
+     */
+    @Test
+    public void testSelectFallsBackWhenTooLarge()
+    {
+        ComponentTable table = SolverBenchmark.randomTable(1, "chair", 4, 20);
+
+        Assert.assertEquals("A small order should use the dynamic program", "dp", SolverSelector.select("dp", table, 2, null).getName());
+        Assert.assertFalse("A large order should not use the dynamic program", SolverSelector.select("dp", table, 100, null).getName().equals("dp"));
+    }
+
+    /**
+     * testUnknownModeRejected() checks a mistyped solver mode is rejected.
+     */
+    @Test
+    public void testUnknownModeRejected()
+    {
+        boolean rejected = false;
+        try {
+            SolverSelector.checkMode("dynamic");
+        }
+        catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+
+        Assert.assertTrue("An unknown mode should be rejected", rejected);
+    }
+}
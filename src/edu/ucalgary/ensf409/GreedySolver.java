@@ -0,0 +1,181 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * The GreedySolver class gives a near lowest price in milliseconds for catalogs of tens of thousands of rows, by
+ * treating the order as a weighted multi-cover: every component has to be covered quantity times and each row covers
+ * the components it has. Working on the mask classes of a @ClassView, it repeatedly takes the cheapest unused row of
+ * the class that covers the most still missing components per dollar, then improves the counts with the moves of
+ * @LargeOrderSolver, which also drop any row the order no longer needs.
+ *
+ * The greedy rule for weighted multi-cover never costs more than H(k) = 1 + 1/2 + ... + 1/k times the lowest price,
+ * where k is the most components one row can cover: 3/2 for a lamp, 11/6 for a desk or filing and 25/12 for a chair.
+ * The improvement only lowers the price, so the guarantee still holds. The result also carries a lower bound, so the
+ * ratio observed on the actual inventory is reported too, and a price that meets the bound is proven the lowest.
+ */
+public class GreedySolver implements CombinationSolver {
+
+    /**
+     * Finds a price within the guaranteed ratio of the lowest.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @return SolverResult with the price, the row indexes, the lower bound and the guarantee, price 0 if the order
+     *         cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number) {
+        return solve(table, number, NO_DEADLINE);
+    }
+
+    /**
+     * Finds a price within the guaranteed ratio of the lowest, cutting the improvement short once the deadline passes.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @param deadline System.nanoTime() value to stop at, or NO_DEADLINE
+     * @return SolverResult with the price, the row indexes, the lower bound and the guarantee, price 0 if the order
+     *         cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number, long deadline) {
+        long start = System.nanoTime();
+        ClassView view = new ClassView(table);
+        int classes = view.getClassCount();
+        int components = view.getComponents();
+        int[] limit = new int[classes]; // rows each class may use, no class needs more than number
+        for (int m = 0; m < classes; m++) {
+            limit[m] = Math.min(view.size(m), number);
+        }
+        int[] counts = new int[classes];
+        int[] have = new int[components];
+        int missing = components * number; // pieces still missing over every component
+        while (missing > 0) {
+            int best = -1;
+            int bestUseful = 0;
+            long bestPrice = 0;
+            for (int m = 0; m < classes; m++) {
+                if (counts[m] == limit[m]) {
+                    continue;
+                }
+                int useful = 0;
+                for (int c = 0; c < components; c++) {
+                    if ((view.getMask(m) >> c & 1) != 0 && have[c] < number) {
+                        useful++;
+                    }
+                }
+                long price = view.cost(m, counts[m] + 1) - view.cost(m, counts[m]);
+                // useful / price > bestUseful / bestPrice, compared without dividing so a free row wins
+                if (useful > 0 && (best < 0 || useful * bestPrice > bestUseful * price)) {
+                    best = m;
+                    bestUseful = useful;
+                    bestPrice = price;
+                }
+            }
+            if (best < 0) { // some component is too scarce
+                return new SolverResult(0, new ArrayList<Integer>(), System.nanoTime() - start);
+            }
+            counts[best]++;
+            for (int c = 0; c < components; c++) {
+                if ((view.getMask(best) >> c & 1) != 0 && have[c]++ < number) {
+                    missing--;
+                }
+            }
+        }
+        LargeOrderSolver.improve(view, limit, counts, number, deadline);
+
+        ArrayList<Integer> indexes = new ArrayList<Integer>();
+        long price = 0;
+        for (int m = 0; m < classes; m++) {
+            price += view.cost(m, counts[m]);
+            for (int rank = 0; rank < counts[m]; rank++) {
+                indexes.add(view.getRow(m, rank));
+            }
+        }
+        Collections.sort(indexes);
+        int bound = (int) Math.min(price, lowerBound(view, limit, number));
+        SolverResult result = new SolverResult((int) price, indexes, System.nanoTime() - start);
+        result.setBound(bound, bound == price);
+        result.setGuarantee(guarantee(components));
+        return result;
+    }
+
+    /**
+     * @return "approx"
+     */
+    @Override
+    public String getName() { return "approx"; }
+
+    /**
+     * @param components number of components that make up one item, the most one row can cover
+     * @return H(components), the ratio to the lowest price the greedy rule guarantees
+     */
+    public static double guarantee(int components) {
+        double harmonic = 0;
+        for (int i = 1; i <= components; i++) {
+            harmonic += 1.0 / i;
+        }
+        return harmonic;
+    }
+
+    /**
+     * Lower bound on the lowest price, the larger of two bounds that take one pass over the cheapest rows:
+     *  - every order has number rows with each component, so it costs at least the number cheapest rows having the
+     *    component that makes this largest
+     *  - splitting the price of each row evenly over its components, the order pays for number pieces of every
+     *    component, each at least the number cheapest shares for that component
+     * @param view classes of the candidate rows
+     * @param limit rows each class may use
+     * @param number number of desired furniture items
+     * @return lower bound in whole dollars
+     */
+    static long lowerBound(ClassView view, int[] limit, int number) {
+        long single = 0;
+        double shared = 0;
+        for (int c = 0; c < view.getComponents(); c++) {
+            single = Math.max(single, (long) Math.ceil(cheapest(view, limit, c, number, false) - 1e-6));
+            shared += cheapest(view, limit, c, number, true);
+        }
+        return Math.max(single, (long) Math.ceil(shared - 1e-6));
+    }
+
+    /**
+     * Adds up the number cheapest rows having a component, merging the sorted classes that have it.
+     * @param component component bit position
+     * @param split true to count each row at its price divided by the number of components it has
+     * @return total of the number cheapest, the prices of every row having it if there are fewer
+     */
+    private static double cheapest(ClassView view, int[] limit, int component, int number, boolean split) {
+        int classes = view.getClassCount();
+        int[] next = new int[classes]; // rows of each class merged so far
+        double total = 0;
+        for (int taken = 0; taken < number; taken++) {
+            int best = -1;
+            double bestValue = 0;
+            for (int m = 0; m < classes; m++) {
+                if ((view.getMask(m) >> component & 1) == 0 || next[m] == limit[m]) {
+                    continue;
+                }
+                double value = (view.cost(m, next[m] + 1) - view.cost(m, next[m]))
+                        / (split ? Integer.bitCount(view.getMask(m)) : 1.0);
+                if (best < 0 || value < bestValue) {
+                    best = m;
+                    bestValue = value;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            next[best]++;
+            total += bestValue;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.util.*;
+
+/**
+ * Tests the @GreedySolver prices and the guarantee it reports against the exact @DynamicSolver.
+ */
+public class GreedySolverTest
+{
+    /**
+     * testGuarantee() checks the reported ratio is H(k) for the number of components.
+     */
+    @Test
+    public void testGuarantee()
+    {
+        Assert.assertEquals("A lamp should be guaranteed within 3/2", 1.5, GreedySolver.guarantee(2), 1e-9);
+        Assert.assertEquals("A chair should be guaranteed within 25/12", 25.0 / 12, GreedySolver.guarantee(4), 1e-9);
+    }
+
+    /**
+     * testMeshChair() orders one Mesh chair from the rows of the sample order form. The greedy price is the lowest,
+     * but the lower bound of $117 cannot prove it, so it is reported as approximate with the observed ratio.
+     */
+    @Test
+    public void testMeshChair()
+    {
+        Chair[] chairs = {
+                new Chair("C9890", "Mesh", "N", "Y", "N", "Y", 50, "003"),
+                new Chair("C0942", "Mesh", "Y", "N", "Y", "Y", 100, "005"),
+                new Chair("C6748", "Mesh", "Y", "N", "N", "N", 75, "003"),
+                new Chair("C8138", "Mesh", "N", "N", "Y", "N", 75, "005")
+        };
+        SolverResult result = new GreedySolver().solve(ComponentTable.fromChairs(chairs, "Mesh"), 1);
+
+        Assert.assertEquals("Price for one Mesh chair should be 150", 150, result.getPrice());
+        Assert.assertEquals("Combination should be rows 0 and 1", Arrays.asList(0, 1), result.getIndexes());
+        Assert.assertEquals("Lower bound should be $117", 117, result.getLowerBound());
+        Assert.assertTrue("A price above the lower bound should be approximate", result.isApproximate());
+        Assert.assertEquals("Observed ratio should be 150 / 117", 150.0 / 117, result.getObservedRatio(), 1e-9);
+    }
+
+    /**
+     * testWithinGuarantee() compares the greedy price with the lowest price on generated tables. It must never be
+     * more than the guarantee above it, and the lower bound must never be above it.
+     */
+    @Test
+    public void testWithinGuarantee()
+    {
+        for (int seed = 0; seed < 200; seed++) {
+            int components = 2 + seed % 3;
+            ComponentTable table = SolverBenchmark.randomTable(seed, "chair", components, 5 + seed % 20);
+            int number = 1 + seed % 3;
+            SolverResult exact = new DynamicSolver().solve(table, number);
+            SolverResult greedy = new GreedySolver().solve(table, number);
+
+            Assert.assertEquals("Greedy should find a combination exactly when one exists", exact.isFound(), greedy.isFound());
+            if (exact.isFound()) {
+                Assert.assertTrue("Price should be within the guarantee",
+                        greedy.getPrice() <= GreedySolver.guarantee(components) * exact.getPrice() + 1e-9);
+                Assert.assertTrue("Lower bound should not be above the lowest price", greedy.getLowerBound() <= exact.getPrice());
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * The IncrementalSearch class keeps the search state of every furniture type between orders, so an order placed after
+ * a few rows were used does not rebuild it from the whole table. For each type it holds:
+ *  - the candidate index: the rows of that type with a component left, grouped by component mask and sorted by price
+ *  - for each quantity ordered, the dominance frontier kept by @DominanceFilter and the last result found for it
+ *
+ * The state is brought up to date from the change log of the @InventoryView, one changed row at a time. A change to
+ * a row moves it between mask groups, and only rows whose mask is a subset of the row's old or new mask can enter or
+ * leave the frontier because of it, so only those groups are re-ranked. When a row outside the frontier is removed or
+ * gets worse nothing is re-ranked at all: every row it beat is also beaten by the rows that beat it.
+ *
+ * The last result of a quantity stays valid while none of its rows changed and every change only removed rows or made
+ * them worse, since the cheapest combination is then still available and nothing cheaper can have appeared.
+ */
+public class IncrementalSearch {
+    private final HashMap<String, TypeState> states = new HashMap<String, TypeState>(); // state of each category and type
+
+    /**
+     * Returns the dominance frontier of a type for an order quantity, as a table the solvers can run on.
+     * @param view compact view of the category from @Database.getView
+     * @param type furniture type
+     * @param number number of desired furniture items
+     * @return candidate rows no cheapest combination can do without, in row order
+     */
+    public ComponentTable frontier(InventoryView view, String type, int number) {
+        return state(view, type).frontier(number).table();
+    }
+
+    /**
+     * Returns the last result remembered for a type and quantity if it is still the lowest price.
+     * @param view compact view of the category from @Database.getView
+     * @param type furniture type
+     * @param number number of desired furniture items
+     * @return the remembered result, or null if there is none or the inventory changed in a way that may affect it
+     */
+    public SolverResult lastResult(InventoryView view, String type, int number) {
+        return state(view, type).frontier(number).result;
+    }
+
+    /**
+     * Remembers the result of a search so a later order can reuse it. Only proven lowest prices are remembered.
+     * @param view compact view of the category the search ran on
+     * @param type furniture type
+     * @param number number of desired furniture items
+     * @param result result of the solver
+     */
+    public void remember(InventoryView view, String type, int number, SolverResult result) {
+        if (result.isOptimal()) {
+            state(view, type).frontier(number).result = result;
+        }
+    }
+
+    /**
+     * @param view compact view of the category from @Database.getView
+     * @param type furniture type
+     * @return number of rows of the type with at least one component left
+     */
+    public int candidateCount(InventoryView view, String type) {
+        return state(view, type).candidates;
+    }
+
+    /**
+     * Finds the state of a type, building it if the view is new and otherwise applying the changes logged since the
+     * state was last used.
+     */
+    private TypeState state(InventoryView view, String type) {
+        String key = view.getCategory() + "|" + type;
+        TypeState state = states.get(key);
+        if (state == null || state.view != view) { // a reload that changed the number of rows builds a new view
+            state = new TypeState(view, type);
+            states.put(key, state);
+        }
+        state.catchUp();
+        return state;
+    }
+
+    /**
+     * Search state of one furniture type.
+     */
+    private static class TypeState {
+        private final InventoryView view; // view the state was built from
+        private final String type; // furniture type
+        private final int masks; // number of component masks, 2 ^ components
+        private final int[] maskOf; // mask of every row while it is a candidate, 0 otherwise
+        private final int[] priceOf; // price of every row while it is a candidate
+        private final ArrayList<TreeSet<Long>> groups = new ArrayList<TreeSet<Long>>(); // candidates of each mask, keyed by price then row
+        private final HashMap<Integer, Frontier> frontiers = new HashMap<Integer, Frontier>(); // frontier of each quantity
+        private int candidates; // number of candidate rows
+        private int seen; // position in the view's change log the state is up to date with
+
+        TypeState(InventoryView view, String type) {
+            this.view = view;
+            this.type = type;
+            this.masks = 1 << view.getComponents();
+            this.maskOf = new int[view.size()];
+            this.priceOf = new int[view.size()];
+            for (int m = 0; m < masks; m++) {
+                groups.add(new TreeSet<Long>());
+            }
+            for (int row = 0; row < view.size(); row++) {
+                if (view.getMask(row) != 0 && type.equals(view.getType(row))) {
+                    add(row, view.getMask(row), view.getPrice(row));
+                }
+            }
+            this.seen = view.getChangeCount();
+        }
+
+        /**
+         * Applies every change logged since the state was last used.
+         */
+        void catchUp() {
+            int end = view.getChangeCount();
+            for (; seen < end; seen++) {
+                int row = view.getChange(seen);
+                int oldMask = maskOf[row];
+                int oldPrice = priceOf[row];
+                boolean candidate = view.getMask(row) != 0 && type.equals(view.getType(row));
+                int newMask = candidate ? view.getMask(row) : 0;
+                int newPrice = candidate ? view.getPrice(row) : 0;
+                if (oldMask == newMask && oldPrice == newPrice) {
+                    continue; // the change was to another type, or was undone by a later one
+                }
+                if (oldMask != 0) {
+                    remove(row);
+                }
+                if (newMask != 0) {
+                    add(row, newMask, newPrice);
+                }
+                // a row gets worse if it is removed, or keeps a subset of its components at no lower price
+                boolean worse = newMask == 0 || (oldMask != 0 && (newMask & ~oldMask) == 0 && newPrice >= oldPrice);
+                for (Frontier frontier : frontiers.values()) {
+                    frontier.update(row, oldMask, newMask, worse);
+                }
+            }
+        }
+
+        /**
+         * Returns the frontier for an order quantity, building it the first time the quantity is ordered.
+         */
+        Frontier frontier(int number) {
+            Frontier frontier = frontiers.get(number);
+            if (frontier == null) {
+                frontier = new Frontier(this, number);
+                frontiers.put(number, frontier);
+            }
+            return frontier;
+        }
+
+        private void add(int row, int mask, int price) {
+            maskOf[row] = mask;
+            priceOf[row] = price;
+            groups.get(mask).add(key(price, row));
+            candidates++;
+        }
+
+        private void remove(int row) {
+            groups.get(maskOf[row]).remove(key(priceOf[row], row));
+            maskOf[row] = 0;
+            priceOf[row] = 0;
+            candidates--;
+        }
+
+        private static long key(int price, int row) {
+            return (long) price << 32 | row;
+        }
+    }
+
+    /**
+     * Dominance frontier and last result of one type for one order quantity.
+     */
+    private static class Frontier {
+        private final TypeState state; // candidate index the frontier is taken from
+        private final int keep; // order quantity, how many better rows it takes to drop a row
+        private final BitSet kept = new BitSet(); // rows in the frontier
+        private ComponentTable table; // frontier as a table, null until it is next needed
+        private SolverResult result; // last result for this quantity, null if it may no longer be the lowest
+
+        Frontier(TypeState state, int keep) {
+            this.state = state;
+            this.keep = keep;
+            for (int m = 1; m < state.masks; m++) {
+                rank(m);
+            }
+        }
+
+        /**
+         * Updates the frontier and the last result after one candidate row changed.
+         * @param row row that changed
+         * @param oldMask mask of the row before the change, 0 if it was not a candidate
+         * @param newMask mask of the row after the change, 0 if it is no longer a candidate
+         * @param worse true if the row was removed or got worse
+         */
+        void update(int row, int oldMask, int newMask, boolean worse) {
+            if (result != null && (!worse || result.getIndexes().contains(row))) {
+                result = null;
+            }
+            if (worse && !kept.get(row)) {
+                return; // the row stays out and every row it beat is still beaten by the rows that beat it
+            }
+            table = null;
+            if (newMask == 0) {
+                kept.clear(row); // no longer in any group, so ranking the groups would not reach it
+            }
+            for (int m = 1; m < state.masks; m++) {
+                if ((m & ~oldMask) == 0 || (m & ~newMask) == 0) { // only rows with a subset of its components compare with it
+                    rank(m);
+                }
+            }
+        }
+
+        /**
+         * Decides for every candidate with the given mask whether it is in the frontier, the same way as
+         * @DominanceFilter.filter: a row is dropped once keep rows are better than it.
+         * @param m component mask of the group
+         */
+        private void rank(int m) {
+            int rank = 0; // rows earlier in the same mask group are cheaper or tie with a lower row
+            for (long key : state.groups.get(m)) {
+                int row = (int) key;
+                int price = (int) (key >>> 32);
+                int better = rank++;
+                for (int bigger = m + 1; bigger < state.masks && better < keep; bigger++) {
+                    if ((bigger & m) == m) { // bigger has every component of m and more
+                        better += countAtMost(state.groups.get(bigger), price, keep - better);
+                    }
+                }
+                kept.set(row, better < keep);
+            }
+        }
+
+        /**
+         * Counts the rows of a group costing no more than price, stopping at limit.
+         */
+        private static int countAtMost(TreeSet<Long> group, int price, int limit) {
+            int count = 0;
+            for (long key : group) {
+                if (count == limit || (int) (key >>> 32) > price) {
+                    break;
+                }
+                count++;
+            }
+            return count;
+        }
+
+        /**
+         * @return the frontier as a table in row order, rebuilt only if it changed since it was last returned
+         */
+        ComponentTable table() {
+            if (table == null) {
+                InventoryView view = state.view;
+                int[] rows = new int[kept.cardinality()];
+                int[] masks = new int[rows.length];
+                int[] prices = new int[rows.length];
+                int k = 0;
+                for (int row = kept.nextSetBit(0); row >= 0; row = kept.nextSetBit(row + 1)) {
+                    rows[k] = row;
+                    masks[k] = state.maskOf[row];
+                    prices[k] = state.priceOf[row];
+                    k++;
+                }
+                table = new ComponentTable(view.getCategory(), state.type, view.getComponents(), rows, masks, prices);
+            }
+            return table;
+        }
+    }
+}
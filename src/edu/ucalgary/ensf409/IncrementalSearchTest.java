@@ -0,0 +1,94 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.util.*;
+
+/**
+ * Tests that the @IncrementalSearch state follows the changes made to an @InventoryView.
+ */
+public class IncrementalSearchTest
+{
+    private InventoryView testView;
+    private IncrementalSearch testSearch;
+
+    @Before
+    public void setUp()
+    {
+        Desk[] desks = {
+                new Desk("D3820", "Standing", "Y", "N", "N", 150, "001"),
+                new Desk("D4475", "Adjustable", "N", "Y", "Y", 200, "002"),
+                new Desk("D2341", "Standing", "N", "Y", "N", 100, "001"),
+                new Desk("D9387", "Standing", "Y", "Y", "N", 250, "004"),
+                new Desk("D1927", "Standing", "Y", "N", "Y", 200, "005"),
+                new Desk("D4438", "Standing", "N", "Y", "Y", 150, "004"),
+                new Desk("D2199", "Standing", "N", "N", "Y", 75, "005")
+        };
+        testView = InventoryView.ofDesks(desks);
+        testSearch = new IncrementalSearch();
+    }
+
+    /**
+     * testFrontierMatchesFilter() checks the frontier is the same as filtering the whole table, before and after rows
+     * are used.
+     */
+    @Test
+    public void testFrontierMatchesFilter()
+    {
+        assertSameRows(DominanceFilter.filter(testView.select("Standing"), 1), testSearch.frontier(testView, "Standing", 1));
+
+        testView.clearRow(2);
+        testView.clearRow(6);
+
+        assertSameRows(DominanceFilter.filter(testView.select("Standing"), 1), testSearch.frontier(testView, "Standing", 1));
+        Assert.assertEquals("Four Standing desks should be left", 4, testSearch.candidateCount(testView, "Standing"));
+    }
+
+    /**
+     * testReusesUnaffectedResult() remembers the result for one Standing desk. Using a row outside it keeps the result,
+     * using a row inside it drops the result.
+     */
+    @Test
+    public void testReusesUnaffectedResult()
+    {
+        ComponentTable frontier = testSearch.frontier(testView, "Standing", 1);
+        SolverResult result = new DynamicSolver().solve(frontier, 1);
+        testSearch.remember(testView, "Standing", 1, result);
+        Assert.assertEquals("Combination should be rows 0 and 5", Arrays.asList(0, 5), result.getIndexes());
+
+        testView.clearRow(3);
+        Assert.assertSame("Using an unrelated row should keep the result", result, testSearch.lastResult(testView, "Standing", 1));
+
+        testView.clearRow(5);
+        Assert.assertNull("Using a row of the result should drop it", testSearch.lastResult(testView, "Standing", 1));
+    }
+
+    /**
+     * testCheaperRowDropsResult() checks a row that gets cheaper drops the remembered result, since it may now be
+     * part of a cheaper combination.
+     */
+    @Test
+    public void testCheaperRowDropsResult()
+    {
+        SolverResult result = new DynamicSolver().solve(testSearch.frontier(testView, "Standing", 1), 1);
+        testSearch.remember(testView, "Standing", 1, result);
+
+        testView.setRow(3, 3, 50, "Standing");
+
+        Assert.assertNull("A cheaper row should drop the result", testSearch.lastResult(testView, "Standing", 1));
+        assertSameRows(DominanceFilter.filter(testView.select("Standing"), 1), testSearch.frontier(testView, "Standing", 1));
+    }
+
+    private static void assertSameRows(ComponentTable expected, ComponentTable actual)
+    {
+        Assert.assertEquals("Frontier size should match", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals("Frontier rows should match", expected.getRow(i), actual.getRow(i));
+        }
+    }
+}
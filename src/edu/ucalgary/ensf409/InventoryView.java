@@ -0,0 +1,388 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class holds a compact copy of one furniture category, built by the @Database when a table is loaded. Each row is
+ * stored in parallel primitive arrays as a byte bitmask of the components it still has, its price and the ordinal of
+ * its type, so the solvers never compare "Y"/"N" strings or type names row by row. Component bits follow the table
+ * column order, e.g. for a chair legs is bit 0, arms bit 1, seat bit 2 and cushion bit 3.
+ *
+ * Once built, every row whose mask, price or type actually changes is appended to a change log. A reload of the same
+ * table refreshes the view in place, so the log also holds the rows the reload changed, and @IncrementalSearch can
+ * bring its per-type state up to date from the log instead of rescanning the table.
+ *
+ * The view also counts, for every type, how many rows still have each component. The counts are kept in step by
+ * setRow and clearRow, so the number of items the stock could make at most is known without a search.
+ */
+public class InventoryView {
+    private final String category; //furniture category of the rows
+    private final int components; //number of components that make up one item
+    private final byte[] masks; //component bitmask of each row
+    private final int[] prices; //price of each row
+    private final int[] types; //type ordinal of each row
+    private final ArrayList<String> typeNames = new ArrayList<String>(); //type name of each ordinal
+    private final HashMap<String, Integer> typeOrdinals = new HashMap<String, Integer>(); //ordinal of each type name
+    private final ArrayList<int[]> supply = new ArrayList<int[]>(); //rows of each type ordinal that have each component
+    private int[] changeLog = new int[16]; //rows changed since the view was built, in the order they changed
+    private int changes; //number of entries used in changeLog
+    private boolean logging; //false while the view is first being filled
+
+    /**
+     Constructor for an empty view, filled in with setRow.
+     @param category furniture category (desk, chair, filing or lamp)
+     @param components number of components that make up one item
+     @param rows number of rows in the table
+     */
+    public InventoryView(String category, int components, int rows) {
+        this.category = category;
+        this.components = components;
+        this.masks = new byte[rows];
+        this.prices = new int[rows];
+        this.types = new int[rows];
+    }
+
+    /**
+     @param table chair array in database order
+     @return view of the chairs
+     */
+    public static InventoryView ofChairs(Chair[] table) {
+        return ofChairs(table, null);
+    }
+
+    /**
+     Refreshes a view after the chair table was reloaded. The previous view is updated in place, logging the rows that
+     changed, when it has the same number of rows; otherwise a new view is built.
+     @param table chair array in database order
+     @param previous view built from the last load, or null
+     @return view of the chairs
+     */
+    public static InventoryView ofChairs(Chair[] table, InventoryView previous) {
+        InventoryView view = previous;
+        if (view == null || view.size() != table.length) {
+            view = new InventoryView("chair", 4, table.length);
+        }
+        for (int i = 0; i < table.length; i++) {
+            view.setChair(i, table[i]);
+        }
+        view.logging = true;
+        return view;
+    }
+
+    /**
+     @param table desk array in database order
+     @return view of the desks
+     */
+    public static InventoryView ofDesks(Desk[] table) {
+        return ofDesks(table, null);
+    }
+
+    /**
+     Refreshes a view after the desk table was reloaded. The previous view is updated in place, logging the rows that
+     changed, when it has the same number of rows; otherwise a new view is built.
+     @param table desk array in database order
+     @param previous view built from the last load, or null
+     @return view of the desks
+     */
+    public static InventoryView ofDesks(Desk[] table, InventoryView previous) {
+        InventoryView view = previous;
+        if (view == null || view.size() != table.length) {
+            view = new InventoryView("desk", 3, table.length);
+        }
+        for (int i = 0; i < table.length; i++) {
+            view.setDesk(i, table[i]);
+        }
+        view.logging = true;
+        return view;
+    }
+
+    /**
+     @param table filing array in database order
+     @return view of the filings
+     */
+    public static InventoryView ofFilings(Filing[] table) {
+        return ofFilings(table, null);
+    }
+
+    /**
+     Refreshes a view after the filing table was reloaded. The previous view is updated in place, logging the rows that
+     changed, when it has the same number of rows; otherwise a new view is built.
+     @param table filing array in database order
+     @param previous view built from the last load, or null
+     @return view of the filings
+     */
+    public static InventoryView ofFilings(Filing[] table, InventoryView previous) {
+        InventoryView view = previous;
+        if (view == null || view.size() != table.length) {
+            view = new InventoryView("filing", 3, table.length);
+        }
+        for (int i = 0; i < table.length; i++) {
+            view.setFiling(i, table[i]);
+        }
+        view.logging = true;
+        return view;
+    }
+
+    /**
+     @param table lamp array in database order
+     @return view of the lamps
+     */
+    public static InventoryView ofLamps(Lamp[] table) {
+        return ofLamps(table, null);
+    }
+
+    /**
+     Refreshes a view after the lamp table was reloaded. The previous view is updated in place, logging the rows that
+     changed, when it has the same number of rows; otherwise a new view is built.
+     @param table lamp array in database order
+     @param previous view built from the last load, or null
+     @return view of the lamps
+     */
+    public static InventoryView ofLamps(Lamp[] table, InventoryView previous) {
+        InventoryView view = previous;
+        if (view == null || view.size() != table.length) {
+            view = new InventoryView("lamp", 2, table.length);
+        }
+        for (int i = 0; i < table.length; i++) {
+            view.setLamp(i, table[i]);
+        }
+        view.logging = true;
+        return view;
+    }
+
+    /**
+     Re-encodes one row from a chair object.
+     @param row row index
+     @param chair chair now stored at that row
+     */
+    public void setChair(int row, Chair chair) {
+        setRow(row, bit(chair.getLegs(), 0) | bit(chair.getArms(), 1) | bit(chair.getSeat(), 2)
+                | bit(chair.getCushion(), 3), chair.getPrice(), chair.getType());
+    }
+
+    /**
+     Re-encodes one row from a desk object.
+     @param row row index
+     @param desk desk now stored at that row
+     */
+    public void setDesk(int row, Desk desk) {
+        setRow(row, bit(desk.getLegs(), 0) | bit(desk.getTop(), 1) | bit(desk.getDrawer(), 2),
+                desk.getPrice(), desk.getType());
+    }
+
+    /**
+     Re-encodes one row from a filing object.
+     @param row row index
+     @param filing filing now stored at that row
+     */
+    public void setFiling(int row, Filing filing) {
+        setRow(row, bit(filing.getRails(), 0) | bit(filing.getDrawers(), 1) | bit(filing.getCabinet(), 2),
+                filing.getPrice(), filing.getType());
+    }
+
+    /**
+     Re-encodes one row from a lamp object.
+     @param row row index
+     @param lamp lamp now stored at that row
+     */
+    public void setLamp(int row, Lamp lamp) {
+        setRow(row, bit(lamp.getBase(), 0) | bit(lamp.getBulb(), 1), lamp.getPrice(), lamp.getType());
+    }
+
+    /**
+     Stores the encoded values of one row.
+     @param row row index
+     @param mask component bitmask
+     @param price price of the row
+     @param type type name of the row
+     */
+    public void setRow(int row, int mask, int price, String type) {
+        int ordinal = ordinalOf(type);
+        if (logging && masks[row] == (byte) mask && prices[row] == price && types[row] == ordinal) {
+            return; // nothing changed
+        }
+        count(row, -1);
+        this.masks[row] = (byte) mask;
+        this.prices[row] = price;
+        this.types[row] = ordinal;
+        count(row, 1);
+        logChange(row);
+    }
+
+    /**
+     Marks every component of a row as used, the same as setAllpieces("N") on the object.
+     @param row row index
+     */
+    public void clearRow(int row) {
+        if (this.masks[row] != 0) {
+            count(row, -1);
+            this.masks[row] = 0;
+            logChange(row);
+        }
+    }
+
+    /**
+     Adds or removes the components of a row from the supply counts of its type.
+     @param row row index
+     @param sign 1 to add the row, -1 to remove it
+     */
+    private void count(int row, int sign) {
+        int[] counts = supply.get(types[row]);
+        for (int c = 0; c < components; c++) {
+            if ((masks[row] & 1 << c) != 0) {
+                counts[c] += sign;
+            }
+        }
+    }
+
+    /**
+     @param type furniture type
+     @param component component bit position, e.g. 0 for the legs of a chair
+     @return number of rows of the type that still have the component
+     */
+    public int getSupply(String type, int component) {
+        Integer ordinal = typeOrdinals.get(type);
+        return ordinal == null ? 0 : supply.get(ordinal)[component];
+    }
+
+    /**
+     Each item needs one of every component and each row gives at most one of each, so the scarcest component limits
+     how many items the rows of a type can make.
+     @param type furniture type
+     @return largest number of items the rows of the type could make, 0 for a type with no rows
+     */
+    public int maxItems(String type) {
+        Integer ordinal = typeOrdinals.get(type);
+        if (ordinal == null) {
+            return 0;
+        }
+        int most = Integer.MAX_VALUE;
+        for (int count : supply.get(ordinal)) {
+            most = Math.min(most, count);
+        }
+        return most;
+    }
+
+    /**
+     Appends a row to the change log, once the view has been filled.
+     @param row row index
+     */
+    private void logChange(int row) {
+        if (!logging) {
+            return;
+        }
+        if (changes == changeLog.length) {
+            changeLog = Arrays.copyOf(changeLog, changes * 2);
+        }
+        changeLog[changes++] = row;
+    }
+
+    /**
+     @return number of changes logged, the position the next change will be logged at
+     */
+    public int getChangeCount() { return this.changes; }
+
+    /**
+     @param position position in the change log, below getChangeCount()
+     @return row index of that change
+     */
+    public int getChange(int position) { return this.changeLog[position]; }
+
+    /**
+     Builds the candidate table of one type: every row of that type that still has a component.
+     @param type furniture type
+     @return ComponentTable of the matching rows, in row order
+     */
+    public ComponentTable select(String type) {
+        Integer ordinal = typeOrdinals.get(type);
+        int wanted = ordinal == null ? -1 : ordinal;
+        int count = 0;
+        for (int i = 0; i < masks.length; i++) {
+            if (types[i] == wanted && masks[i] != 0) {
+                count++;
+            }
+        }
+        int[] rows = new int[count];
+        int[] rowMasks = new int[count];
+        int[] rowPrices = new int[count];
+        int k = 0;
+        for (int i = 0; i < masks.length; i++) {
+            if (types[i] == wanted && masks[i] != 0) {
+                rows[k] = i;
+                rowMasks[k] = masks[i];
+                rowPrices[k] = prices[i];
+                k++;
+            }
+        }
+        return new ComponentTable(category, type, components, rows, rowMasks, rowPrices);
+    }
+
+    /**
+     Returns the ordinal of a type name, adding it if it has not been seen. Type names are interned so every row of
+     a type shares one String.
+     @param type type name
+     @return ordinal of the type
+     */
+    private int ordinalOf(String type) {
+        Integer ordinal = typeOrdinals.get(type);
+        if (ordinal == null) {
+            ordinal = typeNames.size();
+            typeNames.add(type.intern());
+            typeOrdinals.put(type, ordinal);
+            supply.add(new int[components]);
+        }
+        return ordinal;
+    }
+
+    /**
+     Turns a "Y"/"N" column value into its component bit.
+     @param value column value
+     @param position bit position of the component
+     @return the component bit if the value is "Y", 0 otherwise
+     */
+    private static int bit(String value, int position) {
+        return "Y".equals(value) ? 1 << position : 0;
+    }
+
+    /**
+     @param row row index
+     @return component bitmask of the row
+     */
+    public int getMask(int row) { return this.masks[row]; }
+
+    /**
+     @param row row index
+     @return price of the row
+     */
+    public int getPrice(int row) { return this.prices[row]; }
+
+    /**
+     @param row row index
+     @return type name of the row
+     */
+    public String getType(int row) { return this.typeNames.get(this.types[row]); }
+
+    /**
+     @return number of rows
+     */
+    public int size() { return this.masks.length; }
+
+    /**
+     @return number of components that make up one item
+     */
+    public int getComponents() { return this.components; }
+
+    /**
+     @return furniture category of the rows
+     */
+    public String getCategory() { return this.category; }
+}
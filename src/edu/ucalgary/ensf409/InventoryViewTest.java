@@ -0,0 +1,89 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+
+/**
+ * Tests the bitmask encoding of @InventoryView and that it stays in step with row changes.
+ */
+public class InventoryViewTest
+{
+    private InventoryView testView;
+
+    @Before
+    public void setUp()
+    {
+        Chair[] chairs = {
+                new Chair("C0914", "Task", "N", "N", "Y", "Y", 50, "002"),
+                new Chair("C1148", "Task", "Y", "N", "Y", "Y", 125, "003"),
+                new Chair("C9890", "Mesh", "N", "Y", "N", "Y", 50, "003"),
+                new Chair("C3405", "Task", "Y", "Y", "N", "N", 100, "003")
+        };
+        testView = InventoryView.ofChairs(chairs);
+    }
+
+    /**
+     * testEncoding() checks each "Y" column sets the bit of its column position and the type is kept.
+     */
+    @Test
+    public void testEncoding()
+    {
+        Assert.assertEquals("Seat and cushion should be bits 2 and 3", 12, testView.getMask(0));
+        Assert.assertEquals("Legs, seat and cushion should be bits 0, 2 and 3", 13, testView.getMask(1));
+        Assert.assertEquals("Price should be kept", 125, testView.getPrice(1));
+        Assert.assertEquals("Type should be kept", "Mesh", testView.getType(2));
+    }
+
+    /**
+     * testSelect() checks only rows of the requested type are put in the candidate table, in row order.
+     */
+    @Test
+    public void testSelect()
+    {
+        ComponentTable table = testView.select("Task");
+
+        Assert.assertEquals("Three rows should be Task", 3, table.size());
+        Assert.assertEquals("First Task row should be row 0", 0, table.getRow(0));
+        Assert.assertEquals("Last Task row should be row 3", 3, table.getRow(2));
+        Assert.assertEquals("Unknown type should give no rows", 0, testView.select("Kneeling").size());
+    }
+
+    /**
+     * testClearAndSetRow() checks a cleared row leaves the candidate table and a replaced row is re-encoded.
+     */
+    @Test
+    public void testClearAndSetRow()
+    {
+        testView.clearRow(1);
+        testView.setChair(2, new Chair("C9890", "Task", "Y", "Y", "Y", "Y", 200, "003"));
+        ComponentTable table = testView.select("Task");
+
+        Assert.assertEquals("Cleared row should not be a candidate", 3, table.size());
+        Assert.assertEquals("Replaced row should now be a Task candidate", 2, table.getRow(1));
+        Assert.assertEquals("Replaced row should have every component", 15, table.getMask(1));
+    }
+
+    /**
+     * testSupplyCounters() checks the supply counts of a type follow cleared and replaced rows, and that the scarcest
+     * component limits the number of items.
+     */
+    @Test
+    public void testSupplyCounters()
+    {
+        Assert.assertEquals("Two Task rows should have legs", 2, testView.getSupply("Task", 0));
+        Assert.assertEquals("One Task row should have arms", 1, testView.maxItems("Task"));
+
+        testView.clearRow(3);
+        Assert.assertEquals("No Task row should have arms once row 3 is used", 0, testView.maxItems("Task"));
+
+        testView.setChair(2, new Chair("C9890", "Task", "Y", "Y", "Y", "Y", 200, "003"));
+        Assert.assertEquals("Three Task rows should have a seat", 3, testView.getSupply("Task", 2));
+        Assert.assertEquals("No Mesh row should be left", 0, testView.getSupply("Mesh", 3));
+        Assert.assertEquals("Unknown type should make no items", 0, testView.maxItems("Kneeling"));
+    }
+}
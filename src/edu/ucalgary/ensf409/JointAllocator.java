@@ -0,0 +1,344 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The JointAllocator class shares the rows of one furniture type between several pending orders of that type. Solving
+ * the orders one after another in arrival order lets an early order take rows a later one needed, leaving it unfilled
+ * or much more expensive. Each row can still only be used once, so the allocator tries the orders in other sequences,
+ * solving each one exactly on the rows the orders before it left, and keeps the sequence that fills the most orders
+ * and then costs the least.
+ *
+ * When there are at most MAX_EXHAUSTIVE orders every sequence is tried, otherwise the quantity orderings and random
+ * sequences improved by swapping pairs of orders are tried, up to MAX_TRIES, until the time budget is spent. This is a
+ * best effort heuristic: an allocation that is not the result of any sequence of exact solves is never considered, so
+ * the result is the best sequence found rather than a joint optimum. The arrival order is always tried first and
+ * always finished, so the result is never worse than solving the orders as they came in. Any other sequence the
+ * deadline interrupts part way through is dropped.
+ *
+ * Like the results of the solvers, every allocation carries a lower bound: the sum of the lowest price of each order
+ * solved alone on every row, over the orders that can be made alone. An allocation filling all of those orders at that
+ * price is flagged optimal. Otherwise the result of each order that costs more than it would alone is given its price
+ * alone as a lower bound and flagged as not proven optimal, so the order form says so.
+ */
+public class JointAllocator {
+    /** Largest number of orders for which every sequence is tried */
+    public static final int MAX_EXHAUSTIVE = 7;
+    /** Most sequences tried for a longer queue, so a search with no time limit still ends */
+    public static final int MAX_TRIES = 5040;
+
+    private final long budgetMillis; // time the search for a better sequence may take, 0 for no limit
+    private final Random random = new Random(409); // fixed seed, so the same queue gives the same allocation
+
+    /**
+     * Constructor for JointAllocator
+     * @param budgetMillis time the search for a better sequence may take, 0 for no limit
+     */
+    public JointAllocator(long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Allocates the rows of one type to a queue of orders of that type.
+     * @param table every candidate row of the type, not dominance filtered since rows are shared between orders
+     * @param quantities quantity of each order, in arrival order
+     * @return the best allocation found, with the arrival order allocation for comparison
+     */
+    public Allocation allocate(ComponentTable table, int[] quantities) {
+        long start = System.nanoTime();
+        long deadline = CombinationSolver.deadlineAfter(budgetMillis);
+        int k = quantities.length;
+        int[] arrival = new int[k];
+        for (int j = 0; j < k; j++) {
+            arrival[j] = j;
+        }
+        Allocation sequential = run(table, quantities, arrival, deadline, true);
+        Allocation best = sequential;
+        int tried = 1;
+        SolverResult[] alone = new SolverResult[k]; // each order solved on every row, for the lower bound
+        for (int j = 0; j < k; j++) {
+            ComponentTable candidates = DominanceFilter.filter(table, quantities[j]);
+            alone[j] = SolverSelector.automatic(candidates, quantities[j]).solve(candidates, quantities[j], deadline);
+        }
+
+        if (k <= MAX_EXHAUSTIVE) {
+            int[] sequence = arrival.clone();
+            while (nextPermutation(sequence) && !CombinationSolver.expired(deadline)) {
+                best = better(best, run(table, quantities, sequence, deadline, false));
+                tried++;
+            }
+        } else {
+            for (int[] sequence : new int[][]{byQuantity(quantities, false), byQuantity(quantities, true)}) {
+                best = better(best, run(table, quantities, sequence, deadline, false));
+                tried++;
+            }
+            while (!CombinationSolver.expired(deadline) && tried < MAX_TRIES) {
+                // swap two orders of the best sequence, or start again from a random one now and then
+                int[] sequence = best.sequence.clone();
+                if (random.nextInt(8) == 0) {
+                    shuffle(sequence);
+                } else {
+                    int a = random.nextInt(k);
+                    int b = random.nextInt(k);
+                    int swap = sequence[a];
+                    sequence[a] = sequence[b];
+                    sequence[b] = swap;
+                }
+                best = better(best, run(table, quantities, sequence, deadline, false));
+                tried++;
+            }
+        }
+        best.bound(alone);
+        if (sequential != best) {
+            sequential.bound(alone);
+        }
+        best.baseline = sequential;
+        best.tried = tried;
+        best.elapsedNanos = System.nanoTime() - start;
+        return best;
+    }
+
+    /**
+     * Solves the orders one after another in the given sequence, each on the rows the earlier ones left. The deadline
+     * is checked before every order and passed to every solve. A sequence that must be finished keeps the best
+     * combination each solve found by the deadline, any other is dropped as soon as the deadline passes, so every
+     * sequence compared with it was solved to the lowest price.
+     * @param table every candidate row of the type
+     * @param quantities quantity of each order, in arrival order
+     * @param sequence order in which to solve them
+     * @param deadline System.nanoTime() value to stop at, or NO_DEADLINE
+     * @param finish true to solve every order even once the deadline has passed
+     * @return the allocation made by that sequence, null if the deadline passed before it was finished
+     */
+    private static Allocation run(ComponentTable table, int[] quantities, int[] sequence, long deadline, boolean finish) {
+        int rows = 0;
+        for (int p = 0; p < table.size(); p++) {
+            rows = Math.max(rows, table.getRow(p) + 1);
+        }
+        boolean[] used = new boolean[rows]; // indexed by row in the database furniture array
+        SolverResult[] results = new SolverResult[quantities.length];
+        int unfilled = 0;
+        long cost = 0;
+        for (int j : sequence) {
+            if (!finish && CombinationSolver.expired(deadline)) {
+                return null; // out of time part way through the sequence
+            }
+            ComponentTable left = DominanceFilter.filter(remaining(table, used), quantities[j]);
+            SolverResult result = SolverSelector.automatic(left, quantities[j]).solve(left, quantities[j], deadline);
+            if (!finish && !result.isOptimal()) {
+                return null; // the solve was cut short, so this is not the price the sequence would get
+            }
+            results[j] = result;
+            if (result.getPrice() == 0) {
+                unfilled++;
+                continue;
+            }
+            cost += result.getPrice();
+            for (int row : result.getIndexes()) {
+                used[row] = true;
+            }
+        }
+        return new Allocation(sequence.clone(), results, unfilled, cost);
+    }
+
+    /**
+     * @return a table of the rows not yet used, in the same order
+     */
+    private static ComponentTable remaining(ComponentTable table, boolean[] used) {
+        int count = 0;
+        for (int p = 0; p < table.size(); p++) {
+            if (!used[table.getRow(p)]) {
+                count++;
+            }
+        }
+        int[] rows = new int[count];
+        int[] masks = new int[count];
+        int[] prices = new int[count];
+        int k = 0;
+        for (int p = 0; p < table.size(); p++) {
+            if (!used[table.getRow(p)]) {
+                rows[k] = table.getRow(p);
+                masks[k] = table.getMask(p);
+                prices[k] = table.getPrice(p);
+                k++;
+            }
+        }
+        return new ComponentTable(table.getCategory(), table.getType(), table.getComponents(), rows, masks, prices);
+    }
+
+    /**
+     * @return the allocation that leaves fewer orders unfilled, then the cheaper one, keeping a on ties or if b was
+     *         dropped
+     */
+    private static Allocation better(Allocation a, Allocation b) {
+        if (b == null) {
+            return a;
+        }
+        if (b.unfilled != a.unfilled) {
+            return b.unfilled < a.unfilled ? b : a;
+        }
+        return b.cost < a.cost ? b : a;
+    }
+
+    /**
+     * Rearranges the sequence into the next one in lexicographic order.
+     * @return false if the sequence was already the last one
+     */
+    private static boolean nextPermutation(int[] sequence) {
+        int i = sequence.length - 2;
+        while (i >= 0 && sequence[i] >= sequence[i + 1]) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+        int j = sequence.length - 1;
+        while (sequence[j] <= sequence[i]) {
+            j--;
+        }
+        int swap = sequence[i];
+        sequence[i] = sequence[j];
+        sequence[j] = swap;
+        for (int a = i + 1, b = sequence.length - 1; a < b; a++, b--) {
+            swap = sequence[a];
+            sequence[a] = sequence[b];
+            sequence[b] = swap;
+        }
+        return true;
+    }
+
+    /**
+     * @return the orders sorted by quantity, ties kept in arrival order
+     */
+    private static int[] byQuantity(int[] quantities, boolean largestFirst) {
+        Integer[] sorted = new Integer[quantities.length];
+        for (int j = 0; j < sorted.length; j++) {
+            sorted[j] = j;
+        }
+        Arrays.sort(sorted, (a, b) -> largestFirst ? Integer.compare(quantities[b], quantities[a])
+                : Integer.compare(quantities[a], quantities[b]));
+        int[] sequence = new int[sorted.length];
+        for (int j = 0; j < sequence.length; j++) {
+            sequence[j] = sorted[j];
+        }
+        return sequence;
+    }
+
+    private void shuffle(int[] sequence) {
+        for (int i = sequence.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = sequence[i];
+            sequence[i] = sequence[j];
+            sequence[j] = swap;
+        }
+    }
+
+    /**
+     * Outcome of allocating the rows of one type to a queue of orders.
+     */
+    public static class Allocation {
+        private final int[] sequence; // order in which the orders were solved
+        private final SolverResult[] results; // result of each order, in arrival order
+        private final int unfilled; // orders that could not be made
+        private final long cost; // total price of the orders that were made
+        private Allocation baseline; // allocation made by solving the orders in arrival order
+        private int tried; // number of sequences tried
+        private long elapsedNanos; // time the allocation took
+        private long lowerBound; // sum of the lowest price of each order that can be made alone
+        private boolean optimal; // true if no allocation fills more orders or fills them for less
+
+        Allocation(int[] sequence, SolverResult[] results, int unfilled, long cost) {
+            this.sequence = sequence;
+            this.results = results;
+            this.unfilled = unfilled;
+            this.cost = cost;
+        }
+
+        /**
+         * Sets the lower bound and optimality of the allocation from the result of each order solved alone, and gives
+         * every order that costs more than it would alone that price as its lower bound.
+         * @param alone result of each order solved on every row, in arrival order
+         */
+        private void bound(SolverResult[] alone) {
+            int possible = 0;
+            lowerBound = 0;
+            for (SolverResult result : alone) {
+                if (result.isFound()) {
+                    possible++;
+                    lowerBound += result.getLowerBound();
+                }
+            }
+            optimal = unfilled == alone.length - possible && cost == lowerBound;
+            for (int j = 0; j < results.length; j++) {
+                if (results[j].isFound() && results[j].getPrice() > alone[j].getLowerBound()) {
+                    results[j].setBound(alone[j].getLowerBound(), false);
+                }
+            }
+        }
+
+        /**
+         * @param order position of the order in arrival order
+         * @return its search result, price 0 if it cannot be made. Its lower bound is the price of the order alone.
+         */
+        public SolverResult getResult(int order) { return this.results[order]; }
+
+        /**
+         * @return the order in which the orders were solved
+         */
+        public int[] getSequence() { return this.sequence.clone(); }
+
+        /**
+         * @return number of orders that could not be made
+         */
+        public int getUnfilled() { return this.unfilled; }
+
+        /**
+         * @return total price of the orders that were made
+         */
+        public long getCost() { return this.cost; }
+
+        /**
+         * @return the allocation made by solving the orders in arrival order
+         */
+        public Allocation getBaseline() { return this.baseline; }
+
+        /**
+         * @return orders filled beyond those filled in arrival order
+         */
+        public int getExtraFilled() { return this.baseline.unfilled - this.unfilled; }
+
+        /**
+         * @return dollars saved against arrival order, only meaningful when getExtraFilled() is 0
+         */
+        public long getSavings() { return this.baseline.cost - this.cost; }
+
+        /**
+         * @return sum of the lowest price of each order that can be made alone, no allocation filling them all costs less
+         */
+        public long getLowerBound() { return this.lowerBound; }
+
+        /**
+         * @return true if every order that can be made alone was filled for the lower bound, so no allocation is better
+         */
+        public boolean isOptimal() { return this.optimal; }
+
+        /**
+         * @return number of sequences tried
+         */
+        public int getTried() { return this.tried; }
+
+        /**
+         * @return time the allocation took in milliseconds
+         */
+        public double getElapsedMillis() { return this.elapsedNanos / 1_000_000.0; }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.util.*;
+
+/**
+ * Tests that @JointAllocator shares the rows of a type between orders better than arrival order does.
+ */
+public class JointAllocatorTest
+{
+    private ComponentTable testTable;
+
+    @Before
+    public void setUp()
+    {
+        Desk[] desks = {
+                new Desk("D3820", "Standing", "Y", "N", "Y", 100, "001"),
+                new Desk("D4475", "Standing", "Y", "N", "Y", 250, "002"),
+                new Desk("D2341", "Standing", "N", "Y", "N", 200, "001"),
+                new Desk("D9387", "Standing", "Y", "Y", "N", 100, "004"),
+                new Desk("D1927", "Standing", "N", "Y", "Y", 200, "005")
+        };
+        testTable = InventoryView.ofDesks(desks).select("Standing");
+    }
+
+    /**
+     * testFillsLaterOrder() orders one desk and then two. In arrival order the first order takes rows 0 and 3 and the
+     * second cannot be made, jointly the second order takes rows 0, 3 and 4 and the first rows 1 and 2.
+     */
+    @Test
+    public void testFillsLaterOrder()
+    {
+        JointAllocator.Allocation allocation = new JointAllocator(0).allocate(testTable, new int[]{1, 2});
+
+        Assert.assertEquals("Arrival order should leave one order unfilled", 1, allocation.getBaseline().getUnfilled());
+        Assert.assertEquals("Joint allocation should fill both orders", 0, allocation.getUnfilled());
+        Assert.assertEquals("Joint allocation should fill one more order", 1, allocation.getExtraFilled());
+        Assert.assertEquals("First order should use rows 1 and 2", Arrays.asList(1, 2), allocation.getResult(0).getIndexes());
+        Assert.assertEquals("Second order should use rows 0, 3 and 4", Arrays.asList(0, 3, 4), allocation.getResult(1).getIndexes());
+        Assert.assertEquals("Total price should be $850", 850, allocation.getCost());
+    }
+
+    /**
+     * testSingleOrderMatchesSolver() checks a queue of one order gets the same price as solving it alone.
+     */
+    @Test
+    public void testSingleOrderMatchesSolver()
+    {
+        JointAllocator.Allocation allocation = new JointAllocator(0).allocate(testTable, new int[]{1});
+
+        Assert.assertEquals("Price should match the solver", new DynamicSolver().solve(testTable, 1).getPrice(), allocation.getCost());
+        Assert.assertEquals("Nothing should be saved", 0, allocation.getSavings());
+    }
+
+    /**
+     * testLowerBound() checks the bound of the allocation in testFillsLaterOrder. Alone the first order costs $200 and
+     * the second $400, so the $850 allocation is not proven lowest. The first order costs more than it would alone and
+     * must say so, the second costs the same and stays optimal.
+     */
+    @Test
+    public void testLowerBound()
+    {
+        JointAllocator.Allocation allocation = new JointAllocator(0).allocate(testTable, new int[]{1, 2});
+
+        Assert.assertEquals("Lower bound should be the sum of the prices alone", 600, allocation.getLowerBound());
+        Assert.assertFalse("An allocation above its bound should not be flagged optimal", allocation.isOptimal());
+        Assert.assertFalse("The first order costs more than alone", allocation.getResult(0).isOptimal());
+        Assert.assertEquals("Its lower bound should be its price alone", 200, allocation.getResult(0).getLowerBound());
+        Assert.assertTrue("The second order costs the same as alone", allocation.getResult(1).isOptimal());
+    }
+
+    /**
+     * testSingleOrderIsOptimal() checks a queue of one order meets its bound, so it is flagged optimal.
+     */
+    @Test
+    public void testSingleOrderIsOptimal()
+    {
+        JointAllocator.Allocation allocation = new JointAllocator(0).allocate(testTable, new int[]{1});
+
+        Assert.assertEquals("Lower bound should be the price alone", allocation.getCost(), allocation.getLowerBound());
+        Assert.assertTrue("A single order at its price alone should be optimal", allocation.isOptimal());
+    }
+
+    /**
+     * testDeadlineKeepsArrivalOrder() gives a long queue on a large generated table a budget of 1 ms. Sequences the
+     * deadline cuts short are dropped, but the arrival order is finished, so every order has a result and the
+     * allocation is never worse than arrival order.
+     */
+    @Test
+    public void testDeadlineKeepsArrivalOrder()
+    {
+        ComponentTable table = SolverBenchmark.randomTable(409, "chair", 4, 200);
+        int[] quantities = {2, 1, 3, 1, 2, 1, 1, 2, 1};
+        JointAllocator.Allocation allocation = new JointAllocator(1).allocate(table, quantities);
+
+        for (int j = 0; j < quantities.length; j++) {
+            Assert.assertNotNull("Order " + j + " should have a result", allocation.getResult(j));
+        }
+        Assert.assertTrue("Joint allocation should not fill fewer orders",
+                allocation.getUnfilled() <= allocation.getBaseline().getUnfilled());
+        Assert.assertTrue("Lower bound should not exceed the cost when every order is filled",
+                allocation.getUnfilled() > 0 || allocation.getLowerBound() <= allocation.getCost());
+    }
+}
@@ -0,0 +1,507 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * The LargeOrderSolver class handles orders of hundreds or thousands of items, where the state tables of the dynamic
+ * programs no longer fit and the depth of a tree search grows with the quantity. Everything is done in loops over the
+ * mask classes of a @ClassView, so there is no recursion and the running time is polynomial in the quantity:
+ *  1. if the exact @ClassSolver makes at most @ClassSolver.MAX_WORK passes over its states, it is used
+ *  2. otherwise the linear relaxation is solved with a bounded variable simplex. Each class contributes one variable
+ *     per row it may use, at most quantity, so there are as many constraints as components and the basis is at most
+ *     4 by 4. A basic solution has at most that many fractional rows, and rounding the class counts up makes the order
+ *  3. the counts are improved by moves that drop one or two rows and add up to two others, as long as every
+ *     component stays covered and the price goes down
+ *
+ * The simplex duals give a lower bound on the lowest price even if the deadline stops the simplex early, so the result
+ * reports how far from optimal it can be (see @SolverResult.getGap). It is optimal when the price meets the bound.
+ */
+public class LargeOrderSolver implements CombinationSolver {
+    /** Smallest quantity automatic selection sends here once neither dynamic program fits */
+    public static final int MIN_QUANTITY = 32;
+    private static final double EPS = 1e-9; // tolerance of the simplex
+    private static final int DEGENERATE_LIMIT = 50; // pivots in a row that do not move before Bland's rule is used
+
+    /**
+     * Finds a low price combination of rows that makes the requested number of items.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @return SolverResult with the price, the row indexes and the lower bound, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number) {
+        return solve(table, number, NO_DEADLINE);
+    }
+
+    /**
+     * Finds a low price combination, cutting the simplex and the improvement short once the deadline has passed.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @param deadline System.nanoTime() value to stop at, or NO_DEADLINE
+     * @return SolverResult with the price, the row indexes and the lower bound, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number, long deadline) {
+        long start = System.nanoTime();
+        ClassView view = new ClassView(table);
+        int classes = view.getClassCount();
+        int components = view.getComponents();
+        if (ClassSolver.work(table, number) <= ClassSolver.MAX_WORK) {
+            return new ClassSolver().solve(table, number, deadline);
+        }
+        int[] limit = new int[classes]; // rows each class may use, no class needs more than number
+        int[] supply = new int[components];
+        for (int m = 0; m < classes; m++) {
+            limit[m] = Math.min(view.size(m), number);
+            for (int c = 0; c < components; c++) {
+                if ((view.getMask(m) >> c & 1) != 0) {
+                    supply[c] += limit[m];
+                }
+            }
+        }
+        for (int count : supply) {
+            if (count < number) { // some component is too scarce
+                return new SolverResult(0, new ArrayList<Integer>(), System.nanoTime() - start);
+            }
+        }
+
+        Relaxation lp = new Relaxation(view, limit, number, deadline);
+        lp.run();
+        int[] counts = new int[classes];
+        for (int m = 0; m < classes; m++) {
+            counts[m] = Math.min(limit[m], (int) Math.ceil(lp.count(m) - 1e-6)); // rounding up keeps every component covered
+        }
+        repair(view, limit, counts, number);
+        improve(view, limit, counts, number, deadline);
+
+        ArrayList<Integer> indexes = new ArrayList<Integer>();
+        long price = 0;
+        for (int m = 0; m < classes; m++) {
+            price += view.cost(m, counts[m]);
+            for (int rank = 0; rank < counts[m]; rank++) {
+                indexes.add(view.getRow(m, rank));
+            }
+        }
+        Collections.sort(indexes);
+        int bound = (int) Math.min(price, Math.ceil(lp.lowerBound() - 1e-6)); // prices are whole dollars
+        SolverResult result = new SolverResult((int) price, indexes, System.nanoTime() - start);
+        result.setBound(bound, bound == price);
+        return result;
+    }
+
+    /**
+     * @return "large"
+     */
+    @Override
+    public String getName() { return "large"; }
+
+    /**
+     * Adds rows until every component is covered, each time taking the next row of the class that covers the most
+     * missing components per dollar. Only needed when the simplex was stopped before it was feasible.
+     */
+    private static void repair(ClassView view, int[] limit, int[] counts, int number) {
+        int[] have = coverage(view, counts);
+        while (true) {
+            int best = -1;
+            double bestRate = 0;
+            for (int m = 0; m < counts.length; m++) {
+                if (counts[m] == limit[m]) {
+                    continue;
+                }
+                int useful = 0;
+                for (int c = 0; c < have.length; c++) {
+                    if ((view.getMask(m) >> c & 1) != 0 && have[c] < number) {
+                        useful++;
+                    }
+                }
+                double rate = useful / (view.cost(m, counts[m] + 1) - view.cost(m, counts[m]) + 1.0);
+                if (useful > 0 && rate > bestRate) {
+                    best = m;
+                    bestRate = rate;
+                }
+            }
+            if (best < 0) {
+                return; // covered, or nothing left that helps
+            }
+            counts[best]++;
+            for (int c = 0; c < have.length; c++) {
+                if ((view.getMask(best) >> c & 1) != 0) {
+                    have[c]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Local improvement over the class counts. Each pass tries every move that takes one or two rows out, the most
+     * expensive of their classes, and puts up to two rows in, the cheapest unused of their classes, and makes the one
+     * that saves the most while every component stays covered. Passes stop when no move saves anything or the
+     * deadline has passed. Also used by the @GreedySolver.
+     * @param view classes of the candidate rows
+     * @param limit rows each class may use
+     * @param counts rows taken from each class, changed in place
+     * @param number number of desired furniture items
+     * @param deadline System.nanoTime() value to stop at, or NO_DEADLINE
+     */
+    static void improve(ClassView view, int[] limit, int[] counts, int number, long deadline) {
+        int classes = counts.length;
+        int[] delta = new int[classes];
+        while (!CombinationSolver.expired(deadline)) {
+            int[] have = coverage(view, counts);
+            long bestSaving = 0;
+            int[] bestMove = null;
+            for (int a = 0; a < classes; a++) {
+                for (int b = -1; b < classes; b++) {
+                    for (int d = -1; d < classes; d++) {
+                        for (int e = d; e < classes; e++) {
+                            if ((b >= 0 && b < a) || (d >= 0 && (d == a || d == b)) || (e >= 0 && (e == a || e == b))) {
+                                continue; // each move is tried once and never puts back a row it took out
+                            }
+                            int[] move = {a, b, d, e};
+                            apply(delta, move, 1);
+                            long saving = saving(view, limit, counts, have, delta, number);
+                            apply(delta, move, -1);
+                            if (saving > bestSaving) {
+                                bestSaving = saving;
+                                bestMove = move;
+                            }
+                        }
+                    }
+                }
+            }
+            if (bestMove == null) {
+                return;
+            }
+            apply(counts, bestMove, 1);
+        }
+    }
+
+    /**
+     * Adds a move to the class counts: the first two classes of the move lose a row, the last two gain one, and -1
+     * stands for no class.
+     * @param counts counts to change
+     * @param move classes a, b taken from and d, e added to
+     * @param sign 1 to make the move, -1 to undo it
+     */
+    private static void apply(int[] counts, int[] move, int sign) {
+        for (int i = 0; i < move.length; i++) {
+            if (move[i] >= 0) {
+                counts[move[i]] += (i < 2 ? -sign : sign);
+            }
+        }
+    }
+
+    /**
+     * Works out what a move saves.
+     * @param delta change to each class count the move makes
+     * @return the price saved, or 0 if the move is not possible or leaves a component short
+     */
+    private static long saving(ClassView view, int[] limit, int[] counts, int[] have, int[] delta, int number) {
+        long saving = 0;
+        int[] covered = have.clone();
+        for (int m = 0; m < counts.length; m++) {
+            if (delta[m] == 0) {
+                continue;
+            }
+            int after = counts[m] + delta[m];
+            if (after < 0 || after > limit[m]) {
+                return 0;
+            }
+            saving += view.cost(m, counts[m]) - view.cost(m, after);
+            for (int c = 0; c < covered.length; c++) {
+                if ((view.getMask(m) >> c & 1) != 0) {
+                    covered[c] += delta[m];
+                }
+            }
+        }
+        for (int count : covered) {
+            if (count < number) {
+                return 0;
+            }
+        }
+        return saving;
+    }
+
+    /**
+     * @return number of rows covering each component for the given class counts
+     */
+    private static int[] coverage(ClassView view, int[] counts) {
+        int[] have = new int[view.getComponents()];
+        for (int m = 0; m < counts.length; m++) {
+            for (int c = 0; c < have.length; c++) {
+                if ((view.getMask(m) >> c & 1) != 0) {
+                    have[c] += counts[m];
+                }
+            }
+        }
+        return have;
+    }
+
+    /**
+     * Linear relaxation of the order: every usable row is a variable between 0 and 1 and each component must be
+     * covered number times. It is solved with a revised primal simplex on bounded variables, starting from an
+     * artificial variable per component that the big-M cost drives out.
+     */
+    private static class Relaxation {
+        private final int k; // number of constraints, one per component
+        private final int segments; // number of row variables
+        private final int[] classOf; // class of each row variable
+        private final int[] masks; // component mask of each class
+        private final double[] cost; // cost of every variable: row prices, then 0 for surplus, then M for artificial
+        private final int number; // order quantity, the right hand side of every constraint
+        private final long deadline; // System.nanoTime() value to stop at
+        private final int[] basis; // variable in each basis position
+        private final int[] position; // basis position of each variable, -1 if it is not basic
+        private final boolean[] atUpper; // true for a row variable that is not basic and set to 1
+        private final double[] upperSum; // for each constraint, rows set to 1 that cover it
+        private double[][] inverse; // inverse of the basis matrix
+        private double[] values; // value of each basic variable
+        private double[] duals; // simplex multipliers of the constraints
+
+        Relaxation(ClassView view, int[] limit, int number, long deadline) {
+            this.k = view.getComponents();
+            this.number = number;
+            this.deadline = deadline;
+            int total = 0;
+            for (int used : limit) {
+                total += used;
+            }
+            this.segments = total;
+            this.classOf = new int[total];
+            this.cost = new double[total + 2 * k];
+            double big = 1;
+            for (int m = 0, j = 0; m < limit.length; m++) {
+                for (int rank = 0; rank < limit[m]; rank++, j++) {
+                    classOf[j] = m;
+                    cost[j] = view.cost(m, rank + 1) - view.cost(m, rank);
+                    big += cost[j];
+                }
+            }
+            this.masks = new int[limit.length];
+            for (int m = 0; m < limit.length; m++) {
+                masks[m] = view.getMask(m);
+            }
+            for (int c = 0; c < k; c++) {
+                cost[total + k + c] = big; // more than any set of rows costs, so artificials leave whenever they can
+            }
+            this.basis = new int[k];
+            this.position = new int[total + 2 * k];
+            Arrays.fill(position, -1);
+            for (int c = 0; c < k; c++) {
+                basis[c] = total + k + c;
+                position[total + k + c] = c;
+            }
+            this.atUpper = new boolean[total];
+            this.upperSum = new double[k];
+        }
+
+        /**
+         * Pivots until no variable can lower the cost, the deadline passes or an iteration limit is reached.
+         */
+        void run() {
+            refresh();
+            int degenerate = 0;
+            long iterations = 0;
+            long maxIterations = 50L * (segments + 2 * k);
+            while (iterations++ < maxIterations && !CombinationSolver.expired(deadline)) {
+                int entering = -1;
+                double bestScore = EPS;
+                boolean bland = degenerate > DEGENERATE_LIMIT;
+                for (int j = 0; j < cost.length; j++) {
+                    if (position[j] >= 0) {
+                        continue;
+                    }
+                    double reduced = cost[j] - dot(duals, j);
+                    double score = j < segments && atUpper[j] ? reduced : -reduced; // gain per unit moved
+                    if (score > bestScore) {
+                        entering = j;
+                        bestScore = score;
+                        if (bland) {
+                            break; // Bland's rule: lowest index that improves, which cannot cycle
+                        }
+                    }
+                }
+                if (entering < 0) {
+                    return; // optimal
+                }
+                double direction = entering < segments && atUpper[entering] ? -1 : 1;
+                double[] w = times(inverse, entering);
+                // basic variable i moves by -direction * w[i] per unit the entering variable moves
+                double step = entering < segments ? 1 : Double.POSITIVE_INFINITY;
+                int leaving = -1;
+                boolean leavesUpper = false;
+                for (int i = 0; i < k; i++) {
+                    double move = -direction * w[i];
+                    int var = basis[i];
+                    if (move < -EPS && values[i] / -move < step) {
+                        step = values[i] / -move;
+                        leaving = i;
+                        leavesUpper = false;
+                    } else if (move > EPS && var < segments && (1 - values[i]) / move < step) {
+                        step = (1 - values[i]) / move;
+                        leaving = i;
+                        leavesUpper = true;
+                    }
+                }
+                if (step == Double.POSITIVE_INFINITY) {
+                    return; // unbounded, cannot happen with non-negative prices
+                }
+                degenerate = step < EPS ? degenerate + 1 : 0;
+                if (leaving < 0) { // the entering row reaches its other bound before any basic variable does
+                    flip(entering, !atUpper[entering]);
+                } else {
+                    int out = basis[leaving];
+                    if (entering < segments && atUpper[entering]) {
+                        flip(entering, false);
+                    }
+                    basis[leaving] = entering;
+                    position[entering] = leaving;
+                    position[out] = -1;
+                    if (out < segments) {
+                        flip(out, leavesUpper);
+                    }
+                }
+                refresh();
+            }
+        }
+
+        /**
+         * Sets a non-basic row variable to 0 or 1.
+         */
+        private void flip(int j, boolean upper) {
+            if (atUpper[j] == upper) {
+                return;
+            }
+            atUpper[j] = upper;
+            for (int c = 0; c < k; c++) {
+                if ((masks[classOf[j]] >> c & 1) != 0) {
+                    upperSum[c] += upper ? 1 : -1;
+                }
+            }
+        }
+
+        /**
+         * Recomputes the basis inverse, the basic values and the duals from the current basis.
+         */
+        private void refresh() {
+            double[][] matrix = new double[k][2 * k];
+            for (int i = 0; i < k; i++) {
+                for (int r = 0; r < k; r++) {
+                    matrix[r][i] = entry(basis[i], r);
+                }
+                matrix[i][k + i] = 1;
+            }
+            for (int col = 0; col < k; col++) { // Gauss-Jordan with partial pivoting
+                int pivot = col;
+                for (int r = col + 1; r < k; r++) {
+                    if (Math.abs(matrix[r][col]) > Math.abs(matrix[pivot][col])) {
+                        pivot = r;
+                    }
+                }
+                double[] swap = matrix[col];
+                matrix[col] = matrix[pivot];
+                matrix[pivot] = swap;
+                double scale = matrix[col][col];
+                for (int x = 0; x < 2 * k; x++) {
+                    matrix[col][x] /= scale;
+                }
+                for (int r = 0; r < k; r++) {
+                    if (r != col && matrix[r][col] != 0) {
+                        double factor = matrix[r][col];
+                        for (int x = 0; x < 2 * k; x++) {
+                            matrix[r][x] -= factor * matrix[col][x];
+                        }
+                    }
+                }
+            }
+            inverse = new double[k][k];
+            for (int r = 0; r < k; r++) {
+                System.arraycopy(matrix[r], k, inverse[r], 0, k);
+            }
+            values = new double[k];
+            for (int i = 0; i < k; i++) {
+                for (int r = 0; r < k; r++) {
+                    values[i] += inverse[i][r] * (number - upperSum[r]);
+                }
+            }
+            duals = new double[k];
+            for (int r = 0; r < k; r++) {
+                for (int i = 0; i < k; i++) {
+                    duals[r] += cost[basis[i]] * inverse[i][r];
+                }
+            }
+        }
+
+        /**
+         * @return coefficient of variable j in constraint r
+         */
+        private double entry(int j, int r) {
+            if (j < segments) {
+                return masks[classOf[j]] >> r & 1;
+            }
+            if (j < segments + k) {
+                return j - segments == r ? -1 : 0; // surplus
+            }
+            return j - segments - k == r ? 1 : 0; // artificial
+        }
+
+        private double dot(double[] y, int j) {
+            double sum = 0;
+            for (int r = 0; r < k; r++) {
+                sum += y[r] * entry(j, r);
+            }
+            return sum;
+        }
+
+        private double[] times(double[][] matrix, int j) {
+            double[] result = new double[k];
+            for (int i = 0; i < k; i++) {
+                for (int r = 0; r < k; r++) {
+                    result[i] += matrix[i][r] * entry(j, r);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @param m class number
+         * @return number of rows of the class the relaxation uses, possibly fractional
+         */
+        double count(int m) {
+            double sum = 0;
+            for (int j = 0; j < segments; j++) {
+                if (classOf[j] == m) {
+                    sum += position[j] >= 0 ? values[position[j]] : atUpper[j] ? 1 : 0;
+                }
+            }
+            return sum;
+        }
+
+        /**
+         * Lagrangian bound from the current duals, valid whether or not the simplex finished: for multipliers y of at
+         * least 0, every order costs at least number * sum(y) + sum over rows of min(0, price - y . components).
+         * @return lower bound on the lowest price
+         */
+        double lowerBound() {
+            double[] y = new double[k];
+            double bound = 0;
+            for (int r = 0; r < k; r++) {
+                y[r] = Math.max(0, duals[r]);
+                bound += number * y[r];
+            }
+            for (int j = 0; j < segments; j++) {
+                bound += Math.min(0, cost[j] - dot(y, j));
+            }
+            return Math.max(0, bound);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.util.*;
+
+/**
+ * Tests the @LargeOrderSolver on generated tables large enough that it cannot hand the order to the @ClassSolver.
+ */
+public class LargeOrderSolverTest
+{
+    /**
+     * testLampsMatchExact() orders 300 lamps, past the work limit of the class program, and checks the price against
+     * the class program run directly.
+     */
+    @Test
+    public void testLampsMatchExact()
+    {
+        ComponentTable table = SolverBenchmark.randomTable(7, "lamp", 2, 1500);
+        SolverResult result = new LargeOrderSolver().solve(table, 300);
+
+        Assert.assertTrue("Order should be past the class program work limit", ClassSolver.work(table, 300) > ClassSolver.MAX_WORK);
+        Assert.assertEquals("Price should match the exact solver", new ClassSolver().solve(table, 300).getPrice(), result.getPrice());
+        assertCovers(table, 300, result);
+    }
+
+    /**
+     * testLargeChairOrder() orders 500 chairs and checks every component is covered, the rows are distinct and the
+     * price is within 1% of the lower bound.
+     */
+    @Test
+    public void testLargeChairOrder()
+    {
+        ComponentTable table = SolverBenchmark.randomTable(409, "chair", 4, 4000);
+        SolverResult result = new LargeOrderSolver().solve(table, 500);
+
+        assertCovers(table, 500, result);
+        Assert.assertTrue("Lower bound should not be above the price", result.getLowerBound() <= result.getPrice());
+        Assert.assertTrue("Gap should be under 1%", result.getGapPercent() < 1.0);
+    }
+
+    /**
+     * testImpossibleOrder() orders more chairs than there are rows, which must return price 0.
+     */
+    @Test
+    public void testImpossibleOrder()
+    {
+        ComponentTable table = SolverBenchmark.randomTable(409, "chair", 4, 100);
+        SolverResult result = new LargeOrderSolver().solve(table, 101);
+
+        Assert.assertEquals("Price should be 0 when the order cannot be made", 0, result.getPrice());
+        Assert.assertFalse("No combination should be found", result.isFound());
+    }
+
+    /**
+     * Checks the rows of a result are distinct, add up to its price and cover every component number times.
+     */
+    private static void assertCovers(ComponentTable table, int number, SolverResult result)
+    {
+        HashMap<Integer, Integer> position = new HashMap<Integer, Integer>();
+        for (int i = 0; i < table.size(); i++) {
+            position.put(table.getRow(i), i);
+        }
+        int[] covered = new int[table.getComponents()];
+        int price = 0;
+        for (int row : result.getIndexes()) {
+            int i = position.get(row);
+            price += table.getPrice(i);
+            for (int c = 0; c < covered.length; c++) {
+                covered[c] += table.getMask(i) >> c & 1;
+            }
+        }
+        Assert.assertEquals("Rows should be distinct", result.getIndexes().size(), new HashSet<Integer>(result.getIndexes()).size());
+        Assert.assertEquals("Rows should add up to the price", result.getPrice(), price);
+        for (int count : covered) {
+            Assert.assertTrue("Every component should be covered", count >= number);
+        }
+    }
+}
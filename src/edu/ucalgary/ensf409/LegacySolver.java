@@ -0,0 +1,86 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+
+/**
+ * The LegacySolver class runs the original recursive searches in @CreateOrder (chairPrice, deskPrice, filingPrice and
+ * lampPrice) behind the @CombinationSolver interface. Its running time is exponential in the number of rows, so it is
+ * kept as a reference to compare the faster solvers against rather than for production use.
+ *
+ * Built with stack set, the same search is run through @CreateOrder.stackPrice, which visits the same combinations and
+ * keeps the same one without creating objects per search node.
+ */
+public class LegacySolver implements CombinationSolver {
+    private final CreateOrder co; // holds the database arrays and the lowest combination found
+    private final boolean stack; // true to run the allocation free stackPrice instead of the recursive searches
+
+    /**
+     * Constructor for LegacySolver
+     * @param co CreateOrder object whose search methods and database are used
+     */
+    public LegacySolver(CreateOrder co) {
+        this(co, false);
+    }
+
+    /**
+     * Constructor for LegacySolver
+     * @param co CreateOrder object whose search methods and database are used
+     * @param stack true to run @CreateOrder.stackPrice, false for the recursive searches
+     */
+    public LegacySolver(CreateOrder co, boolean stack) {
+        this.co = co;
+        this.stack = stack;
+    }
+
+    /**
+     * Runs the recursive search for the category of the table.
+     * @param table candidate rows of the requested type, only its category and type are used
+     * @param number number of desired furniture items
+     * @return SolverResult with the lowest price and the row indexes, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number) {
+        long start = System.nanoTime();
+        ArrayList<Integer> already = new ArrayList<Integer>(); // create null arraylist to pass into Price search algorithms.
+        int lowest;
+        if (stack) {
+            lowest = co.stackPrice(co.db.getView(ComponentTable.indicatorOf(table.getCategory())), table.getType(), number);
+        }
+        else {
+            switch (table.getCategory()) {
+                case "desk":
+                    lowest = co.deskPrice(co.db.getDesk(), 0, already, table.getType(), number, 0, 0, 0);
+                    break;
+                case "chair":
+                    lowest = co.chairPrice(co.db.getChairs(), 0, already, table.getType(), number, 0, 0, 0, 0);
+                    break;
+                case "filing":
+                    lowest = co.filingPrice(co.db.getFilings(), 0, already, table.getType(), number, 0, 0, 0);
+                    break;
+                default:
+                    lowest = co.lampPrice(co.db.getLamps(), 0, already, table.getType(), number, 0, 0);
+                    break;
+            }
+        }
+        ArrayList<Integer> indexes = new ArrayList<Integer>();
+        if (lowest != 0) { // if a combination was found
+            co.setTotalPrice(lowest);
+            indexes.addAll(co.getLowestCombination());
+        }
+        co.clearLists(); //forget the lowest combination before the next search
+        return new SolverResult(lowest, indexes, System.nanoTime() - start);
+    }
+
+    /**
+     * @return "stack" for the allocation free search, "legacy" for the recursive one
+     */
+    @Override
+    public String getName() { return stack ? "stack" : "legacy"; }
+}
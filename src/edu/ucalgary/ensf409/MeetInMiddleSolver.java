@@ -0,0 +1,190 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * The MeetInMiddleSolver class finds the exact lowest price combination for a medium sized type, up to
+ * @MAX_ROWS candidate rows, by splitting the rows into two halves and solving each half on its own. For every half
+ * the subsets of its rows are enumerated as component count vectors, each count capped at the order quantity, keeping
+ * the lowest price reaching each vector and the subset that reaches it as a bitmask, so a half of 31 rows never needs
+ * more than (quantity + 1) ^ components entries however many of its 2 ^ 31 subsets there are.
+ *
+ * The second half is then indexed by count vector: entry v holds the cheapest vector of the half covering at least v
+ * of every component, filled in one pass per component. Each vector a of the first half is joined with the index
+ * entry for what it still lacks, quantity - a, so the join takes one lookup per vector. Unlike @DynamicSolver, which
+ * keeps one stage per row to rebuild its answer, only the two halves and the index are stored, so an order whose
+ * states are too many for a (rows + 1) stage table can still be solved exactly.
+ *
+ * When several combinations share the lowest price the one joined first is returned, so results are repeatable. The
+ * row indexes are returned in ascending order, ready for @CreateOrder.makeIdArray. If the deadline passes the order is
+ * handed to the anytime @BranchBoundSolver with the same deadline.
+ */
+public class MeetInMiddleSolver implements CombinationSolver {
+    /** Fewest candidate rows automatic selection sends to the solver, smaller types are left to the dynamic program */
+    public static final int MIN_ROWS = 30;
+    /** Most candidate rows, so each half fits the bitmask of an int */
+    public static final int MAX_ROWS = 62;
+    private static final long MAX_VECTORS = DynamicSolver.MAX_CELLS / 5; // five int arrays of one cell per vector: price and subset of each half, and the index
+    private static final int NONE = Integer.MAX_VALUE; // marks a vector no subset reaches
+
+    /**
+     * Finds the lowest price combination of rows that makes the requested number of items.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @return SolverResult with the lowest price and the row indexes, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number) {
+        return solve(table, number, NO_DEADLINE);
+    }
+
+    /**
+     * Finds the lowest price combination, falling back to branch and bound if the deadline passes first.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @param deadline System.nanoTime() value to stop at, or NO_DEADLINE
+     * @return SolverResult with the price and the row indexes, price 0 if the order cannot be made
+     * @throws IllegalArgumentException if the table has more than MAX_ROWS rows or the vectors do not fit in memory
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number, long deadline) {
+        long start = System.nanoTime();
+        int n = table.size();
+        long stateTotal = DynamicSolver.stateCount(table.getComponents(), number);
+        if (n > MAX_ROWS || !fits(stateTotal)) {
+            throw new IllegalArgumentException("Order of " + number + " " + table.getType() + " "
+                    + table.getCategory() + " has " + n + " rows and " + stateTotal + " count vectors, limit is "
+                    + MAX_ROWS + " rows and " + MAX_VECTORS + " vectors");
+        }
+        int states = (int) stateTotal;
+        int components = table.getComponents();
+        int[] step = new int[components]; // place value of each component in the vector number
+        step[0] = 1;
+        for (int c = 1; c < components; c++) {
+            step[c] = step[c - 1] * (number + 1);
+        }
+        int half = n / 2; // rows 0..half-1 form the first half, the rest the second
+
+        int[] firstPrice = new int[states];
+        int[] firstSubset = new int[states];
+        int[] secondPrice = new int[states];
+        int[] secondSubset = new int[states];
+        if (!enumerate(table, 0, half, number, step, firstPrice, firstSubset, deadline)
+                || !enumerate(table, half, n, number, step, secondPrice, secondSubset, deadline)) {
+            return ClassSolver.fallBack(table, number, deadline, start);
+        }
+
+        // index[v] is the cheapest vector of the second half covering at least v, one pass per component
+        int[] index = new int[states];
+        for (int v = 0; v < states; v++) {
+            index[v] = v;
+        }
+        for (int c = 0; c < components; c++) {
+            for (int v = states - 1; v >= 0; v--) {
+                if ((v / step[c]) % (number + 1) < number) {
+                    int above = index[v + step[c]]; // cheapest covering one more of component c
+                    if (secondPrice[above] < secondPrice[index[v]]) {
+                        index[v] = above;
+                    }
+                }
+            }
+        }
+
+        long lowest = NONE;
+        int bestFirst = 0;
+        int bestSecond = 0;
+        for (int a = 0; a < states; a++) {
+            if (firstPrice[a] == NONE) {
+                continue;
+            }
+            int b = index[(states - 1) - a]; // every digit of states - 1 is number, so this is quantity - a
+            if (secondPrice[b] != NONE && (long) firstPrice[a] + secondPrice[b] < lowest) {
+                lowest = (long) firstPrice[a] + secondPrice[b];
+                bestFirst = a;
+                bestSecond = b;
+            }
+        }
+
+        ArrayList<Integer> indexes = new ArrayList<Integer>();
+        if (lowest == NONE) {
+            return new SolverResult(0, indexes, System.nanoTime() - start);
+        }
+        for (int i = 0; i < half; i++) {
+            if ((firstSubset[bestFirst] >> i & 1) != 0) {
+                indexes.add(table.getRow(i));
+            }
+        }
+        for (int i = half; i < n; i++) {
+            if ((secondSubset[bestSecond] >> (i - half) & 1) != 0) {
+                indexes.add(table.getRow(i));
+            }
+        }
+        Collections.sort(indexes);
+        return new SolverResult((int) lowest, indexes, System.nanoTime() - start);
+    }
+
+    /**
+     * @return "mitm"
+     */
+    @Override
+    public String getName() { return "mitm"; }
+
+    /**
+     * @param states number of count vectors for the order
+     * @return true if the two halves and the index fit under @DynamicSolver.MAX_CELLS
+     */
+    public static boolean fits(long states) {
+        return states <= MAX_VECTORS;
+    }
+
+    /**
+     * Enumerates the subsets of rows from..to-1 as capped component count vectors. Adding a row only raises the
+     * vector number, so going over the vectors from the top down, as in a 0/1 knapsack, uses each row at most once.
+     * @param table candidate rows of the requested type
+     * @param from first row of the half
+     * @param to row after the last row of the half
+     * @param number number of desired furniture items, the cap of every count
+     * @param step place value of each component in the vector number
+     * @param price filled with the lowest price reaching each vector, NONE if no subset reaches it
+     * @param subset filled with the rows of the subset reaching each vector at that price, bit i for row from + i
+     * @param deadline System.nanoTime() value to stop at, or NO_DEADLINE
+     * @return false if the deadline passed first
+     */
+    private static boolean enumerate(ComponentTable table, int from, int to, int number, int[] step, int[] price,
+                                     int[] subset, long deadline) {
+        Arrays.fill(price, NONE);
+        price[0] = 0;
+        for (int i = from; i < to; i++) {
+            if (CombinationSolver.expired(deadline)) {
+                return false;
+            }
+            int mask = table.getMask(i);
+            int rowPrice = table.getPrice(i);
+            for (int v = price.length - 1; v >= 0; v--) {
+                if (price[v] == NONE) {
+                    continue;
+                }
+                int next = v;
+                for (int c = 0; c < step.length; c++) {
+                    if ((mask >> c & 1) != 0 && (v / step[c]) % (number + 1) < number) {
+                        next += step[c];
+                    }
+                }
+                if (next != v && price[v] + rowPrice < price[next]) {
+                    price[next] = price[v] + rowPrice;
+                    subset[next] = subset[v] | 1 << (i - from);
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.util.*;
+
+/**
+ * Tests the @MeetInMiddleSolver against the exact @DynamicSolver on generated tables of medium size.
+ */
+public class MeetInMiddleSolverTest
+{
+    /**
+     * testMeshChair() orders one Mesh chair from the rows of the sample order form, C9890 and C0942 for $150, both
+     * from the first half of the split.
+     */
+    @Test
+    public void testMeshChair()
+    {
+        Chair[] chairs = {
+                new Chair("C9890", "Mesh", "N", "Y", "N", "Y", 50, "003"),
+                new Chair("C0942", "Mesh", "Y", "N", "Y", "Y", 100, "005"),
+                new Chair("C6748", "Mesh", "Y", "N", "N", "N", 75, "003"),
+                new Chair("C8138", "Mesh", "N", "N", "Y", "N", 75, "005")
+        };
+        SolverResult result = new MeetInMiddleSolver().solve(ComponentTable.fromChairs(chairs, "Mesh"), 1);
+
+        Assert.assertEquals("Price for one Mesh chair should be 150", 150, result.getPrice());
+        Assert.assertEquals("Combination should be rows 0 and 1", Arrays.asList(0, 1), result.getIndexes());
+    }
+
+    /**
+     * testMatchesDynamicSolver() compares the price with the exact price of the @DynamicSolver on generated chair
+     * tables of 30 to 62 rows, and checks the rows add up to it.
+     */
+    @Test
+    public void testMatchesDynamicSolver()
+    {
+        for (int seed = 0; seed < 60; seed++) {
+            ComponentTable table = SolverBenchmark.randomTable(seed, "chair", 4, 30 + seed % 33);
+            int number = 1 + seed % 6;
+            SolverResult result = new MeetInMiddleSolver().solve(table, number);
+            Assert.assertEquals("Meet in the middle price differs for seed " + seed,
+                    new DynamicSolver().solve(table, number).getPrice(), result.getPrice());
+            int price = 0;
+            for (int row : result.getIndexes()) {
+                price += table.getPrice(row);
+            }
+            Assert.assertEquals("Rows should add up to the price", result.getPrice(), price);
+        }
+    }
+
+    /**
+     * testTooManyRows() checks a table past MAX_ROWS is refused, and that neither the automatic rule nor the mitm mode
+     * sends it there.
+     */
+    @Test
+    public void testTooManyRows()
+    {
+        ComponentTable table = SolverBenchmark.randomTable(409, "chair", 4, MeetInMiddleSolver.MAX_ROWS + 1);
+        boolean refused = false;
+        try {
+            new MeetInMiddleSolver().solve(table, 2);
+        }
+        catch (IllegalArgumentException e) {
+            refused = true;
+        }
+
+        Assert.assertTrue("A table past MAX_ROWS should be refused", refused);
+        Assert.assertFalse("Automatic rule should not pick the solver", SolverSelector.automatic(table, 2).getName().equals("mitm"));
+        Assert.assertFalse("The mitm mode should fall back to another solver", SolverSelector.select("mitm", table, 2, null).getName().equals("mitm"));
+    }
+}
@@ -20,6 +20,10 @@ public class Order {
     private String furnitureCategory; // store the furniture category
     private String furnitureType; //store the furniture type
     private int numberItems; // store the quantity of desired item
+    private String solverMode = SolverSelector.configuredMode(); // store which lowest price search to use
+    private long budgetMillis = SolverSelector.configuredBudget(); // store how long one search may run, 0 for no limit
+    private QuoteCache quoteCache; // recent quotes, kept across orders made in one run, made on first use
+    private IncrementalSearch incrementalSearch; // search state of each type, kept across orders made in one run, made on first use
     private LocalDateTime ldt;
 
     static boolean command = true; //indicates weather or not another order will be made
@@ -28,6 +32,7 @@ public class Order {
      * @param args
      */
     public static void main(String[] args){
+        SolverSelector.checkConfiguredMode(); // report a mistyped ensf409.solver before any order is read
         String DBURL, USERNAME, PASSWORD;
         DBURL = args[0]; // jdbc:mysql://localhost/inventory
         USERNAME = args[1]; // scm
@@ -35,6 +40,7 @@ public class Order {
         Scanner input = new Scanner(System.in); //Reads the user input
         Order order = new Order(); // stores order information
         Database db = new Database(DBURL, USERNAME, PASSWORD); //makes new database
+        db.initializeConnection(); // open the connection pool once, every order borrows from it
 
         /**
          * This while loop is the beating heart of the program and will keep looping as long as the while argument is true.  Every
@@ -57,8 +63,7 @@ public class Order {
             order.setNumberItems(theNumberItems);
 
             CreateOrder co = new CreateOrder(order, order.getLDT(), db); // creates new order for based from user's input
-            db.initializeConnection(); // initialize the connection to the database
-            db.updateLocal(); // update the Objects arrays
+            db.invalidate(); // read the arrays again, but only the ones this order uses
 
             order.operation(order, co, db);
 
@@ -68,6 +73,7 @@ public class Order {
             }
         }
         input.close();
+        db.closeConnections();
     }
 
     /**
@@ -293,92 +299,145 @@ public class Order {
 
     /**
      * This method uses the values stored in the order variables chosen by the user to make the output file.
+     * The lowest price is found by quote, so a quote for the same category, type and quantity is reused from the
+     * @QuoteCache while the rows of that type are unchanged. Only the rows of the requested type are read from the
+     * database, and the manufacturers only if a recommendation is made. If those rows cannot be read the order form
+     * says so and nothing is ordered.
      * @param order object
      * @param co CreateOrder object
      * @param db DataBase object
      */
     public void operation(Order order, CreateOrder co, Database db){
-        ArrayList<Integer> already = new ArrayList<Integer>(); // create null arraylist to pass into Price search algorithms.
         DateTimeFormatter format = DateTimeFormatter.ofPattern("dd-MM-yyyy_HH~mm~ss");
         String formatDateTime = ldt.format(format);
-        switch(order.getFurnitureCategory()){
-            case "desk": //If category is desk
-                int lowestDesk = co.deskPrice(db.getDesk(), 0, already, order.getFurnitureType(), order.getNumberItems(),
-                        0, 0, 0); // get lowest price of all combinations
-                if(lowestDesk != 0){ // if a combination was found
-                    co.setTotalPrice(lowestDesk); // set lowest price found to the member variable totalPrice in CreateOrder
-                    ArrayList<Integer> orderedItems = co.getLowestCombination(); // get the indexes of the combination to make the lowest price
-                    String[] deskIds = co.makeIdArray(orderedItems, 0); // Get the Id's of the desks corresponding to the combined indexes
-                    System.out.println("The price found to make this item is: $" + lowestDesk+".00");
-
-                    db.updateTable(orderedItems, 0); // update the desk table
-                    co.setItemsOrdered(deskIds);
-                    co.generateOrder(); //Makes the output file containing the order form for the requested desk.
-                    co.clearLists(); //clear the array lists storing the prices and combinations
-                }
-                else{
-                    System.out.println("Impossible to make this order due to lack of inventory");
-                    co.generateRecommendation(); // makes a output file containing the recommended manufacturers to make desk.
-                }
-                break;
-            case "chair": // if the category is chair
-                int lowestChair = co.chairPrice(db.getChairs(), 0, already, order.getFurnitureType(), order.getNumberItems(),
-                        0, 0, 0, 0); // get lowest price of all combinations
-                if(lowestChair != 0){ // if a combination was found
-                    co.setTotalPrice(lowestChair); // set lowest price found to the member variable totalPrice in CreateOrder
-                    ArrayList<Integer> orderedItems = co.getLowestCombination(); // get the indexes of the combination to make the lowest price
-                    String[] chairIds = co.makeIdArray(orderedItems, 1); // Get the Id's of the chairs corresponding to the combined indexes
-                    System.out.println("The price found to make this item is: $" + lowestChair+".00");
-                    db.updateTable(orderedItems, 1); // update the chair table
-                    co.setItemsOrdered(chairIds);
-                    co.generateOrder(); //Makes the output file containing the order form for the requested chair.
-                    co.clearLists(); //clear the array lists storing the prices and combinations
-                }
-                else{
-                    System.out.println("Impossible to make this order due to lack of inventory");
-                    co.generateRecommendation(); // makes a output file containing the recommended manufacturers to make chair.
-                }
-                break;
-            case "filing": // if category is filing
-                int lowestFiling = co.filingPrice(db.getFilings(), 0, already, order.getFurnitureType(), order.getNumberItems(),
-                        0, 0, 0); // get lowest price of all combinations
-                if(lowestFiling != 0){ // if a combination was found
-                    co.setTotalPrice(lowestFiling); // set lowest price found to the member variable totalPrice in CreateOrder
-                    ArrayList<Integer> orderedItems = co.getLowestCombination(); // get the indexes of the combination to make the lowest price
-                    String[] filingIds = co.makeIdArray(orderedItems, 2); // Get the Id's of the filings corresponding to the combined indexes
-                    System.out.println("The price found to make this item is: $" + lowestFiling+".00");
-                    db.updateTable(orderedItems, 2); // update the filing table
-                    co.setItemsOrdered(filingIds);
-                    co.generateOrder(); //Makes the output file containing the order form for the requested filing.
-                    co.clearLists(); //clear the array lists storing the prices and combinations
-                }
-                else{
-                    System.out.println("Impossible to make this order due to lack of inventory");
-                    co.generateRecommendation(); // makes a output file containing the recommended manufacturers to make filing.
-                }
-                break;
-            case "lamp": //if category is lamp
-                int lowestLamp = co.lampPrice(db.getLamps(), 0, already, order.getFurnitureType(), order.getNumberItems(),
-                        0, 0); // get lowest price of all combinations
-                if(lowestLamp != 0){ // if a combination was found
-                    co.setTotalPrice(lowestLamp); // set lowest price found to the member variable totalPrice in CreateOrder
-                    ArrayList<Integer> orderedItems = co.getLowestCombination(); // get the indexes of the combination to make the lowest price
-                    String[] lampIds = co.makeIdArray(orderedItems, 3); // Get the Id's of the lamps corresponding to the combined indexes
-                    System.out.println("The price found to make this item is: $" + lowestLamp+".00");
-                    db.updateTable(orderedItems, 3); // update the lamp table
-                    co.setItemsOrdered(lampIds);
-                    co.generateOrder(); //Makes the output file containing the order form for the requested lamp.
-                    co.clearLists(); //clear the array lists storing the prices and combinations
-                }
-                else{
-                    System.out.println("Impossible to make this order due to lack of inventory");
-                    co.generateRecommendation(); // makes a output file containing the recommended manufacturers to make lamp.
-                }
-                break;
+        int indicator = ComponentTable.indicatorOf(order.getFurnitureCategory()); // 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+        if(!db.loadCategory(indicator, order.getFurnitureType())){ // read only the requested type, unless its rows are already loaded
+            System.out.println("The " + order.getFurnitureType() + " " + order.getFurnitureCategory()
+                    + " inventory cannot be read until earlier changes reach the database, please try again");
+            co.generateUnavailable("The inventory could not be read, no items were ordered. Please place the order again.");
+            return; // never search the rows of another type
+        }
+        SolverResult result = quote(order, co, db); // get lowest price of all combinations
+        int lowest = result.getPrice();
+        if(lowest != 0){ // if a combination was found
+            co.setTotalPrice(lowest); // set lowest price found to the member variable totalPrice in CreateOrder
+            co.setPriceBound(result.getLowerBound(), result.isOptimal()); // record if the price is only the best within budget
+            co.setGuarantee(result.isApproximate() ? result.getGuarantee() : 0); // record if the price is approximate
+            ArrayList<Integer> orderedItems = result.getIndexes(); // get the indexes of the combination to make the lowest price
+            String[] ids = co.makeIdArray(orderedItems, indicator); // Get the Id's of the items corresponding to the combined indexes
+            System.out.println("The price found to make this item is: $" + lowest+".00");
+            db.updateTable(orderedItems, indicator); // update the furniture table
+            co.setItemsOrdered(ids);
+            co.generateOrder(); //Makes the output file containing the order form for the requested item.
+        }
+        else{
+            System.out.println("Impossible to make this order due to lack of inventory");
+            co.generateRecommendation(); // makes a output file containing the recommended manufacturers to make the item.
         }
         System.out.println("The file name is: "+order.getFurnitureType()+"_"+order.getFurnitureCategory()+
                 "_Order_["+ formatDateTime + "].txt");
-        db.pushLocal(); //update all tables in the database.
+        if(!db.pushLocal()){ //update all tables in the database.
+            System.out.println("The items were not removed from the database inventory, they may be ordered again");
+        }
+    }
+
+    /**
+     * This method finds the lowest price for the order without ordering anything. No rows are marked as used, no
+     * order form is written and nothing is pushed to the database, so the same quote asked for again is answered from
+     * the @QuoteCache until the rows of the category and type change. Only proven lowest prices are cached. An order
+     * asking for more items than the supply counters of the @Database allow gets price 0 with no search.
+     * @param order object
+     * @param co CreateOrder object
+     * @param db DataBase object
+     * @return SolverResult with the lowest price and the row indexes, price 0 if the order cannot be made or the rows
+     * of its type cannot be read
+     */
+    public SolverResult quote(Order order, CreateOrder co, Database db){
+        int indicator = ComponentTable.indicatorOf(order.getFurnitureCategory()); // 0 for desk, 1 for chair, 2 for filing and 3 for lamp
+        if(!db.loadCategory(indicator, order.getFurnitureType())){ // the rows of the requested type cannot be read
+            return new SolverResult(0, new ArrayList<Integer>(), 0);
+        }
+        if(!db.canSupply(indicator, order.getFurnitureType(), order.getNumberItems())){ // some component is too scarce
+            System.out.println("Only " + db.getView(indicator).maxItems(order.getFurnitureType()) + " "
+                    + order.getFurnitureType() + " " + order.getFurnitureCategory() + " can be made from the components in stock");
+            return new SolverResult(0, new ArrayList<Integer>(), 0);
+        }
+        long version = db.getInventoryVersion(indicator, order.getFurnitureType()); // changes only with the rows of this type
+        SolverResult result = getQuoteCache().get(order.getFurnitureCategory(), order.getFurnitureType(),
+                order.getNumberItems(), version); // reuse the quote if the rows of this type have not changed
+        if(result != null){
+            System.out.println("Quote found in cache (hit rate " + Math.round(getQuoteCache().getHitRate() * 100) + "%)");
+            return result;
+        }
+        result = search(order, co, db);
+        if(result.isOptimal()){ // a best within budget price may be beaten by a later search with more time
+            getQuoteCache().put(order.getFurnitureCategory(), order.getFurnitureType(), order.getNumberItems(),
+                    version, result, co.makeIdArray(result.getIndexes(), indicator));
+        }
+        return result;
+    }
+
+    /**
+     * Runs operation with the given solver mode, e.g. "approx" for a fast price within a guaranteed ratio of the
+     * lowest. The mode stays set on the order for later searches.
+     * @param order object
+     * @param co CreateOrder object
+     * @param db DataBase object
+     * @param solverMode solver mode, as accepted by @SolverSelector
+     */
+    public void operation(Order order, CreateOrder co, Database db, String solverMode){
+        order.setSolverMode(solverMode);
+        operation(order, co, db);
+    }
+
+    /**
+     * This method runs the lowest price search for the order on the local arrays of the database. The candidate rows
+     * and the rows left after filtering out those no cheapest combination needs are kept per type by the
+     * @IncrementalSearch and only updated for the rows that changed since the last order. If no change can affect the
+     * last result for this type and quantity it is reused, otherwise the @CombinationSolver picked by @SolverSelector
+     * for the configured solver mode is run. The search stops at the time budget, counted from the start of this method, and
+     * then returns the best combination found so far. An order the supply counters rule out returns price 0 at once.
+     * @param order object
+     * @param co CreateOrder object
+     * @param db DataBase object
+     * @return SolverResult with the lowest price and the row indexes, price 0 if the order cannot be made
+     */
+    public SolverResult search(Order order, CreateOrder co, Database db){
+        long deadline = CombinationSolver.deadlineAfter(order.getBudgetMillis()); // when the search has to stop
+        InventoryView view = db.getView(ComponentTable.indicatorOf(order.getFurnitureCategory())); // rows of the requested category
+        if(view.maxItems(order.getFurnitureType()) < order.getNumberItems()){ // the supply counters already rule the order out
+            return new SolverResult(0, new ArrayList<Integer>(), 0);
+        }
+        boolean exact = !order.getSolverMode().equals("legacy") && !order.getSolverMode().equals("stack"); // the legacy search is not always exact, never reuse its results
+        SolverResult previous = exact ? getIncrementalSearch().lastResult(view, order.getFurnitureType(), order.getNumberItems()) : null;
+        if(previous != null){
+            System.out.println("Inventory changes cannot affect the last combination found for this order, reusing it");
+            return previous;
+        }
+        ComponentTable table = getIncrementalSearch().frontier(view, order.getFurnitureType(), order.getNumberItems()); // rows no cheapest combination can do without
+        System.out.println("Dominance filter kept " + table.size() + " of "
+                + getIncrementalSearch().candidateCount(view, order.getFurnitureType()) + " candidate rows");
+        CombinationSolver solver = SolverSelector.select(order.getSolverMode(), table, order.getNumberItems(), co);
+        SolverResult result = solver.solve(table, order.getNumberItems(), deadline);
+        if(exact){
+            getIncrementalSearch().remember(view, order.getFurnitureType(), order.getNumberItems(), result);
+        }
+        System.out.println("Search time (" + solver.getName() + "): " + result.getElapsedMillis() + " ms");
+        if(result.getNodesExpanded() != 0){ // only tree searches count nodes
+            System.out.println("Nodes expanded: " + result.getNodesExpanded() + ", nodes pruned: " + result.getNodesPruned());
+        }
+        if(result.isApproximate()){ // the approximate solver reports its guarantee and what it observed
+            System.out.println("Approximate price $" + result.getPrice() + ".00, at most " + String.format("%.3f", result.getObservedRatio())
+                    + " times the lowest price (lower bound $" + result.getLowerBound() + ".00), guaranteed within "
+                    + String.format("%.3f", result.getGuarantee()) + " times");
+        }
+        else if(!result.isOptimal()){ // the time budget ran out, or the large order solver could not prove the price lowest
+            String reason = CombinationSolver.expired(deadline) ? "Time budget of " + order.getBudgetMillis() + " ms reached, best"
+                    : "Best";
+            System.out.println(reason + " price found $" + result.getPrice() + ".00, lower bound $" + result.getLowerBound()
+                    + ".00, gap " + String.format("%.2f", result.getGapPercent()) + "%");
+        }
+        return result;
     }
 
     /**
@@ -469,6 +528,62 @@ public class Order {
         this.furnitureType = furnitureType;
     }
 
+    /**
+     * Getter method for solverMode
+     * @return solver mode (auto, dp, classes, pairing, triple, mitm, large, approx, bnb, parallel, legacy or stack)
+     */
+    public String getSolverMode() {
+        return solverMode;
+    }
+
+    /**
+     * Setter method for solverMode
+     * @param solverMode solver mode (auto, dp, classes, pairing, triple, mitm, large, approx, bnb, parallel, legacy or stack)
+     * @throws IllegalArgumentException if the mode is not recognised
+     */
+    public void setSolverMode(String solverMode) {
+        this.solverMode = SolverSelector.checkMode(solverMode);
+    }
+
+    /**
+     * Getter method for budgetMillis
+     * @return time budget of one search in milliseconds, 0 for no limit
+     */
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    /**
+     * Setter method for budgetMillis
+     * @param budgetMillis time budget of one search in milliseconds, 0 for no limit
+     */
+    public void setBudgetMillis(long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Getter method for incrementalSearch. It is made on first use, so an order that only carries a request, such as a
+     * line of a @BasketOrder or @BatchOrder solved by a shared session, never holds one.
+     * @return search state of each furniture type
+     */
+    public IncrementalSearch getIncrementalSearch() {
+        if(incrementalSearch == null){
+            incrementalSearch = new IncrementalSearch();
+        }
+        return incrementalSearch;
+    }
+
+    /**
+     * Getter method for quoteCache. It is made on first use, like incrementalSearch.
+     * @return cache of recent quotes
+     */
+    public QuoteCache getQuoteCache() {
+        if(quoteCache == null){
+            quoteCache = new QuoteCache();
+        }
+        return quoteCache;
+    }
+
     /**
      * Getter method for LocalDateTime
      * @return current time on the System
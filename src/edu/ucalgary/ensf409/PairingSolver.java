@@ -0,0 +1,115 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * The PairingSolver class finds the exact lowest price for an item of two components, a lamp's base and bulb, without
+ * any search. A row has the base only, the bulb only or both, and each item is made either from one row having both or
+ * from a pair of one base only row and one bulb only row. Pairing the i-th cheapest base with the i-th cheapest bulb
+ * gives the cheapest j pairs for every j, and both the pair prices and the prices of the rows having both are in
+ * increasing order, so the lowest price for quantity items is the quantity cheapest of the two sorted lists merged.
+ * Only the quantity cheapest rows of each @ClassView class can be used, so building the view takes O(n log quantity),
+ * at most O(n log n), and the merge O(quantity).
+ *
+ * When a pair and a row having both cost the same the row is taken, so the combination uses fewer rows. The row
+ * indexes are returned in ascending order, ready for @CreateOrder.makeIdArray.
+ */
+public class PairingSolver implements CombinationSolver {
+
+    /**
+     * Finds the lowest price combination of rows that makes the requested number of items.
+     * @param table candidate rows of the requested type, of an item with two components
+     * @param number number of desired furniture items
+     * @return SolverResult with the lowest price and the row indexes, price 0 if the order cannot be made
+     * @throws IllegalArgumentException if the item does not have two components
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number) {
+        long start = System.nanoTime();
+        if (table.getComponents() != 2) {
+            throw new IllegalArgumentException("Pairing needs an item of two components, "
+                    + table.getCategory() + " has " + table.getComponents());
+        }
+        ClassView view = new ClassView(table, number);
+        int base = view.classOf(1); // rows with the base only
+        int bulb = view.classOf(2); // rows with the bulb only
+        int both = view.classOf(3); // rows that are a whole item
+        int pairs = Math.min(size(view, base), size(view, bulb));
+        int whole = size(view, both);
+
+        ArrayList<Integer> indexes = new ArrayList<Integer>();
+        if (pairs + whole < number) {
+            return new SolverResult(0, indexes, System.nanoTime() - start);
+        }
+        int p = 0; // pairs taken
+        int w = 0; // rows having both taken
+        while (p + w < number) {
+            // the next pair is only cheaper if there is one and it costs less than the next whole row
+            boolean pair = w == whole || (p < pairs && pairPrice(view, base, bulb, p) < view.cost(both, w + 1) - view.cost(both, w));
+            if (pair) {
+                p++;
+            }
+            else {
+                w++;
+            }
+        }
+        long price = 0;
+        if (p > 0) {
+            price += view.cost(base, p) + view.cost(bulb, p);
+            for (int rank = 0; rank < p; rank++) {
+                indexes.add(view.getRow(base, rank));
+                indexes.add(view.getRow(bulb, rank));
+            }
+        }
+        if (w > 0) {
+            price += view.cost(both, w);
+            for (int rank = 0; rank < w; rank++) {
+                indexes.add(view.getRow(both, rank));
+            }
+        }
+        Collections.sort(indexes);
+        return new SolverResult((int) price, indexes, System.nanoTime() - start);
+    }
+
+    /**
+     * Finds the lowest price combination. The merge takes O(quantity) steps, so the deadline is never checked.
+     * @param table candidate rows of the requested type, of an item with two components
+     * @param number number of desired furniture items
+     * @param deadline System.nanoTime() value to stop at, or NO_DEADLINE
+     * @return SolverResult with the lowest price and the row indexes, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number, long deadline) {
+        return solve(table, number);
+    }
+
+    /**
+     * @return "pairing"
+     */
+    @Override
+    public String getName() { return "pairing"; }
+
+    /**
+     * @param view classes of the candidate rows
+     * @param c class number, -1 for a missing class
+     * @return number of rows kept in the class, 0 for a missing class
+     */
+    private static int size(ClassView view, int c) {
+        return c < 0 ? 0 : view.size(c);
+    }
+
+    /**
+     * @return price of the rank-th cheapest base only row and the rank-th cheapest bulb only row together
+     */
+    private static long pairPrice(ClassView view, int base, int bulb, int rank) {
+        return view.cost(base, rank + 1) - view.cost(base, rank) + view.cost(bulb, rank + 1) - view.cost(bulb, rank);
+    }
+}
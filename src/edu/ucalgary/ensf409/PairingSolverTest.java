@@ -0,0 +1,76 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.util.*;
+
+/**
+ * Tests the @PairingSolver against hardcoded lamps from the inventory database and against the exact @DynamicSolver.
+ */
+public class PairingSolverTest
+{
+    private Lamp[] lamps;
+
+    @Before
+    public void setUp()
+    {
+        lamps = new Lamp[] {
+                new Lamp("L132", "Desk", "Y", "N", 18, "005"),
+                new Lamp("L980", "Study", "N", "Y", 2, "004"),
+                new Lamp("L013", "Desk", "N", "Y", 2, "004"),
+                new Lamp("L112", "Desk", "Y", "N", 15, "005"),
+                new Lamp("L342", "Desk", "N", "Y", 3, "002"),
+                new Lamp("L564", "Desk", "Y", "Y", 20, "004")
+        };
+    }
+
+    /**
+     * testDeskLamps() orders one, two and three Desk lamps. One lamp pairs the cheapest base with the cheapest bulb,
+     * L112 and L013 for $17, the second lamp is L564 for $20 rather than the next pair for $21.
+     */
+    @Test
+    public void testDeskLamps()
+    {
+        ComponentTable table = ComponentTable.fromLamps(lamps, "Desk");
+
+        SolverResult one = new PairingSolver().solve(table, 1);
+        Assert.assertEquals("Price for one Desk lamp should be 17", 17, one.getPrice());
+        Assert.assertEquals("Combination should be rows 2 and 3", Arrays.asList(2, 3), one.getIndexes());
+        SolverResult two = new PairingSolver().solve(table, 2);
+        Assert.assertEquals("Price for two Desk lamps should be 37", 37, two.getPrice());
+        Assert.assertEquals("Combination should be rows 2, 3 and 5", Arrays.asList(2, 3, 5), two.getIndexes());
+        Assert.assertEquals("Price for three Desk lamps should be 58", 58, new PairingSolver().solve(table, 3).getPrice());
+        Assert.assertFalse("Four Desk lamps cannot be made", new PairingSolver().solve(table, 4).isFound());
+    }
+
+    /**
+     * testMatchesDynamicSolver() compares the price with the exact price of the @DynamicSolver on generated lamp
+     * tables.
+     */
+    @Test
+    public void testMatchesDynamicSolver()
+    {
+        for (int seed = 0; seed < 200; seed++) {
+            ComponentTable table = SolverBenchmark.randomTable(seed, "lamp", 2, 1 + seed % 30);
+            int number = 1 + seed % 6;
+            Assert.assertEquals("Pairing price differs for seed " + seed, new DynamicSolver().solve(table, number).getPrice(),
+                    new PairingSolver().solve(table, number).getPrice());
+        }
+    }
+
+    /**
+     * testSelectedForLamps() checks the automatic rule sends lamp orders to the pairing solver.
+     */
+    @Test
+    public void testSelectedForLamps()
+    {
+        ComponentTable table = ComponentTable.fromLamps(lamps, "Desk");
+
+        Assert.assertEquals("Lamps should use the pairing solver", "pairing", SolverSelector.automatic(table, 2).getName());
+    }
+}
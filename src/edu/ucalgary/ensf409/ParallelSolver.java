@@ -0,0 +1,334 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ParallelSolver class runs a branch and bound search on a ForkJoinPool. Combinations are built from rows in
+ * increasing index order, and every top level branch (the lowest row index in the combination) becomes its own
+ * task. The tasks share nothing but the incumbent: its price is kept in an AtomicInteger so a cheap combination
+ * found by one thread immediately prunes the others.
+ *
+ * A branch is only cut when its bound is strictly above the incumbent, so every combination with the lowest price
+ * is still reached and the lexicographically smallest set of row indexes among them is returned. The result is the
+ * same for any number of threads and any scheduling.
+ *
+ * Given a deadline the tasks stop once it has passed and an incumbent exists, and the incumbent is returned with the
+ * root lower bound of @BranchBoundSolver. A result stopped this way depends on how far each thread got.
+ */
+public class ParallelSolver implements CombinationSolver {
+    private static final int NONE = Integer.MAX_VALUE; // marks a bound or price that cannot be reached
+
+    private final int threads; // parallelism of the pool
+    private ComponentTable table; // candidate rows of the requested type
+    private int number; // number of desired furniture items
+    private int[][] byComponent; // for each component, positions that have it, cheapest first
+    private int[] ratioPrice; // price of the row with the lowest price per component from each position onward
+    private int[] ratioCount; // component count of that row
+    private AtomicInteger bestPrice; // price of the incumbent, read by every task to prune
+    private int[] bestChosen; // positions of the incumbent, guarded by this
+    private LongAdder expanded; // number of nodes expanded
+    private LongAdder pruned; // number of branches cut by the bound
+    private long deadline; // System.nanoTime() value to stop at
+    private volatile boolean timedOut; // set by the first task that sees the deadline has passed
+    private ThreadLocal<int[][]> paths; // need and chosen arrays of each worker thread, reused by every branch it runs
+
+    /**
+     * Constructor for ParallelSolver using one thread per available processor.
+     */
+    public ParallelSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for ParallelSolver
+     * @param threads number of worker threads
+     */
+    public ParallelSolver(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Finds the lowest price combination of rows that makes the requested number of items.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @return SolverResult with the lowest price, the row indexes and the node counts, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number) {
+        return solve(table, number, NO_DEADLINE);
+    }
+
+    /**
+     * Finds the lowest price combination, returning the best one found so far once the deadline has passed.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @param deadline System.nanoTime() value to stop at, or NO_DEADLINE
+     * @return SolverResult with the price, row indexes, lower bound and node counts, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number, long deadline) {
+        long start = System.nanoTime();
+        this.table = table;
+        this.number = number;
+        int[] identity = new int[table.size()];
+        for (int i = 0; i < identity.length; i++) {
+            identity[i] = i;
+        }
+        this.byComponent = BranchBoundSolver.componentLists(table, identity);
+        suffixRatios();
+        this.bestPrice = new AtomicInteger(NONE);
+        this.bestChosen = null;
+        this.expanded = new LongAdder();
+        this.pruned = new LongAdder();
+        this.deadline = deadline;
+        this.timedOut = false;
+        this.paths = ThreadLocal.withInitial(() -> new int[][]{new int[table.getComponents()], new int[table.size()]});
+
+        int root = BranchBoundSolver.rootBound(table, number);
+        if (number > 0 && root != NONE) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        ArrayList<Branch> branches = new ArrayList<Branch>();
+                        for (int first = 0; first < table.size(); first++) {
+                            branches.add(new Branch(first));
+                        }
+                        invokeAll(branches);
+                    }
+                });
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        ArrayList<Integer> indexes = new ArrayList<Integer>();
+        if (bestChosen != null) {
+            for (int p : bestChosen) {
+                indexes.add(table.getRow(p));
+            }
+        }
+        int lowest = bestPrice.get() == NONE ? 0 : bestPrice.get();
+        SolverResult result = new SolverResult(lowest, indexes, System.nanoTime() - start);
+        result.setNodeCounts(expanded.sum(), pruned.sum());
+        if (timedOut) {
+            result.setBound(root, lowest == root);
+        }
+        return result;
+    }
+
+    /**
+     * @return "parallel"
+     */
+    @Override
+    public String getName() { return "parallel"; }
+
+    /**
+     * One top level branch: every combination whose lowest position is first. A branch only holds its position until
+     * it runs, then borrows the path and component count arrays of its worker thread, so memory grows with the
+     * threads rather than with rows times rows. A branch never forks or joins, so a worker runs one at a time and no
+     * state but the incumbent is shared between threads.
+     */
+    private class Branch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int first; // lowest position in every combination of this branch
+        private int[] need; // pieces still missing of each component
+        private int[] chosen; // positions taken on the current path
+        private int depth; // number of rows taken on the current path
+
+        Branch(int first) {
+            this.first = first;
+        }
+
+        @Override
+        protected void compute() {
+            int[][] path = paths.get();
+            need = path[0];
+            chosen = path[1];
+            depth = 0;
+            for (int c = 0; c < need.length; c++) {
+                need[c] = number;
+            }
+            int bound = bound(first);
+            if (timedOut || bound == NONE || bound > bestPrice.get()) {
+                pruned.increment();
+                return;
+            }
+            step(first, 0);
+        }
+
+        /**
+         * Takes the row at position p and either records a complete combination or keeps searching to the right.
+         * @param p position of the row to take
+         * @param cost price of the rows taken before it
+         */
+        private void step(int p, int cost) {
+            int price = cost + table.getPrice(p);
+            int lowered = take(table.getMask(p));
+            chosen[depth++] = p;
+            if (missing() == 0) {
+                offer(price, chosen, depth);
+            } else {
+                search(p + 1, price);
+            }
+            depth--;
+            give(lowered);
+        }
+
+        /**
+         * Expands one node: tries every position from from onward as the next row taken.
+         * @param from first position that may still be taken
+         * @param cost price of the rows taken on the current path
+         */
+        private void search(int from, int cost) {
+            expanded.increment();
+            if (bestPrice.get() != NONE && CombinationSolver.expired(deadline)) {
+                timedOut = true; // every task keeps what it has, the incumbent is the best found within the budget
+            }
+            int missing = missing();
+            for (int p = from; p < table.size() && !timedOut; p++) {
+                int bound = bound(p);
+                if (bound == NONE || cost + (long) bound > bestPrice.get()) {
+                    pruned.increment();
+                    return; // the bound only grows as p moves right
+                }
+                if ((table.getMask(p) & missing) != 0) {
+                    step(p, cost);
+                }
+            }
+        }
+
+        /**
+         * Lower bound on the cost of the components still missing using only the rows from position from onward.
+         * Same bound as @BranchBoundSolver.
+         */
+        private int bound(int from) {
+            long bound = 0;
+            long pieces = 0;
+            for (int c = 0; c < need.length; c++) {
+                if (need[c] == 0) {
+                    continue;
+                }
+                pieces += need[c];
+                long sum = 0;
+                int found = 0;
+                for (int k = 0; k < byComponent[c].length && found < need[c]; k++) {
+                    if (byComponent[c][k] >= from) {
+                        sum += table.getPrice(byComponent[c][k]);
+                        found++;
+                    }
+                }
+                if (found < need[c]) {
+                    return NONE;
+                }
+                bound = Math.max(bound, sum);
+            }
+            if (pieces > 0 && from < table.size()) {
+                bound = Math.max(bound, (pieces * ratioPrice[from] + ratioCount[from] - 1) / ratioCount[from]);
+            }
+            return (int) Math.min(bound, NONE - 1);
+        }
+
+        /**
+         * Lowers the count of every missing component the row supplies.
+         * @return bitmask of the components whose count was lowered
+         */
+        private int take(int mask) {
+            int lowered = 0;
+            for (int c = 0; c < need.length; c++) {
+                if ((mask >> c & 1) != 0 && need[c] > 0) {
+                    need[c]--;
+                    lowered |= 1 << c;
+                }
+            }
+            return lowered;
+        }
+
+        /**
+         * Undoes take().
+         */
+        private void give(int lowered) {
+            for (int c = 0; c < need.length; c++) {
+                if ((lowered >> c & 1) != 0) {
+                    need[c]++;
+                }
+            }
+        }
+
+        /**
+         * @return bitmask of the components that are still missing
+         */
+        private int missing() {
+            int missing = 0;
+            for (int c = 0; c < need.length; c++) {
+                if (need[c] > 0) {
+                    missing |= 1 << c;
+                }
+            }
+            return missing;
+        }
+    }
+
+    /**
+     * Replaces the incumbent if the combination is cheaper, or the same price with a smaller set of positions.
+     * @param price price of the combination
+     * @param chosen positions of the combination, in increasing order
+     * @param depth number of positions used in chosen
+     */
+    private synchronized void offer(int price, int[] chosen, int depth) {
+        int best = bestPrice.get();
+        if (price < best || (price == best && smaller(chosen, depth, bestChosen))) {
+            bestChosen = Arrays.copyOf(chosen, depth);
+            bestPrice.set(price);
+        }
+    }
+
+    /**
+     * Compares two increasing position lists lexicographically.
+     * @return true if the first depth positions of a come before b
+     */
+    private static boolean smaller(int[] a, int depth, int[] b) {
+        if (b == null) {
+            return true;
+        }
+        for (int k = 0; k < depth && k < b.length; k++) {
+            if (a[k] != b[k]) {
+                return a[k] < b[k];
+            }
+        }
+        return depth < b.length;
+    }
+
+    /**
+     * Finds, for every position, the row with the lowest price per component from that position to the end.
+     */
+    private void suffixRatios() {
+        int n = table.size();
+        ratioPrice = new int[n];
+        ratioCount = new int[n];
+        for (int p = n - 1; p >= 0; p--) {
+            int price = table.getPrice(p);
+            int count = Integer.bitCount(table.getMask(p));
+            // keep the later row if its price / count is lower, compared without dividing
+            if (p < n - 1 && (long) ratioPrice[p + 1] * count < (long) price * ratioCount[p + 1]) {
+                price = ratioPrice[p + 1];
+                count = ratioCount[p + 1];
+            }
+            ratioPrice[p] = price;
+            ratioCount[p] = count;
+        }
+    }
+}
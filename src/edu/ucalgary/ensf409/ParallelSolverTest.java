@@ -0,0 +1,95 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.util.*;
+
+/**
+ * Tests the @ParallelSolver against the sequential @DynamicSolver and @BranchBoundSolver using generated tables, so no
+ * connection is needed.
+ */
+public class ParallelSolverTest
+{
+    private ComponentTable chairs;
+
+    @Before
+    public void setUp()
+    {
+        chairs = SolverBenchmark.randomTable(409, "chair", 4, 40);
+    }
+
+    /**
+     * testSameResultForAnyThreadCount() solves the same order with 1, 2, 4 and 8 threads. The price and the row
+     * indexes must be the same every time, however the branches were scheduled.
+     */
+    @Test
+    public void testSameResultForAnyThreadCount()
+    {
+        for (int number = 1; number <= 3; number++) {
+            SolverResult single = new ParallelSolver(1).solve(chairs, number);
+            for (int threads = 2; threads <= 8; threads *= 2) {
+                SolverResult result = new ParallelSolver(threads).solve(chairs, number);
+                Assert.assertEquals("Price differs with " + threads + " threads for " + number + " chairs",
+                        single.getPrice(), result.getPrice());
+                Assert.assertEquals("Rows differ with " + threads + " threads for " + number + " chairs",
+                        single.getIndexes(), result.getIndexes());
+            }
+        }
+    }
+
+    /**
+     * testMatchesSequentialSolvers() checks the price is the same as the exact price from the @DynamicSolver and the
+     * @BranchBoundSolver, and that a result found without a deadline is flagged optimal.
+     */
+    @Test
+    public void testMatchesSequentialSolvers()
+    {
+        for (int number = 1; number <= 3; number++) {
+            SolverResult dynamic = new DynamicSolver().solve(chairs, number);
+            SolverResult branch = new BranchBoundSolver().solve(chairs, number);
+            SolverResult parallel = new ParallelSolver(4).solve(chairs, number);
+            Assert.assertEquals("Parallel price differs from the dynamic price for " + number + " chairs",
+                    dynamic.getPrice(), parallel.getPrice());
+            Assert.assertEquals("Parallel price differs from the branch and bound price for " + number + " chairs",
+                    branch.getPrice(), parallel.getPrice());
+            Assert.assertTrue("A finished search should be optimal", parallel.isOptimal());
+        }
+    }
+
+    /**
+     * testImpossibleOrder() orders more chairs than the table has rows, so the price must be 0 and no task should
+     * find a combination.
+     */
+    @Test
+    public void testImpossibleOrder()
+    {
+        SolverResult result = new ParallelSolver(4).solve(chairs, chairs.size() + 1);
+
+        Assert.assertEquals("Price should be 0 when the order cannot be made", 0, result.getPrice());
+        Assert.assertFalse("No combination should be found", result.isFound());
+    }
+
+    /**
+     * testDeadlineReturnsIncumbent() gives a larger table a deadline that has already passed. Every task must stop
+     * once an incumbent exists, and that incumbent is returned with a lower bound no higher than the exact lowest
+     * price. It is only flagged optimal if its price meets the bound.
+     */
+    @Test
+    public void testDeadlineReturnsIncumbent()
+    {
+        ComponentTable table = SolverBenchmark.randomTable(409, "chair", 4, 60);
+        SolverResult exact = new DynamicSolver().solve(table, 4);
+        SolverResult result = new ParallelSolver(4).solve(table, 4, System.nanoTime() - 1);
+
+        Assert.assertTrue("A combination should be found before the tasks stop", result.isFound());
+        Assert.assertTrue("Lower bound should not exceed the lowest price", result.getLowerBound() <= exact.getPrice());
+        Assert.assertTrue("Price should not be below the lowest price", result.getPrice() >= exact.getPrice());
+        Assert.assertEquals("Only a price meeting the bound is proven optimal",
+                result.getPrice() == result.getLowerBound(), result.isOptimal());
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The QuoteCache class remembers the result of recent lowest price searches so a repeated request such as
+ * "3 Mesh chairs" does not rerun the solver. Entries are keyed by category, type and quantity and hold the lowest
+ * price, the row indexes and the row IDs of the combination. The cache holds at most a fixed number of entries and
+ * evicts the least recently used one when full.
+ *
+ * Every entry holds the version of its category and type from @Database.getInventoryVersion(int, String) when it was
+ * stored, and every lookup passes the current one. An entry whose version differs is dropped, since it may name rows
+ * that were used, while the quotes of other categories and types are kept.
+ */
+public class QuoteCache {
+    /** Number of entries kept when no capacity is given */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final int capacity; // most entries held at once
+    private final LinkedHashMap<String, Quote> entries; // entries in least recently used order
+    private long hits; // lookups answered from the cache
+    private long misses; // lookups that had to run the solver
+    private long evictions; // entries dropped to make room
+    private long invalidations; // entries dropped because the inventory changed
+
+    /**
+     * Constructor for QuoteCache holding DEFAULT_CAPACITY entries.
+     */
+    public QuoteCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor for QuoteCache
+     * @param capacity most entries held at once
+     */
+    public QuoteCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, Quote>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Quote> eldest) {
+                if (size() > QuoteCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up a quote.
+     * @param category furniture category
+     * @param type furniture type
+     * @param number number of desired furniture items
+     * @param version current inventory version of the category and type
+     * @return SolverResult with the cached price and row indexes, or null if there is no entry
+     */
+    public synchronized SolverResult get(String category, String type, int number, long version) {
+        long start = System.nanoTime();
+        String key = key(category, type, number);
+        Quote quote = entries.get(key);
+        if (quote != null && quote.version != version) { // the rows of this type changed since it was stored
+            entries.remove(key);
+            invalidations++;
+            quote = null;
+        }
+        if (quote == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new SolverResult(quote.price, new ArrayList<Integer>(quote.indexes), System.nanoTime() - start);
+    }
+
+    /**
+     * Stores a quote.
+     * @param category furniture category
+     * @param type furniture type
+     * @param number number of desired furniture items
+     * @param version inventory version of the category and type the result was computed from
+     * @param result result of the solver
+     * @param ids IDs of the rows in the result
+     */
+    public synchronized void put(String category, String type, int number, long version, SolverResult result, String[] ids) {
+        entries.put(key(category, type, number), new Quote(result.getPrice(), result.getIndexes(), ids, version));
+    }
+
+    /**
+     * Looks up the row IDs of a cached quote.
+     * @param category furniture category
+     * @param type furniture type
+     * @param number number of desired furniture items
+     * @return IDs of the rows in the cached combination, or null if there is no entry
+     */
+    public synchronized String[] getIds(String category, String type, int number) {
+        Quote quote = entries.get(key(category, type, number));
+        return quote == null ? null : quote.ids.clone();
+    }
+
+    private static String key(String category, String type, int number) {
+        return category + "|" + type + "|" + number;
+    }
+
+    /**
+     * @return share of lookups answered from the cache, 0 if there were none
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return number of entries held
+     */
+    public synchronized int size() { return entries.size(); }
+
+    /**
+     * @return most entries held at once
+     */
+    public int getCapacity() { return this.capacity; }
+
+    /**
+     * @return lookups answered from the cache
+     */
+    public synchronized long getHits() { return this.hits; }
+
+    /**
+     * @return lookups that were not in the cache
+     */
+    public synchronized long getMisses() { return this.misses; }
+
+    /**
+     * @return entries dropped to make room
+     */
+    public synchronized long getEvictions() { return this.evictions; }
+
+    /**
+     * @return entries dropped because the inventory changed
+     */
+    public synchronized long getInvalidations() { return this.invalidations; }
+
+    /**
+     * One cached quote.
+     */
+    private static class Quote {
+        private final int price; // lowest price, 0 if the order could not be made
+        private final ArrayList<Integer> indexes; // indexes of the rows in the database furniture array
+        private final String[] ids; // IDs of those rows
+        private final long version; // inventory version of the category and type it was stored under
+
+        Quote(int price, ArrayList<Integer> indexes, String[] ids, long version) {
+            this.price = price;
+            this.indexes = new ArrayList<Integer>(indexes);
+            this.ids = ids.clone();
+            this.version = version;
+        }
+    }
+}
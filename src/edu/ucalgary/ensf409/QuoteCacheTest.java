@@ -0,0 +1,87 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.util.*;
+
+/**
+ * Tests the @QuoteCache hit, eviction and invalidation behaviour.
+ */
+public class QuoteCacheTest
+{
+    private QuoteCache testCache;
+    private SolverResult meshQuote;
+
+    @Before
+    public void setUp()
+    {
+        testCache = new QuoteCache(2);
+        meshQuote = new SolverResult(150, new ArrayList<Integer>(Arrays.asList(2, 4)), 0);
+    }
+
+    /**
+     * testHit() stores a quote and looks it up again under the same inventory version.
+     */
+    @Test
+    public void testHit()
+    {
+        testCache.put("chair", "Mesh", 1, 0, meshQuote, new String[] {"C9890", "C0942"});
+        SolverResult cached = testCache.get("chair", "Mesh", 1, 0);
+
+        Assert.assertNotNull("Quote should be found", cached);
+        Assert.assertEquals("Cached price should be 150", 150, cached.getPrice());
+        Assert.assertEquals("Cached indexes should be 2 and 4", Arrays.asList(2, 4), cached.getIndexes());
+        Assert.assertArrayEquals(new String[] {"C9890", "C0942"}, testCache.getIds("chair", "Mesh", 1));
+        Assert.assertEquals("Hit rate should be 1", 1.0, testCache.getHitRate(), 0.0);
+    }
+
+    /**
+     * testVersionChangeInvalidates() checks a quote is not returned once the inventory version moves on.
+     */
+    @Test
+    public void testVersionChangeInvalidates()
+    {
+        testCache.put("chair", "Mesh", 1, 0, meshQuote, new String[] {"C9890", "C0942"});
+
+        Assert.assertNull("Quote from an old version should not be returned", testCache.get("chair", "Mesh", 1, 1));
+        Assert.assertEquals("Cache should be empty", 0, testCache.size());
+        Assert.assertEquals("One entry should be invalidated", 1, testCache.getInvalidations());
+    }
+
+    /**
+     * testOtherTypesKept() moves the Mesh chair version on and checks the Kneeling chair quote is still returned.
+     */
+    @Test
+    public void testOtherTypesKept()
+    {
+        testCache.put("chair", "Mesh", 1, 0, meshQuote, new String[] {"C9890", "C0942"});
+        testCache.put("chair", "Kneeling", 1, 0, meshQuote, new String[] {"C9890", "C0942"});
+
+        Assert.assertNull("Quote from an old Mesh version should not be returned", testCache.get("chair", "Mesh", 1, 1));
+        Assert.assertNotNull("Kneeling quote should be kept", testCache.get("chair", "Kneeling", 1, 0));
+        Assert.assertEquals("Only the Mesh entry should be invalidated", 1, testCache.getInvalidations());
+    }
+
+    /**
+     * testEvictsLeastRecentlyUsed() fills a cache of two, touches the first entry and adds a third. The second entry
+     * is the least recently used and must be the one evicted.
+     */
+    @Test
+    public void testEvictsLeastRecentlyUsed()
+    {
+        testCache.put("chair", "Mesh", 1, 0, meshQuote, new String[] {"C9890", "C0942"});
+        testCache.put("chair", "Mesh", 2, 0, meshQuote, new String[] {"C9890", "C0942"});
+        testCache.get("chair", "Mesh", 1, 0);
+        testCache.put("chair", "Mesh", 3, 0, meshQuote, new String[] {"C9890", "C0942"});
+
+        Assert.assertEquals("Cache should hold two entries", 2, testCache.size());
+        Assert.assertEquals("One entry should be evicted", 1, testCache.getEvictions());
+        Assert.assertNull("Quote for 2 should be evicted", testCache.getIds("chair", "Mesh", 2));
+        Assert.assertNotNull("Quote for 1 should be kept", testCache.getIds("chair", "Mesh", 1));
+    }
+}
@@ -0,0 +1,250 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The SolverBenchmark class times the lowest price solvers on generated inventories, so no database is needed.
+ * Run it with the name of a section, or with no argument to run every section:
+ *  - parallel: @ParallelSolver at 1, 4, 16 and 32 threads and the speedup over one thread
+ *  - classes: @ClassSolver against the row by row @DynamicSolver as the number of rows grows
+ *  - large: @LargeOrderSolver at quantities 10, 100 and 1000, with the proven gap to the lowest price
+ *  - mitm: @MeetInMiddleSolver against the @DynamicSolver and @ClassSolver on 30 to 60 rows
+ *  - legacy: the recursive desk search of @CreateOrder against its allocation free @CreateOrder.stackPrice, with the
+ *    bytes each allocates, standing in for a JMH harness the build does not have
+ *  - few: @PairingSolver on lamps and @TripleSolver on desks against the @ClassSolver, 50000 rows
+ */
+public class SolverBenchmark {
+    private static final int RUNS = 5; // timed runs per measurement, the median is reported
+    private static final int WARM_UP = 20; // untimed runs before a search short enough for the compiler to matter
+
+    /**
+     * Start of the benchmark
+     * @param args optional section name
+     */
+    public static void main(String[] args) {
+        String section = args.length > 0 ? args[0] : "all";
+        if (section.equals("all") || section.equals("parallel")) {
+            parallel();
+        }
+        if (section.equals("all") || section.equals("classes")) {
+            classes();
+        }
+        if (section.equals("all") || section.equals("large")) {
+            large();
+        }
+        if (section.equals("all") || section.equals("mitm")) {
+            mitm();
+        }
+        if (section.equals("all") || section.equals("legacy")) {
+            legacy();
+        }
+        if (section.equals("all") || section.equals("few")) {
+            few();
+        }
+    }
+
+    /**
+     * Times the recursive deskPrice search against stackPrice on generated desks, reporting the median time and the
+     * bytes allocated by one search when the virtual machine can count them. Both must find the same price.
+     */
+    private static void legacy() {
+        Order order = new Order();
+        order.setFurnitureCategory("desk");
+        order.setFurnitureType("Benchmark");
+        File file;
+        try {
+            file = File.createTempFile("benchmark", ".txt");
+        }
+        catch (IOException e) {
+            System.out.println("Could not create the order form for the legacy benchmark");
+            return;
+        }
+        file.deleteOnExit();
+        CreateOrder co = new CreateOrder(order, file, null);
+        System.out.println("Recursive search against the int stack, quantity 2");
+        for (int rows : new int[]{10, 13, 16}) {
+            ComponentTable table = randomTable(409, "desk", 3, rows);
+            Desk[] desks = new Desk[rows];
+            for (int i = 0; i < rows; i++) {
+                int mask = table.getMask(i);
+                desks[i] = new Desk("D" + i, "Benchmark", (mask & 1) != 0 ? "Y" : "N", (mask & 2) != 0 ? "Y" : "N",
+                        (mask & 4) != 0 ? "Y" : "N", table.getPrice(i), "001");
+            }
+            InventoryView view = InventoryView.ofDesks(desks);
+            double[] recursive = new double[RUNS];
+            double[] stack = new double[RUNS];
+            long[] bytes = new long[2];
+            int[] prices = new int[2];
+            for (int r = -WARM_UP; r < RUNS; r++) { // the first runs warm up
+                long before = allocatedBytes();
+                long start = System.nanoTime();
+                prices[0] = co.deskPrice(desks, 0, new ArrayList<Integer>(), "Benchmark", 2, 0, 0, 0);
+                long stop = System.nanoTime();
+                bytes[0] = allocatedBytes() - before;
+                co.clearLists();
+                before = allocatedBytes();
+                long restart = System.nanoTime();
+                prices[1] = co.stackPrice(view, "Benchmark", 2);
+                long end = System.nanoTime();
+                bytes[1] = allocatedBytes() - before;
+                co.clearLists();
+                if (r >= 0) {
+                    recursive[r] = (stop - start) / 1e6;
+                    stack[r] = (end - restart) / 1e6;
+                }
+            }
+            Arrays.sort(recursive);
+            Arrays.sort(stack);
+            System.out.printf("  %2d rows: recursive %10.2f ms %12d bytes  stack %10.2f ms %12d bytes  same price %b%n",
+                    rows, recursive[RUNS / 2], bytes[0], stack[RUNS / 2], bytes[1], prices[0] == prices[1]);
+        }
+    }
+
+    /**
+     * @return bytes allocated so far by the current thread, or 0 if the virtual machine cannot count them
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * Times the @MeetInMiddleSolver on chair tables of medium size against the two dynamic programs.
+     */
+    private static void mitm() {
+        System.out.println("Meet in the middle against the dynamic programs");
+        for (int rows : new int[]{30, 45, 60}) {
+            ComponentTable table = randomTable(409, "chair", 4, rows);
+            for (int number : new int[]{5, 10, 20}) {
+                median(new MeetInMiddleSolver(), table, number); // warm up
+                System.out.printf("  %2d rows, quantity %2d: mitm %8.2f ms  dp %8.2f ms  classes %8.2f ms%n", rows, number,
+                        median(new MeetInMiddleSolver(), table, number), median(new DynamicSolver(), table, number),
+                        median(new ClassSolver(), table, number));
+            }
+        }
+    }
+
+    /**
+     * Times the solvers for items of two and three components against the general class program, in microseconds.
+     */
+    private static void few() {
+        ComponentTable lamps = randomTable(409, "lamp", 2, 50000);
+        ComponentTable desks = randomTable(409, "desk", 3, 50000);
+        System.out.println("Two and three components, " + lamps.size() + " rows");
+        for (int number : new int[]{1, 10, 100}) {
+            for (int r = 0; r < WARM_UP; r++) {
+                new PairingSolver().solve(lamps, number);
+                new TripleSolver().solve(desks, number);
+            }
+            System.out.printf("  quantity %3d: lamps pairing %10.1f us  classes %10.1f us%n", number,
+                    1000 * median(new PairingSolver(), lamps, number), 1000 * median(new ClassSolver(), lamps, number));
+            System.out.printf("  quantity %3d: desks triple  %10.1f us  classes %10.1f us%n", number,
+                    1000 * median(new TripleSolver(), desks, number), 1000 * median(new ClassSolver(), desks, number));
+        }
+    }
+
+    /**
+     * Times the @LargeOrderSolver on one chair table at increasing quantities. The rows are generated once, so the
+     * same inventory serves every quantity.
+     */
+    private static void large() {
+        ComponentTable table = randomTable(409, "chair", 4, 20000);
+        System.out.println("Large orders, " + table.size() + " rows");
+        for (int number : new int[]{10, 100, 1000}) {
+            LargeOrderSolver solver = new LargeOrderSolver();
+            solver.solve(table, number); // warm up
+            SolverResult result = solver.solve(table, number);
+            double millis = median(solver, table, number);
+            System.out.printf("  quantity %4d: %10.2f ms  price $%d  lower bound $%d  gap %.3f%%%n",
+                    number, millis, result.getPrice(), result.getLowerBound(), result.getGapPercent());
+        }
+    }
+
+    /**
+     * Times the @ClassSolver and the @DynamicSolver on chair tables of increasing size. The class program only grows
+     * with the rows through sorting each class, the row program makes one pass over the states per row.
+     */
+    private static void classes() {
+        int number = 5;
+        System.out.println("Class counts against rows, quantity " + number);
+        for (int rows : new int[]{100, 1000, 10000}) {
+            ComponentTable table = randomTable(409, "chair", 4, rows);
+            median(new ClassSolver(), table, number); // warm up
+            double byClass = median(new ClassSolver(), table, number);
+            double byRow = median(new DynamicSolver(), table, number);
+            System.out.printf("  %5d rows: classes %8.2f ms  dp %8.2f ms%n", rows, byClass, byRow);
+        }
+    }
+
+    /**
+     * Times the @ParallelSolver on one large chair table at increasing thread counts.
+     */
+    private static void parallel() {
+        ComponentTable table = randomTable(409, "chair", 4, 200);
+        int number = 6;
+        System.out.println("Parallel branch and bound, " + table.size() + " rows, quantity " + number
+                + ", " + Runtime.getRuntime().availableProcessors() + " processors available");
+        double single = 0;
+        for (int threads : new int[]{1, 4, 16, 32}) {
+            ParallelSolver solver = new ParallelSolver(threads);
+            median(solver, table, number); // warm up
+            double millis = median(solver, table, number);
+            if (threads == 1) {
+                single = millis;
+            }
+            System.out.printf("  %2d threads: %10.2f ms  speedup %5.2fx%n", threads, millis, single / millis);
+        }
+    }
+
+    /**
+     * Runs a solver RUNS times and returns the median running time.
+     * @param solver solver to time
+     * @param table candidate rows
+     * @param number number of desired furniture items
+     * @return median running time in milliseconds
+     */
+    static double median(CombinationSolver solver, ComponentTable table, int number) {
+        double[] times = new double[RUNS];
+        for (int r = 0; r < RUNS; r++) {
+            times[r] = solver.solve(table, number).getElapsedMillis();
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+
+    /**
+     * Generates a candidate table with random component masks and prices between $25 and $250.
+     * @param seed random seed, so every run benchmarks the same table
+     * @param category furniture category to label the table with
+     * @param components number of components per item
+     * @param rows number of candidate rows
+     * @return generated table
+     */
+    static ComponentTable randomTable(long seed, String category, int components, int rows) {
+        Random random = new Random(seed);
+        int[] index = new int[rows];
+        int[] masks = new int[rows];
+        int[] prices = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            index[i] = i;
+            masks[i] = 1 + random.nextInt((1 << components) - 1);
+            prices[i] = 25 + 5 * random.nextInt(46);
+        }
+        return new ComponentTable(category, "Benchmark", components, index, masks, prices);
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+
+/**
+ * The SolverResult class holds the outcome of a lowest price search: the price of the cheapest combination, the
+ * indexes of the rows in the database furniture array that make it up and how long the search took. Following
+ * the convention of @CreateOrder.getLowestPrice, a price of 0 means no combination could be found.
+ *
+ * A search stopped by its deadline also records a proven lower bound on the lowest price. The price is then only the
+ * best found within the budget, and the gap between the two says how far from the lowest price it can be.
+ *
+ * An approximate solver also records the ratio to the lowest price it guarantees, whatever the inventory.
+ */
+public class SolverResult {
+    private final int price;
+    private final ArrayList<Integer> indexes;
+    private final long elapsedNanos;
+    private long nodesExpanded; // search nodes expanded, 0 for solvers that do not search a tree
+    private long nodesPruned; // search branches cut by a bound
+    private int lowerBound; // no combination costs less than this
+    private boolean optimal = true; // false if the search stopped before proving the price is the lowest
+    private double guarantee; // ratio to the lowest price an approximate solver guarantees, 0 for an exact price
+
+    /**
+     * Constructor for SolverResult
+     * @param price lowest price found, 0 if the order cannot be made
+     * @param indexes indexes of the rows that make up the combination, in ascending order
+     * @param elapsedNanos running time of the search in nanoseconds
+     */
+    public SolverResult(int price, ArrayList<Integer> indexes, long elapsedNanos) {
+        this.price = price;
+        this.indexes = indexes;
+        this.elapsedNanos = elapsedNanos;
+        this.lowerBound = price;
+    }
+
+    /**
+     * @return lowest price found, 0 if the order cannot be made
+     */
+    public int getPrice() { return this.price; }
+
+    /**
+     * @return indexes of the rows in the database furniture array that make up the combination
+     */
+    public ArrayList<Integer> getIndexes() { return this.indexes; }
+
+    /**
+     * @return true if a combination was found
+     */
+    public boolean isFound() { return !this.indexes.isEmpty(); }
+
+    /**
+     * @return running time of the search in nanoseconds
+     */
+    public long getElapsedNanos() { return this.elapsedNanos; }
+
+    /**
+     * @return running time of the search in milliseconds
+     */
+    public double getElapsedMillis() { return this.elapsedNanos / 1_000_000.0; }
+
+    /**
+     * Records how much of the search tree was explored.
+     * @param expanded number of nodes expanded
+     * @param pruned number of branches cut by a bound
+     */
+    public void setNodeCounts(long expanded, long pruned) {
+        this.nodesExpanded = expanded;
+        this.nodesPruned = pruned;
+    }
+
+    /**
+     * @return number of search nodes expanded
+     */
+    public long getNodesExpanded() { return this.nodesExpanded; }
+
+    /**
+     * @return number of search branches cut by a bound
+     */
+    public long getNodesPruned() { return this.nodesPruned; }
+
+    /**
+     * Records the outcome of a search that may have been stopped by its deadline.
+     * @param lowerBound proven lower bound on the lowest price
+     * @param optimal true if the price is proven to be the lowest
+     */
+    public void setBound(int lowerBound, boolean optimal) {
+        this.lowerBound = lowerBound;
+        this.optimal = optimal;
+    }
+
+    /**
+     * @return proven lower bound on the lowest price, equal to the price when it is optimal
+     */
+    public int getLowerBound() { return this.lowerBound; }
+
+    /**
+     * @return true if the price is proven to be the lowest, false if it is the best found within the time budget
+     */
+    public boolean isOptimal() { return this.optimal; }
+
+    /**
+     * Marks the price as the result of an approximate solver.
+     * @param guarantee the price is never more than this many times the lowest price
+     */
+    public void setGuarantee(double guarantee) {
+        this.guarantee = guarantee;
+    }
+
+    /**
+     * @return true if the price came from an approximate solver and is not proven to be the lowest
+     */
+    public boolean isApproximate() { return this.guarantee > 0 && !this.optimal; }
+
+    /**
+     * @return ratio to the lowest price the approximate solver guarantees, 0 for an exact price
+     */
+    public double getGuarantee() { return this.guarantee; }
+
+    /**
+     * @return price divided by the lower bound, an upper bound on how far this inventory is from the lowest price
+     */
+    public double getObservedRatio() { return this.lowerBound == 0 ? 1 : (double) this.price / this.lowerBound; }
+
+    /**
+     * @return dollars between the price and the lower bound, 0 when the price is optimal
+     */
+    public int getGap() { return this.price - this.lowerBound; }
+
+    /**
+     * @return gap as a percentage of the price, 0 when no combination was found
+     */
+    public double getGapPercent() { return this.price == 0 ? 0 : 100.0 * getGap() / this.price; }
+}
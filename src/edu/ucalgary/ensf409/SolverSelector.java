@@ -0,0 +1,203 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The SolverSelector class picks the @CombinationSolver used for an order. The mode is normally taken from the
+ * "ensf409.solver" system property and can be one of:
+ *  - auto: the pairing or three component solver for lamps, desks and filings, otherwise a dynamic program when its
+ *    table fits in memory and branch and bound when it does not
+ *  - dp: always the @DynamicSolver
+ *  - classes: always the @ClassSolver, which chooses counts per component mask class
+ *  - pairing: the @PairingSolver, for items of two components such as lamps
+ *  - triple: the @TripleSolver, for items of three components such as desks and filings
+ *  - mitm: the @MeetInMiddleSolver, for types of up to 62 candidate rows
+ *  - large: the @LargeOrderSolver for orders of hundreds or thousands of items
+ *  - approx: the @GreedySolver, a price within a guaranteed ratio of the lowest in milliseconds
+ *  - bnb: always the @BranchBoundSolver
+ *  - parallel: always the @ParallelSolver, using every available processor
+ *  - legacy: the original recursion in @CreateOrder, kept as a reference
+ *  - stack: the same search as legacy without creating objects per search node
+ * The "ensf409.budgetMillis" system property sets how long one search may run before it returns the best
+ * combination found so far. An order a fixed mode cannot take, such as one whose dynamic program table would not fit in
+ * memory, goes to the automatic choice instead. Each program checks the configured mode with checkConfiguredMode when
+ * it starts, so a mistyped mode is reported before any order is read.
+ */
+public class SolverSelector {
+    /** System property holding the solver mode */
+    public static final String PROPERTY = "ensf409.solver";
+    /** Mode used when none is configured */
+    public static final String DEFAULT_MODE = "auto";
+    /** System property holding the time budget of one search in milliseconds, 0 for none */
+    public static final String BUDGET_PROPERTY = "ensf409.budgetMillis";
+    /** Time budget used when none is configured, the response time promised for an order */
+    public static final long DEFAULT_BUDGET_MILLIS = 2000;
+    /** Every solver mode select accepts */
+    public static final List<String> MODES = Arrays.asList("auto", "dp", "classes", "pairing", "triple", "mitm",
+            "large", "approx", "bnb", "parallel", "legacy", "stack");
+
+    /**
+     * @return solver mode configured through the system property, or the default mode
+     */
+    public static String configuredMode() {
+        return System.getProperty(PROPERTY, DEFAULT_MODE);
+    }
+
+    /**
+     * Checks a solver mode.
+     * @param mode solver mode
+     * @return the mode
+     * @throws IllegalArgumentException if the mode is not one of MODES
+     */
+    public static String checkMode(String mode) {
+        if (!MODES.contains(mode)) {
+            throw new IllegalArgumentException("Unknown solver mode: " + mode + ", expected one of " + MODES);
+        }
+        return mode;
+    }
+
+    /**
+     * Checks the solver mode configured through the system property, once when a program starts.
+     * @return the configured mode
+     * @throws IllegalArgumentException if the mode is not one of MODES
+     */
+    public static String checkConfiguredMode() {
+        return checkMode(configuredMode());
+    }
+
+    /**
+     * @return time budget in milliseconds configured through the system property, or the default budget
+     */
+    public static long configuredBudget() {
+        return Long.getLong(BUDGET_PROPERTY, DEFAULT_BUDGET_MILLIS);
+    }
+
+    /**
+     * Picks the solver for an order. If the solver of the mode cannot take the order the automatic choice is used,
+     * and the reason is printed.
+     * @param mode solver mode (auto, dp, classes, pairing, triple, mitm, large, approx, bnb,
+     *             parallel, legacy or stack)
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @param co CreateOrder object, needed by the legacy solver
+     * @return the solver to use
+     * @throws IllegalArgumentException if the mode is not recognised
+     */
+    public static CombinationSolver select(String mode, ComponentTable table, int number, CreateOrder co) {
+        String limit = limit(checkMode(mode), table, number);
+        if (limit != null) {
+            System.out.println("The " + mode + " solver cannot take this order (" + limit + "), using the automatic choice");
+            return automatic(table, number);
+        }
+        switch (mode) {
+            case "dp":
+                return new DynamicSolver();
+            case "classes":
+                return new ClassSolver();
+            case "pairing":
+                return new PairingSolver();
+            case "triple":
+                return new TripleSolver();
+            case "mitm":
+                return new MeetInMiddleSolver();
+            case "large":
+                return new LargeOrderSolver();
+            case "approx":
+                return new GreedySolver();
+            case "bnb":
+                return new BranchBoundSolver();
+            case "parallel":
+                return new ParallelSolver();
+            case "legacy":
+                return new LegacySolver(co);
+            case "stack":
+                return new LegacySolver(co, true);
+            case "auto":
+                return automatic(table, number);
+            default:
+                throw new IllegalArgumentException("Unknown solver mode: " + mode);
+        }
+    }
+
+    /**
+     * Checks the order against the limits of the solver of a mode, the same limits its solve method enforces.
+     * @param mode solver mode
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @return why the solver cannot take the order, or null if it can
+     */
+    static String limit(String mode, ComponentTable table, int number) {
+        long states = DynamicSolver.stateCount(table.getComponents(), number);
+        switch (mode) {
+            case "dp":
+                return states <= DynamicSolver.MAX_CELLS / (table.size() + 1) ? null
+                        : "its table would need more than " + DynamicSolver.MAX_CELLS + " cells";
+            case "classes":
+                return ClassSolver.work(table, number) != Long.MAX_VALUE ? null
+                        : states + " states per class, more than its stage table holds";
+            case "pairing":
+                return table.getComponents() == 2 ? null : "it needs an item of two components";
+            case "triple":
+                return table.getComponents() == 3 ? null : "it needs an item of three components";
+            case "mitm":
+                if (table.size() > MeetInMiddleSolver.MAX_ROWS) {
+                    return table.size() + " candidate rows, limit is " + MeetInMiddleSolver.MAX_ROWS;
+                }
+                return MeetInMiddleSolver.fits(states) ? null : "its count vectors would not fit in memory";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Automatic rule: an item of two components, a lamp, always goes to the @PairingSolver, which merges two sorted
+     * lists with no search. An item of three components, a desk or filing, goes to the @TripleSolver while its
+     * (quantity + 1) ^ 3 steps stay under @ClassSolver.MAX_WORK. A type of @MeetInMiddleSolver.MIN_ROWS to
+     * @MeetInMiddleSolver.MAX_ROWS candidate rows goes to the @MeetInMiddleSolver when its count vectors fit: it makes
+     * the same one pass per row as the row program but only over the vectors its half can reach, several times faster
+     * on such types. For other orders both dynamic programs take the same time no matter how the prices fall, so one
+     * is used whenever its table fits under @DynamicSolver.MAX_CELLS. The row program makes one pass over
+     * (quantity + 1) ^ components states per candidate, the class program one per row count it tries in each mask
+     * class, at most min(class size, quantity) + 1, with far fewer stages to store. The one with fewer passes is used,
+     * the class program when only it fits. An order of at least @LargeOrderSolver.MIN_QUANTITY items whose class
+     * program would make more than @ClassSolver.MAX_WORK passes goes to the @LargeOrderSolver, whose time grows
+     * polynomially with the quantity. Other large orders go to branch and bound, whose bound keeps the search small in
+     * practice, spread over every processor when there is more than one.
+     * @param table candidate rows of the requested type
+     * @param number number of desired furniture items
+     * @return the solver to use
+     */
+    public static CombinationSolver automatic(ComponentTable table, int number) {
+        if (table.getComponents() == 2) {
+            return new PairingSolver();
+        }
+        if (table.getComponents() == 3 && TripleSolver.work(number) <= ClassSolver.MAX_WORK) {
+            return new TripleSolver();
+        }
+        long states = DynamicSolver.stateCount(table.getComponents(), number);
+        if (table.size() >= MeetInMiddleSolver.MIN_ROWS && table.size() <= MeetInMiddleSolver.MAX_ROWS
+                && MeetInMiddleSolver.fits(states)) {
+            return new MeetInMiddleSolver();
+        }
+        long work = ClassSolver.work(table, number);
+        if (work != Long.MAX_VALUE && (number < LargeOrderSolver.MIN_QUANTITY || work <= ClassSolver.MAX_WORK)) {
+            boolean rowsFit = states <= DynamicSolver.MAX_CELLS / (table.size() + 1);
+            return rowsFit && table.size() <= work / states ? new DynamicSolver() : new ClassSolver();
+        }
+        if (number >= LargeOrderSolver.MIN_QUANTITY) {
+            return new LargeOrderSolver();
+        }
+        if (Runtime.getRuntime().availableProcessors() > 1) {
+            return new ParallelSolver();
+        }
+        return new BranchBoundSolver();
+    }
+}
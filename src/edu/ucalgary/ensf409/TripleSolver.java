@@ -0,0 +1,177 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+
+package edu.ucalgary.ensf409;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * The TripleSolver class finds the exact lowest price for an item of three components, a desk or a filing, with a
+ * small dynamic program over counts of the seven component mask classes of a @ClassView. As in the @ClassSolver, k
+ * rows of a class are always its k cheapest, and for quantity q no two classes sharing a component together need more
+ * than q rows. Once the number of whole rows (mask 111) and of the two pair classes holding component 0 (masks 011 and
+ * 101) are chosen, the rows still needed with only component 0 are fixed, and what is left is covering n1 of
+ * component 1 and n2 of component 2 with the pair class 110 and the single classes 010 and 100. The lowest price of
+ * that for every n1, n2 is filled in first, so the solver takes O(q ^ 3) steps and O(q ^ 2) memory however many rows
+ * the table holds, against O(q ^ 4) steps over (q + 1) ^ 3 states for the general class program.
+ *
+ * When several choices share the lowest price the one with the fewest whole rows, then the fewest 011 and 101 rows, is
+ * returned. The row indexes are returned in ascending order, ready for @CreateOrder.makeIdArray. If the deadline passes
+ * the order is handed to the anytime @BranchBoundSolver with the same deadline.
+ */
+public class TripleSolver implements CombinationSolver {
+    private static final long NONE = Long.MAX_VALUE; // marks a count that cannot be taken
+
+    /**
+     * Finds the lowest price combination of rows that makes the requested number of items.
+     * @param table candidate rows of the requested type, of an item with three components
+     * @param number number of desired furniture items
+     * @return SolverResult with the lowest price and the row indexes, price 0 if the order cannot be made
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number) {
+        return solve(table, number, NO_DEADLINE);
+    }
+
+    /**
+     * Finds the lowest price combination, falling back to branch and bound if the deadline passes first.
+     * @param table candidate rows of the requested type, of an item with three components
+     * @param number number of desired furniture items
+     * @param deadline System.nanoTime() value to stop at, or NO_DEADLINE
+     * @return SolverResult with the price and the row indexes, price 0 if the order cannot be made
+     * @throws IllegalArgumentException if the item does not have three components
+     */
+    @Override
+    public SolverResult solve(ComponentTable table, int number, long deadline) {
+        long start = System.nanoTime();
+        if (table.getComponents() != 3) {
+            throw new IllegalArgumentException("Three component counts need an item of three components, "
+                    + table.getCategory() + " has " + table.getComponents());
+        }
+        ClassView view = new ClassView(table, number); // no class needs more than number rows
+
+        // rest[n1][n2] is the lowest price to cover n1 of component 1 and n2 of component 2 with classes 110, 010, 100
+        long[][] rest = new long[number + 1][number + 1];
+        for (int n1 = 0; n1 <= number; n1++) {
+            if (CombinationSolver.expired(deadline)) {
+                return ClassSolver.fallBack(table, number, deadline, start);
+            }
+            for (int n2 = 0; n2 <= number; n2++) {
+                rest[n1][n2] = NONE;
+                for (int k6 = 0; k6 <= Math.max(n1, n2); k6++) {
+                    long price = add(cost(view, 6, k6), cost(view, 2, Math.max(0, n1 - k6)),
+                            cost(view, 4, Math.max(0, n2 - k6)));
+                    if (price < rest[n1][n2]) {
+                        rest[n1][n2] = price;
+                    }
+                }
+            }
+        }
+
+        long lowest = NONE;
+        int[] choice = new int[3]; // counts of classes 111, 011 and 101 giving the lowest price
+        for (int k7 = 0; k7 <= number; k7++) {
+            if (CombinationSolver.expired(deadline)) {
+                return ClassSolver.fallBack(table, number, deadline, start);
+            }
+            long whole = cost(view, 7, k7);
+            if (whole == NONE) {
+                break; // the class has run out of rows
+            }
+            for (int k3 = 0; k7 + k3 <= number; k3++) {
+                long first = add(whole, cost(view, 3, k3), 0);
+                if (first == NONE) {
+                    break;
+                }
+                for (int k5 = 0; k7 + k5 <= number; k5++) {
+                    long second = add(first, cost(view, 5, k5), 0);
+                    if (second == NONE) {
+                        break;
+                    }
+                    long price = add(second, cost(view, 1, Math.max(0, number - k7 - k3 - k5)),
+                            rest[number - k7 - k3][number - k7 - k5]);
+                    if (price < lowest) {
+                        lowest = price;
+                        choice[0] = k7;
+                        choice[1] = k3;
+                        choice[2] = k5;
+                    }
+                }
+            }
+        }
+
+        ArrayList<Integer> indexes = new ArrayList<Integer>();
+        if (lowest == NONE) {
+            return new SolverResult(0, indexes, System.nanoTime() - start);
+        }
+        int k7 = choice[0];
+        int k3 = choice[1];
+        int k5 = choice[2];
+        int n1 = number - k7 - k3;
+        int n2 = number - k7 - k5;
+        int k6 = 0;
+        while (add(cost(view, 6, k6), cost(view, 2, Math.max(0, n1 - k6)),
+                cost(view, 4, Math.max(0, n2 - k6))) != rest[n1][n2]) {
+            k6++;
+        }
+        take(view, 7, k7, indexes);
+        take(view, 3, k3, indexes);
+        take(view, 5, k5, indexes);
+        take(view, 6, k6, indexes);
+        take(view, 1, Math.max(0, number - k7 - k3 - k5), indexes);
+        take(view, 2, Math.max(0, n1 - k6), indexes);
+        take(view, 4, Math.max(0, n2 - k6), indexes);
+        Collections.sort(indexes);
+        return new SolverResult((int) lowest, indexes, System.nanoTime() - start);
+    }
+
+    /**
+     * @return "triple"
+     */
+    @Override
+    public String getName() { return "triple"; }
+
+    /**
+     * @param number number of desired furniture items
+     * @return steps the solver takes for the order, (quantity + 1) ^ 3
+     */
+    public static long work(int number) {
+        long radix = number + 1;
+        return radix * radix * radix;
+    }
+
+    /**
+     * @param view classes of the candidate rows
+     * @param mask component mask
+     * @param k number of rows taken
+     * @return price of the k cheapest rows with the mask, NONE if there are fewer than k
+     */
+    private static long cost(ClassView view, int mask, int k) {
+        if (k == 0) {
+            return 0;
+        }
+        int c = view.classOf(mask);
+        return c < 0 || k > view.size(c) ? NONE : view.cost(c, k);
+    }
+
+    /**
+     * @return a + b + c, NONE if any of them is NONE
+     */
+    private static long add(long a, long b, long c) {
+        return a == NONE || b == NONE || c == NONE ? NONE : a + b + c;
+    }
+
+    /**
+     * Adds the k cheapest rows with a mask to the combination.
+     */
+    private static void take(ClassView view, int mask, int k, ArrayList<Integer> indexes) {
+        for (int rank = 0; rank < k; rank++) {
+            indexes.add(view.getRow(view.classOf(mask), rank));
+        }
+    }
+}
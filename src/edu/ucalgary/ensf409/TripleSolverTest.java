@@ -0,0 +1,77 @@
+/**
+ * Active Team Members:
+ * @Author Eli St.James <a href="mailto:eli.stjames@ucalgary.ca">eli.stjames@ucalgary.ca</a>
+ * @Version 1.0
+ * @Since 2.5
+ */
+package edu.ucalgary.ensf409;
+
+import org.junit.*;
+import java.util.*;
+
+/**
+ * Tests the @TripleSolver against hardcoded desks from the inventory database and against the exact @DynamicSolver.
+ */
+public class TripleSolverTest
+{
+    private Desk[] desks;
+
+    @Before
+    public void setUp()
+    {
+        desks = new Desk[] {
+                new Desk("D3820", "Standing", "Y", "N", "N", 150, "001"),
+                new Desk("D4475", "Adjustable", "N", "Y", "Y", 200, "002"),
+                new Desk("D0890", "Traditional", "N", "N", "Y", 25, "002"),
+                new Desk("D2341", "Standing", "N", "Y", "N", 100, "001"),
+                new Desk("D9387", "Standing", "Y", "Y", "N", 250, "004"),
+                new Desk("D7373", "Adjustable", "Y", "Y", "N", 350, "005"),
+                new Desk("D2746", "Adjustable", "Y", "N", "Y", 250, "004"),
+                new Desk("D9352", "Traditional", "Y", "N", "Y", 75, "002"),
+                new Desk("D4231", "Adjustable", "N", "Y", "Y", 50, "005"),
+                new Desk("D8675", "Traditional", "N", "Y", "Y", 75, "001"),
+                new Desk("D1030", "Adjustable", "Y", "N", "N", 150, "002"),
+                new Desk("D5437", "Adjustable", "Y", "N", "N", 200, "001"),
+                new Desk("D3682", "Adjustable", "N", "N", "Y", 50, "005")
+        };
+    }
+
+    /**
+     * testAdjustableDesk() orders one Adjustable desk, D4231 and D1030 for $200, and two, for the same price as the
+     * @DynamicSolver.
+     */
+    @Test
+    public void testAdjustableDesk()
+    {
+        ComponentTable table = ComponentTable.fromDesks(desks, "Adjustable");
+
+        SolverResult one = new TripleSolver().solve(table, 1);
+        Assert.assertEquals("Price for one Adjustable desk should be 200", 200, one.getPrice());
+        Assert.assertEquals("Combination should be rows 8 and 10", Arrays.asList(8, 10), one.getIndexes());
+        Assert.assertEquals("Price for two Adjustable desks should match the dynamic program",
+                new DynamicSolver().solve(table, 2).getPrice(), new TripleSolver().solve(table, 2).getPrice());
+        Assert.assertFalse("Three Standing desks cannot be made",
+                new TripleSolver().solve(ComponentTable.fromDesks(desks, "Standing"), 3).isFound());
+    }
+
+    /**
+     * testMatchesDynamicSolver() compares the price with the exact price of the @DynamicSolver on generated tables,
+     * and checks the rows add up to it.
+     */
+    @Test
+    public void testMatchesDynamicSolver()
+    {
+        for (int seed = 0; seed < 200; seed++) {
+            ComponentTable table = SolverBenchmark.randomTable(seed, "desk", 3, 1 + seed % 40);
+            int number = 1 + seed % 5;
+            SolverResult result = new TripleSolver().solve(table, number);
+            Assert.assertEquals("Three component price differs for seed " + seed,
+                    new DynamicSolver().solve(table, number).getPrice(), result.getPrice());
+            int price = 0;
+            for (int row : result.getIndexes()) {
+                price += table.getPrice(row);
+            }
+            Assert.assertEquals("Rows should add up to the price", result.getPrice(), price);
+        }
+    }
+}